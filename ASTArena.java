@@ -0,0 +1,217 @@
+import java.nio.LongBuffer;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+// Syntax tree packed into primitive arrays. Node i is described by the i-th entry of each array. Nodes are
+// numbered level by level, so the children of a node have consecutive indexes and a node only keeps the
+// index of its first child and how many it has, 23 bytes a node against well over 100 for an ASTNode
+// with its child list. Values, and the sets of kinds found under each node, are stored once each in a
+// table and nodes keep their index in it. Token names of TOKEN leaves are looked up from their token code.
+// Built from a finished tree. take() empties the tree as it copies it, so the nodes already copied can
+// be collected while the arena grows. root() gives ArenaNode views that read the arrays, so the
+// translator walks an arena like any other tree. Views are made when asked for and not kept, so an
+// arena holds no objects per node however often it is walked.
+class ASTArena {
+    static final int NONE = -1; // no child or no value
+
+    private int size;
+    private byte[] kind; // NodeKind ordinal, NONE for a node without a kind
+    private short[] token; // token code of a TOKEN or identifier leaf, 0 otherwise
+    private int[] line;
+    private int[] value; // index in values, NONE if the node has no value
+    private int[] firstChild; // index of the first child, NONE for a leaf
+    private int[] childCount;
+    private int[] below; // index in belowSets of the kinds under the node, NONE for a leaf
+    private String[] values; // distinct values in order of first use
+    private long[][] belowSets; // distinct sets of kinds under a node, see SyntaxNode.below()
+    private final HashMap<Integer, String> tokenNames = new HashMap<Integer, String>(); // token code to token name
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+
+    private ASTArena(int capacity) {
+        kind = new byte[capacity];
+        token = new short[capacity];
+        line = new int[capacity];
+        value = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        below = new int[capacity];
+    }
+
+    // Copies a tree into a new arena, the root is 0 and every level follows the one above it
+    static ASTArena of(SyntaxNode root) {
+        return copy(root, false);
+    }
+
+    // Copies a tree into a new arena like of(), taking the children away from each node once they are
+    // copied. Only the nodes waiting to be copied stay reachable, so the tree shrinks as the arena grows
+    // and the two never both take their full size. The tree can't be used afterwards
+    static ASTArena take(ASTNode root) {
+        return copy(root, true);
+    }
+
+    // Goes through the nodes in the order they get their index, so deep trees don't overflow the call stack.
+    // waiting holds the nodes added but whose children are not yet, node i of the arena at its head
+    private static ASTArena copy(SyntaxNode root, boolean consume) {
+        ASTArena arena = new ASTArena(64);
+        HashMap<String, Integer> valueIndex = new HashMap<String, Integer>();
+        ArrayList<String> values = new ArrayList<String>();
+        HashMap<LongBuffer, Integer> belowIndex = new HashMap<LongBuffer, Integer>(); // LongBuffer compares by content
+        ArrayList<long[]> belowSets = new ArrayList<long[]>();
+        ArrayDeque<SyntaxNode> waiting = new ArrayDeque<SyntaxNode>();
+        waiting.add(root);
+        arena.add(root, valueIndex, values, belowIndex, belowSets);
+        for (int i = 0; !waiting.isEmpty(); i++) {
+            SyntaxNode node = waiting.poll();
+            List<? extends SyntaxNode> children = node.getChildren();
+            arena.firstChild[i] = children.isEmpty() ? NONE : arena.size;
+            arena.childCount[i] = children.size();
+            for (SyntaxNode child : children) {
+                arena.add(child, valueIndex, values, belowIndex, belowSets);
+                waiting.add(child);
+            }
+            if (consume) {
+                ((ASTNode) node).dropChildren();
+            }
+        }
+        arena.values = values.toArray(new String[values.size()]);
+        arena.belowSets = belowSets.toArray(new long[belowSets.size()][]);
+        arena.trim();
+        return arena;
+    }
+
+    // appends one node without children, returns its index
+    private int add(SyntaxNode node, HashMap<String, Integer> valueIndex, ArrayList<String> values,
+            HashMap<LongBuffer, Integer> belowIndex, ArrayList<long[]> belowSets) {
+        if (size == kind.length) {
+            grow(size * 2);
+        }
+        int i = size++;
+        NodeKind k = node.getKind();
+        kind[i] = (byte) (k == null ? NONE : k.ordinal());
+        token[i] = (short) node.tokenCode();
+        if (k == NodeKind.TOKEN) {
+            tokenNames.put(node.tokenCode(), node.getType());
+        }
+        line[i] = node.getLine();
+        if (node.hasValue()) {
+            Integer v = valueIndex.get(node.getValue());
+            if (v == null) {
+                v = values.size();
+                values.add(node.getValue());
+                valueIndex.put(node.getValue(), v);
+            }
+            value[i] = v;
+        } else {
+            value[i] = NONE;
+        }
+        long[] bits = node.below();
+        if (bits != null) {
+            Integer b = belowIndex.get(LongBuffer.wrap(bits));
+            if (b == null) {
+                b = belowSets.size();
+                belowSets.add(bits.clone());
+                belowIndex.put(LongBuffer.wrap(belowSets.get(b)), b);
+            }
+            below[i] = b;
+        } else {
+            below[i] = NONE;
+        }
+        firstChild[i] = NONE;
+        childCount[i] = 0;
+        return i;
+    }
+
+    private void grow(int capacity) {
+        kind = Arrays.copyOf(kind, capacity);
+        token = Arrays.copyOf(token, capacity);
+        line = Arrays.copyOf(line, capacity);
+        value = Arrays.copyOf(value, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        childCount = Arrays.copyOf(childCount, capacity);
+        below = Arrays.copyOf(below, capacity);
+    }
+
+    // drops the unused end of the arrays
+    private void trim() {
+        if (size < kind.length) {
+            grow(size);
+        }
+    }
+
+    // Returns a view of the root node
+    ArenaNode root() {
+        return node(0);
+    }
+
+    // Returns a new view of node i
+    ArenaNode node(int i) {
+        return new ArenaNode(this, i);
+    }
+
+    // number of nodes
+    int size() {
+        return size;
+    }
+
+    NodeKind kind(int i) {
+        return kind[i] == NONE ? null : KINDS[kind[i]];
+    }
+
+    int tokenCode(int i) {
+        return token[i];
+    }
+
+    int line(int i) {
+        return line[i];
+    }
+
+    // Returns the value of node i, null if it has none
+    String value(int i) {
+        return value[i] == NONE ? null : values[value[i]];
+    }
+
+    // Returns the label of the kind, or the token name for a TOKEN leaf
+    String type(int i) {
+        NodeKind k = kind(i);
+        if (k == NodeKind.TOKEN) {
+            return tokenNames.get(tokenCode(i));
+        }
+        return k == null ? null : k.label();
+    }
+
+    int firstChild(int i) {
+        return firstChild[i];
+    }
+
+    int childCount(int i) {
+        return childCount[i];
+    }
+
+    // Returns the children of node i as a read only list, making a view of a child each time it is read
+    List<ArenaNode> children(int i) {
+        int first = firstChild[i];
+        int count = childCount[i];
+        return new AbstractList<ArenaNode>() {
+            public ArenaNode get(int k) {
+                if (k < 0 || k >= count) {
+                    throw new IndexOutOfBoundsException("child " + k + " of " + count);
+                }
+                return node(first + k);
+            }
+
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    // Returns the kinds and token codes under node i as KindBits, null for a leaf
+    long[] below(int i) {
+        return below[i] == NONE ? null : belowSets[below[i]];
+    }
+}
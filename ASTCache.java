@@ -0,0 +1,190 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+// A parsed program saved so it can be translated again, with other settings, without lexing and parsing it.
+// Holds the tree, the comments, what FirstPass found and the type names the parser knew, together with
+// the length and a checksum of the source so a cache of an older version of the file can be told apart.
+// Numbers and strings are written as in ASTWriter:
+//   cache     = magic version length checksum firstpass types comments tree
+//   magic     = the 4 bytes J2PA
+//   version   = VERSION, caches of any other version are refused
+//   length    = source length in chars
+//   checksum  = CRC32 of the source as UTF-8, 4 bytes high byte first
+//   firstpass = 0 if FirstPass didn't run, else 1 classes methods fields
+//               classes = count name*, methods = count (name class arity)*, fields = count (name class)*
+//   types     = count name*
+//   comments  = count (line text)*
+//   tree      = the tree in ASTWriter's binary form
+final class ASTCache {
+    static final byte[] MAGIC = { 'J', '2', 'P', 'A' };
+    static final int VERSION = 1;
+
+    private final int length; // of the source the cache was made from
+    private final int checksum;
+    private final FirstPass firstPass;
+    private final SymbolTable symbols;
+    private final ArrayList<Comment> comments;
+    private final ASTNode root;
+
+    private ASTCache(int length, int checksum, FirstPass firstPass, SymbolTable symbols, ArrayList<Comment> comments, ASTNode root) {
+        this.length = length;
+        this.checksum = checksum;
+        this.firstPass = firstPass;
+        this.symbols = symbols;
+        this.comments = comments;
+        this.root = root;
+    }
+
+    // Writes what the parser made of source, root being the tree parse() returned
+    static void write(Parser parser, ASTNode root, String source, OutputStream out) throws IOException {
+        out.write(MAGIC);
+        ASTWriter.writeVarint(VERSION, out);
+        ASTWriter.writeVarint(source.length(), out);
+        int sum = checksum(source);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(sum >>> shift);
+        }
+        FirstPass fp = parser.getFirstPass();
+        if (fp == null) {
+            ASTWriter.writeVarint(0, out);
+        } else {
+            ASTWriter.writeVarint(1, out);
+            ASTWriter.writeVarint(fp.classCount(), out);
+            for (int i = 0; i < fp.classCount(); i++) {
+                ASTWriter.writeString(fp.className(i), out);
+            }
+            ASTWriter.writeVarint(fp.methodCount(), out);
+            for (int i = 0; i < fp.methodCount(); i++) {
+                ASTWriter.writeString(fp.methodName(i), out);
+                ASTWriter.writeVarint(fp.methodClass(i), out);
+                ASTWriter.writeVarint(fp.methodArity(i), out);
+            }
+            ASTWriter.writeVarint(fp.fieldCount(), out);
+            for (int i = 0; i < fp.fieldCount(); i++) {
+                ASTWriter.writeString(fp.fieldName(i), out);
+                ASTWriter.writeVarint(fp.fieldClass(i), out);
+            }
+        }
+        String[] types = parser.getSymbols().types();
+        ASTWriter.writeVarint(types.length, out);
+        for (String type : types) {
+            ASTWriter.writeString(type, out);
+        }
+        ArrayList<Comment> comments = parser.getComments();
+        ASTWriter.writeVarint(comments.size(), out);
+        for (Comment c : comments) {
+            ASTWriter.writeVarint(c.getLine(), out);
+            ASTWriter.writeString(c.getComment(), out);
+        }
+        ASTWriter.writeBinary(root, out);
+    }
+
+    static ByteBuffer encode(Parser parser, ASTNode root, String source) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(parser, root, source, out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    static void save(Parser parser, ASTNode root, String source, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(parser, root, source, out);
+        }
+    }
+
+    // Reads a cache starting at the buffer's position
+    static ASTCache decode(ByteBuffer in) throws IOException {
+        for (byte b : MAGIC) {
+            if (!in.hasRemaining() || in.get() != b) {
+                throw new IOException("not an AST cache");
+            }
+        }
+        int version = ASTReader.readVarint(in);
+        if (version != VERSION) {
+            throw new IOException("AST cache version " + version + ", expected " + VERSION);
+        }
+        int length = ASTReader.readVarint(in);
+        if (in.remaining() < 4) {
+            throw new IOException("AST cache ends in its header");
+        }
+        int checksum = in.getInt();
+        SymbolTable symbols = new SymbolTable();
+        FirstPass fp = null;
+        if (ASTReader.readVarint(in) == 1) {
+            String[] classNames = new String[ASTReader.readCount(in, 1)];
+            for (int i = 0; i < classNames.length; i++) {
+                classNames[i] = ASTReader.readString(in);
+            }
+            int methods = ASTReader.readCount(in, 3); // name, class and arity
+            String[] methodNames = new String[methods];
+            int[] methodClass = new int[methods];
+            int[] methodArity = new int[methods];
+            for (int i = 0; i < methods; i++) {
+                methodNames[i] = ASTReader.readString(in);
+                methodClass[i] = ASTReader.readVarint(in);
+                methodArity[i] = ASTReader.readVarint(in);
+            }
+            int fields = ASTReader.readCount(in, 2); // name and class
+            String[] fieldNames = new String[fields];
+            int[] fieldClass = new int[fields];
+            for (int i = 0; i < fields; i++) {
+                fieldNames[i] = ASTReader.readString(in);
+                fieldClass[i] = ASTReader.readVarint(in);
+            }
+            fp = new FirstPass(classNames, methodNames, methodClass, methodArity, fieldNames, fieldClass);
+            symbols.load(fp);
+        }
+        int types = ASTReader.readCount(in, 1);
+        for (int i = 0; i < types; i++) {
+            symbols.addType(ASTReader.readString(in));
+        }
+        int count = ASTReader.readCount(in, 2); // line and text
+        ArrayList<Comment> comments = new ArrayList<Comment>(count);
+        for (int i = 0; i < count; i++) {
+            int line = ASTReader.readVarint(in);
+            comments.add(new Comment(ASTReader.readString(in), line));
+        }
+        ASTNode root = ASTReader.readBinary(in);
+        return new ASTCache(length, checksum, fp, symbols, comments, root);
+    }
+
+    static ASTCache load(Path file) throws IOException {
+        return decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    static int checksum(String source) {
+        CRC32 crc = new CRC32();
+        crc.update(source.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    // Returns true if the cache was made from this source
+    boolean matches(String source) {
+        return source.length() == length && checksum(source) == checksum;
+    }
+
+    ASTNode getRoot() {
+        return root;
+    }
+
+    ArrayList<Comment> getComments() {
+        return comments;
+    }
+
+    // Returns the symbol table to hand to a Translator
+    SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    // Returns what FirstPass found, null if it didn't run
+    FirstPass getFirstPass() {
+        return firstPass;
+    }
+}
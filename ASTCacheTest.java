@@ -0,0 +1,168 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Round trip check for ASTCache. Every source in a folder is translated from a fresh parse and again from its
+// cache written and read back, the Python output and the printed trees must be the same both times.
+// Also reports how long parsing and loading take, the best of RUNS runs each, and checks that damaged caches
+// are refused with an IOException, or don't match their source.
+// usage: java ASTCacheTest [folder of java sources, TestJavaSourceFiles by default]
+public class ASTCacheTest {
+    static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : "TestJavaSourceFiles");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        PrintStream out = System.out;
+        PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+        int failed = 0;
+        out.println(String.format("%-28s%-10s%-12s%-12s%-10s", "file", "result", "parse ms", "load ms", "bytes"));
+        for (File f : files) {
+            String source = new String(Files.readAllBytes(f.toPath()));
+            Parser p = null;
+            ASTNode root = null;
+            long parse = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                p = new Parser();
+                p.setDebug(false);
+                p.setPrintTree(false);
+                p.setLexer(new LexScanner(source));
+                root = p.parse();
+                parse = Math.min(parse, System.nanoTime() - start);
+            }
+            if (p.getErrorMsg() != null) {
+                out.println(String.format("%-28s%-10s", f.getName(), "skipped, " + p.getErrorMsg()));
+                continue;
+            }
+            ByteBuffer bytes = ASTCache.encode(p, root, source);
+            ASTCache cache = null;
+            long load = Long.MAX_VALUE;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                cache = ASTCache.decode(bytes.duplicate());
+                load = Math.min(load, System.nanoTime() - start);
+            }
+
+            boolean same;
+            System.setOut(quiet); // the translator prints what it's doing in debug mode
+            try {
+                same = cache.matches(source)
+                    && tree(root).equals(tree(cache.getRoot()))
+                    && comments(p.getComments()).equals(comments(cache.getComments()))
+                    && translate(new Translator(p), root, p.getComments()).equals(
+                        translate(new Translator(cache.getSymbols()), cache.getRoot(), cache.getComments()));
+            } finally {
+                System.setOut(out);
+            }
+            if (!same) {
+                failed++;
+            }
+            out.println(String.format("%-28s%-10s%-12.3f%-12.3f%-10d", f.getName(), same ? "ok" : "FAILED", parse / 1e6, load / 1e6, bytes.limit()));
+        }
+        if (failed > 0) {
+            out.println(failed + " of " + files.length + " files translated differently from their cache");
+        }
+        int damaged = damaged(out);
+        if (damaged > 0) {
+            out.println(damaged + " damaged caches were read as good ones");
+        }
+        if (failed > 0 || damaged > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Reads back broken copies of a good cache and caches whose counts are more than what follows them.
+    // Returns how many weren't caught
+    static int damaged(PrintStream out) throws Exception {
+        String source = "class Main {\n    public static void main(String[] args) {\n        int x = 1;\n    }\n}\n";
+        Parser p = new Parser();
+        p.setDebug(false);
+        p.setPrintTree(false);
+        p.setLexer(new LexScanner(source));
+        ASTNode root = p.parse();
+        byte[] good = ASTCache.encode(p, root, source).array();
+        int failed = 0;
+
+        byte[] magic = good.clone();
+        magic[0] = 'X';
+        failed += refused(out, "bad magic", magic);
+        failed += refused(out, "truncated", Arrays.copyOf(good, good.length / 2));
+
+        // magic, a one byte version and a one byte length, then the checksum
+        byte[] crc = good.clone();
+        crc[6] ^= 1;
+        boolean matched = ASTCache.decode(ByteBuffer.wrap(crc)).matches(source);
+        out.println(String.format("%-28s%-10s", "bad checksum", matched ? "FAILED" : "ok"));
+        failed += matched ? 1 : 0;
+
+        // firstpass, types and comments counts, then a node with its kind, code, line, value and child count
+        failed += refused(out, "negative class count", header(1, -1));
+        failed += refused(out, "huge class count", header(1, Integer.MAX_VALUE));
+        failed += refused(out, "huge method count", header(1, 0, 1 << 28));
+        failed += refused(out, "huge field count", header(1, 0, 0, 1 << 28));
+        failed += refused(out, "huge type count", header(0, 1 << 28));
+        failed += refused(out, "negative comment count", header(0, 0, -5));
+        failed += refused(out, "huge comment count", header(0, 0, 1 << 28));
+        failed += refused(out, "huge child count", header(0, 0, 0, 1, 0, 0, 0, 1 << 28));
+        return failed;
+    }
+
+    // A cache of an empty source holding these numbers after its checksum
+    static byte[] header(int... numbers) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ASTCache.MAGIC);
+        ASTWriter.writeVarint(ASTCache.VERSION, out);
+        ASTWriter.writeVarint(0, out);
+        out.write(new byte[4]);
+        for (int n : numbers) {
+            ASTWriter.writeVarint(n, out);
+        }
+        return out.toByteArray();
+    }
+
+    // Returns 0 if decoding bytes fails with an IOException, else 1
+    static int refused(PrintStream out, String what, byte[] bytes) {
+        try {
+            ASTCache.decode(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            out.println(String.format("%-28s%-10s%s", what, "ok", e.getMessage()));
+            return 0;
+        } catch (RuntimeException e) {
+            out.println(String.format("%-28s%-10s%s", what, "FAILED", e));
+            return 1;
+        }
+        out.println(String.format("%-28s%-10s", what, "FAILED"));
+        return 1;
+    }
+
+    // Python source, or the error, as TranslatorTest reports it
+    static String translate(Translator t, ASTNode root, ArrayList<Comment> comments) {
+        t.setDebug(true);
+        t.setCrashOnError(false);
+        t.finalize(root, new ArrayList<Comment>(comments));
+        return t.isErrorOccurred() ? t.getErrorMessage() : t.getSource();
+    }
+
+    static String tree(ASTNode root) throws IOException {
+        StringWriter out = new StringWriter();
+        ASTWriter.writeText(root, 0, out);
+        return out.toString();
+    }
+
+    static String comments(ArrayList<Comment> comments) {
+        StringBuilder sb = new StringBuilder();
+        for (Comment c : comments) {
+            sb.append(c.getLine()).append(' ').append(c.getComment()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -1,27 +1,49 @@
-import java.util.regex.Pattern;
-
 import java.util.ArrayList;
-import java.util.Random;
-
-class ASTNode {
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Node of the syntax tree built by the parser, the queries over its children come from SyntaxNode.
+// Each node keeps the set of kinds and token codes found anywhere under it, updated whenever a child is
+// added, removed or replaced, so containsAll() doesn't walk the subtree. Children can only be changed
+// through the methods here, getChildren() returns a read only list.
+class ASTNode implements SyntaxNode {
     private ASTNode parent;
     private ArrayList<ASTNode> children;
+    private List<ASTNode> readOnlyChildren; // what getChildren() returns, a read only view of children
+    private long[] below; // kinds and token codes of all descendants as KindBits, null while there are none
+    private NodeKind kind;
+    private int tokenCode; // code of the token a TOKEN leaf holds, 0 for nodes built from grammar rules
     private String type;
     private String value;
-    private String key;
     private int line;
     private int depth;
     
-    ASTNode(String type, String value, int line) 
+    ASTNode(NodeKind kind, String value, int line) 
+    {
+        this(kind, kind == null ? null : kind.label(), 0, value, line);
+    }
+
+    // leaf for a token, an identifier token gets the identifier kind
+    ASTNode(JavaToken token, int line)
     {
+        this(token.tokenCode() == TokenCode.IDENTIFIER ? NodeKind.IDENTIFIER : NodeKind.TOKEN,
+            token.tokenName(), token.tokenCode(), token.getLiteral(), line);
+    }
+
+    // node with every field given, for readers of a saved tree
+    ASTNode(NodeKind kind, String type, int tokenCode, String value, int line)
+    {
+        this.kind = kind;
+        this.tokenCode = tokenCode;
         this.type = type;
         this.value = value;
         this.line = line;
-        this.key = null;
         this.depth = -1;
         children = new ArrayList<ASTNode>();
-        genKey();
+        readOnlyChildren = Collections.unmodifiableList(children);
     }
+
     // add child node
     void addChild(ASTNode child) 
     {
@@ -29,98 +51,90 @@ class ASTNode {
         {
             child.setParent(this);
             children.add(child);
+            // child and everything under it is merged into this node and its ancestors,
+            // stop at the first one that already had it all
+            long[] childBelow = child.below();
+            for (ASTNode node = this; node != null; node = node.parent) {
+                if (node.below == null) node.below = new long[KindBits.WORDS];
+                if (!KindBits.addNode(node.below, child.getKind(), child.tokenCode(), childBelow)) break;
+            }
         }
     }
-    // get child nodes
-    ArrayList<ASTNode> getChildren() { return children; }
 
-    // get next node with more than one or zero children
-    ASTNode getNextLeafOrBranch() {
-        return getNextLeafOrBranch(0, children.size());
+    // replace the child at index i
+    void setChild(int i, ASTNode child)
+    {
+        child.setParent(this);
+        children.set(i, child).setParent(null);
+        recountBelow();
     }
 
-    ASTNode getNextLeafOrBranch(int fIndex) {
-        return getNextLeafOrBranch(fIndex, children.size());
+    // remove the child at index i and return it
+    ASTNode removeChild(int i)
+    {
+        ASTNode child = children.remove(i);
+        child.setParent(null);
+        recountBelow();
+        return child;
     }
 
-    ASTNode getNextLeafOrBranch(int fIndex, int eIndex) {
-        ASTNode tempNode = null;
-
-        for (ASTNode node : children.subList(fIndex, eIndex)) {
-            if (node.childCount() == 0 || node.childCount() > 1) {
-                return node;
-            } else {
-                tempNode = node.getNextLeafOrBranch();
-                if (tempNode != null) return tempNode;
-            }
+    // Lets go of all children at once, for a tree that is being copied and dropped, see ASTArena.take().
+    // The set of kinds below is kept, the node is not used again
+    void dropChildren()
+    {
+        for (ASTNode child : children) {
+            child.parent = null;
         }
-
-        return null;
+        children.clear();
+        children.trimToSize();
     }
 
-    ASTNode getChild(String type) {
-        ASTNode tempNode = null;
-
-        for (ASTNode node : children) {
-            if (node.getType() == type) {
-                return node;
-            } else {
-                tempNode = node.getChild(type);
-                if (tempNode != null) return tempNode;
+    // rebuilds the sets of this node and its ancestors from their children after one was taken away,
+    // stop at the first one that didn't change
+    private void recountBelow()
+    {
+        for (ASTNode node = this; node != null; node = node.parent) {
+            long[] bits = null;
+            for (ASTNode child : node.children) {
+                if (bits == null) bits = new long[KindBits.WORDS];
+                KindBits.addNode(bits, child.getKind(), child.tokenCode(), child.below());
             }
+            if (Arrays.equals(bits, node.below)) break;
+            node.below = bits;
         }
+    }
 
-        return null;
+    // kinds and token codes of all descendants, null if there are none
+    public long[] below()
+    {
+        return below;
     }
 
-    // returns true if node contains a child of type
-    // 'type'
-    boolean contains(String type) {
-        for (ASTNode child : children) {
-            if (child.getType().equals(type)) return true;
-        }
+    // get child nodes, the list can't be changed
+    public List<ASTNode> getChildren() { return readOnlyChildren; }
 
-        return false;
+    // get next node with more than one or zero children
+    ASTNode getNextLeafOrBranch() {
+        return getNextLeafOrBranch(0, childCount());
     }
 
-    // returns true if node matches a child of type 
-    // 'type'
-    boolean contains(Pattern type) {
-        for (ASTNode child : children) {
-            if (type.matcher(child.getType()).find()) return true;
-        }
-        
-        return false;
-    }
-
-    // returns true if node or any of its descendants contains
-    // a child of type 'type'
-    boolean containsAll(String type) {
-        boolean containsType = contains(type);
-        if (!containsType) {
-            for (ASTNode child : children) {
-                containsType = child.containsAll(type);
-                if (containsType) return true;
-            }
-
-            // should be false
-            return containsType;
-        } else return true;
+    ASTNode getNextLeafOrBranch(int fIndex) {
+        return getNextLeafOrBranch(fIndex, childCount());
     }
 
-    // returns true if node or any of its descendants matches
-    // a child of type 'type'
-    boolean containsAll(Pattern type) {
-        boolean matchesType = contains(type);
-        if (!matchesType) {
-            for (ASTNode child : children) {
-                matchesType = child.containsAll(type);
-                if (matchesType) return true;
+    ASTNode getNextLeafOrBranch(int fIndex, int eIndex) {
+        ASTNode tempNode = null;
+
+        for (ASTNode node : getChildren().subList(fIndex, eIndex)) {
+            if (node.childCount() == 0 || node.childCount() > 1) {
+                return node;
+            } else {
+                tempNode = node.getNextLeafOrBranch();
+                if (tempNode != null) return tempNode;
             }
+        }
 
-            // should be false
-            return matchesType;
-        } else return true;
+        return null;
     }
 
     // set parent node
@@ -129,26 +143,8 @@ class ASTNode {
     ASTNode getParent() { return parent; }
     
     
-    //generate key (for identifying objects in a list/maintaining uniqueness)
-    void genKey(){
-        Random rand = new Random();
-        int key_length = 16;
-        String key_alpha = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder sb = new StringBuilder(key_length);
-        for(int i = 0; i < key_length; i++){
-            int j = rand.nextInt(key_alpha.length());
-            char c = key_alpha.charAt(j);
-            sb.append(c);
-        }
-        this.key = sb.toString();
-    }
-
-    String getKey(){
-        return this.key;
-    }
-
     //get the number of child nodes
-    int childCount(){
+    public int childCount(){
         return this.children.size();
     }
     
@@ -161,37 +157,41 @@ class ASTNode {
         return this.depth;
     }
     
-    String getType(){
+    public NodeKind getKind(){
+        return this.kind;
+    }
+
+    // code of the token held by a TOKEN or identifier leaf, 0 otherwise
+    public int tokenCode(){
+        return this.tokenCode;
+    }
+
+    // label of the kind, or the token name for a token leaf
+    public String getType(){
         return this.type;
     }
 
-    String getValue(){
+    public String getValue(){
         if (this.value == null) return "";
         else return this.value;
     }
+
+    // false if the node was built without a value
+    public boolean hasValue(){
+        return this.value != null;
+    }
     
-    int getLine(){
+    public int getLine(){
         return this.line;
     }
 
-    boolean isMainMethod() {
-        ArrayList<ASTNode> children = this.getChild("modifiers").getChildren();
-        if (children.size() != 2 || !children.get(0).getType().equals("public_kw") || !children.get(1).getType().equals("static_kw")) return false;
-        children = this.getChild("method header").getChildren();
-        if (!children.get(1).getValue().equals("void_kw")) return false;
-        children = this.getChild("method declarator").getChildren();
-        if (!children.get(0).getValue().equals("main")) return false;
-
-        return true;
-    }
-
     // rebuilds tree underneath node to aide the translator
     // with more complex structures (nfix operators in control conditions)
     ASTNode rebuild() {
         ASTNode child = null;
-        switch (this.type) {
-            case "else if statement":
-            child = children.get(0);
+        switch (getKind()) {
+            case ELSE_IF_STATEMENT:
+            child = getChildren().get(0);
             break;
 
             default:
@@ -204,11 +204,11 @@ class ASTNode {
         for(int i = 0; i < this.depth; i++ ){
             System.out.print(" ");
         }
-        if(this.value != null){
-            System.out.println(this.value + "    <" + this.type + ">: " + this.line);
+        if(hasValue()){
+            System.out.println(getValue() + "    <" + getType() + ">: " + getLine());
         }
         else{
-            System.out.println("<" + this.type + ">: " + this.line);
+            System.out.println("<" + getType() + ">: " + getLine());
         }
     }
     
@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Reads back trees written by ASTWriter.writeBinary. Builds the nodes in the order they were written,
+// keeping its own stack so deep trees don't overflow the call stack.
+final class ASTReader {
+    private ASTReader() {}
+
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final int NODE_BYTES = 5; // kind, code, line, value and child count, at least a byte each
+
+    // Reads one tree starting at the buffer's position and leaves the position just past it
+    static ASTNode readBinary(ByteBuffer in) throws IOException {
+        ArrayList<String> values = new ArrayList<String>(); // distinct values in order of first use
+        HashMap<Integer, String> tokenNames = new HashMap<Integer, String>(); // token code to token name
+        ArrayList<ASTNode> stack = new ArrayList<ASTNode>(); // nodes still waiting for children
+        int[] left = new int[16]; // children still to read for each node on the stack
+        ASTNode root = null;
+        do {
+            int k = readVarint(in);
+            if (k > KINDS.length) {
+                throw new IOException("unknown node kind " + (k - 1));
+            }
+            NodeKind kind = k == 0 ? null : KINDS[k - 1];
+            int code = readVarint(in);
+            String type = kind == null ? null : kind.label();
+            if (kind == NodeKind.TOKEN) {
+                type = tokenNames.get(code);
+                if (type == null) {
+                    type = readString(in);
+                    tokenNames.put(code, type);
+                }
+            }
+            int line = readVarint(in);
+            int v = readVarint(in);
+            String value = null;
+            if (v == 1) {
+                value = readString(in);
+                values.add(value);
+            } else if (v > 1) {
+                if (v - 2 >= values.size()) {
+                    throw new IOException("value " + (v - 2) + " used before it was written");
+                }
+                value = values.get(v - 2);
+            }
+            int count = readCount(in, NODE_BYTES);
+            ASTNode node = new ASTNode(kind, type, code, value, line);
+            if (root == null) {
+                root = node;
+            } else {
+                int top = stack.size() - 1;
+                stack.get(top).addChild(node);
+                if (--left[top] == 0) {
+                    stack.remove(top);
+                }
+            }
+            if (count > 0) {
+                if (stack.size() == left.length) {
+                    left = Arrays.copyOf(left, left.length * 2);
+                }
+                left[stack.size()] = count;
+                stack.add(node);
+            }
+        } while (stack.size() > 0);
+        return root;
+    }
+
+    static int readVarint(ByteBuffer in) throws IOException {
+        int n = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!in.hasRemaining()) {
+                throw new IOException("tree ends in the middle of a number");
+            }
+            int b = in.get();
+            n |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return n;
+            }
+        }
+        throw new IOException("number longer than 5 bytes");
+    }
+
+    // Reads the number of items that follow, each at least size bytes long. A count the rest of the
+    // buffer can't hold is refused before anything is allocated for it
+    static int readCount(ByteBuffer in, int size) throws IOException {
+        int count = readVarint(in);
+        if (count < 0 || count > in.remaining() / size) {
+            throw new IOException("count of " + count + " with " + in.remaining() + " bytes left");
+        }
+        return count;
+    }
+
+    static String readString(ByteBuffer in) throws IOException {
+        int length = readCount(in, 1);
+        if (in.hasArray()) {
+            String s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return s;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+// Writes a syntax tree out as indented text, JSON or a compact binary form. Each visits the nodes once in
+// the order printTree prints them, keeping its own stack so deep trees don't overflow the call stack,
+// and writes straight to the stream. Buffering is left to the caller.
+//
+// Binary form, read back by ASTReader. Numbers are unsigned varints of 7 bits per byte, low bits first,
+// strings are a length and that many UTF-8 bytes:
+//   node  = kind token line value count node*   count children follow the node
+//   kind  = NodeKind ordinal + 1, 0 for a node without a kind
+//   token = token code, 0 for nodes built from grammar rules. The first TOKEN leaf with a code is
+//           followed by the token name as a string
+//   value = 0 for no value, 1 followed by the string for a value not seen yet,
+//           n + 2 for the n-th distinct value written before
+final class ASTWriter {
+    private ASTWriter() {}
+
+    // what a walk writes at each node
+    private interface Visit {
+        // index is the position of the node among its siblings
+        void enter(SyntaxNode node, int depth, int index, int childCount) throws IOException;
+
+        void exit(SyntaxNode node, int depth, int childCount) throws IOException;
+    }
+
+    // Writes node and everything under it one per line, indented by depth spaces, as ASTNode.print() does
+    static void writeText(SyntaxNode node, int depth, Writer out) throws IOException {
+        String newLine = System.lineSeparator();
+        walk(node, new Visit() {
+            public void enter(SyntaxNode n, int d, int index, int childCount) throws IOException {
+                for (int i = 0; i < depth + d; i++) {
+                    out.write(' ');
+                }
+                if (n.hasValue()) {
+                    out.write(n.getValue());
+                    out.write("    ");
+                }
+                out.write("<" + n.getType() + ">: " + n.getLine());
+                out.write(newLine);
+            }
+
+            public void exit(SyntaxNode n, int d, int childCount) {
+            }
+        });
+    }
+
+    // Writes the tree as one JSON object per node, {"type": ..., "token": ..., "value": ..., "line": ..., "children": [...]}.
+    // token is only written for token leaves, value only when there is one and children only when there are some
+    static void writeJson(SyntaxNode root, Writer out) throws IOException {
+        walk(root, new Visit() {
+            public void enter(SyntaxNode n, int d, int index, int childCount) throws IOException {
+                if (index > 0) {
+                    out.write(',');
+                }
+                out.write("{\"type\":");
+                writeJsonString(n.getType(), out);
+                if (n.tokenCode() != 0) {
+                    out.write(",\"token\":" + n.tokenCode());
+                }
+                if (n.hasValue()) {
+                    out.write(",\"value\":");
+                    writeJsonString(n.getValue(), out);
+                }
+                out.write(",\"line\":" + n.getLine());
+                if (childCount > 0) {
+                    out.write(",\"children\":[");
+                }
+            }
+
+            public void exit(SyntaxNode n, int d, int childCount) throws IOException {
+                if (childCount > 0) {
+                    out.write(']');
+                }
+                out.write('}');
+            }
+        });
+        out.write('\n');
+    }
+
+    static void writeJsonString(String s, Writer out) throws IOException {
+        if (s == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    // Writes the tree in the binary form described above
+    static void writeBinary(SyntaxNode root, OutputStream out) throws IOException {
+        HashMap<String, Integer> seen = new HashMap<String, Integer>(); // values already written, by order of first use
+        HashSet<Integer> named = new HashSet<Integer>(); // token codes whose name has been written
+        walk(root, new Visit() {
+            public void enter(SyntaxNode n, int d, int index, int childCount) throws IOException {
+                NodeKind kind = n.getKind();
+                writeVarint(kind == null ? 0 : kind.ordinal() + 1, out);
+                writeVarint(n.tokenCode(), out);
+                if (kind == NodeKind.TOKEN && named.add(n.tokenCode())) {
+                    writeString(n.getType(), out);
+                }
+                writeVarint(n.getLine(), out);
+                if (!n.hasValue()) {
+                    writeVarint(0, out);
+                } else {
+                    Integer v = seen.get(n.getValue());
+                    if (v == null) {
+                        seen.put(n.getValue(), seen.size());
+                        writeVarint(1, out);
+                        writeString(n.getValue(), out);
+                    } else {
+                        writeVarint(v + 2, out);
+                    }
+                }
+                writeVarint(childCount, out);
+            }
+
+            public void exit(SyntaxNode n, int d, int childCount) {
+            }
+        });
+        out.flush();
+    }
+
+    static void writeVarint(int n, OutputStream out) throws IOException {
+        while ((n & ~0x7F) != 0) {
+            out.write(n & 0x7F | 0x80);
+            n >>>= 7;
+        }
+        out.write(n);
+    }
+
+    static void writeString(String s, OutputStream out) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length, out);
+        out.write(bytes);
+    }
+
+    // visits root and its descendants depth first, the root at depth 0
+    private static void walk(SyntaxNode root, Visit visit) throws IOException {
+        ArrayList<List<? extends SyntaxNode>> stack = new ArrayList<List<? extends SyntaxNode>>(); // children of each node on the path
+        ArrayList<SyntaxNode> path = new ArrayList<SyntaxNode>();
+        int[] next = new int[16]; // index of the next child to visit at each level
+        List<? extends SyntaxNode> children = root.getChildren();
+        visit.enter(root, 0, 0, children.size());
+        path.add(root);
+        stack.add(children);
+        while (stack.size() > 0) {
+            int top = stack.size() - 1;
+            children = stack.get(top);
+            if (next[top] < children.size()) {
+                SyntaxNode child = children.get(next[top]);
+                List<? extends SyntaxNode> grandChildren = child.getChildren();
+                visit.enter(child, top + 1, next[top]++, grandChildren.size());
+                if (stack.size() == next.length) {
+                    next = Arrays.copyOf(next, next.length * 2);
+                }
+                next[stack.size()] = 0;
+                path.add(child);
+                stack.add(grandChildren);
+            } else {
+                visit.exit(path.remove(top), top, children.size());
+                stack.remove(top);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.List;
+
+// Read only view of one node of an ASTArena. Views are made as the tree is walked and dropped with it,
+// nothing keeps them, so they hold no more than the arena and an index. Two views of the same node are
+// different objects.
+class ArenaNode implements SyntaxNode {
+    private final ASTArena arena;
+    private final int index;
+
+    ArenaNode(ASTArena arena, int index) {
+        this.arena = arena;
+        this.index = index;
+    }
+
+    // index of the node in its arena
+    int index() {
+        return index;
+    }
+
+    public List<ArenaNode> getChildren() {
+        return arena.children(index);
+    }
+
+    public int childCount() {
+        return arena.childCount(index);
+    }
+
+    public NodeKind getKind() {
+        return arena.kind(index);
+    }
+
+    public int tokenCode() {
+        return arena.tokenCode(index);
+    }
+
+    public String getType() {
+        return arena.type(index);
+    }
+
+    public String getValue() {
+        String value = arena.value(index);
+        return value == null ? "" : value;
+    }
+
+    public boolean hasValue() {
+        return arena.value(index) != null;
+    }
+
+    public int getLine() {
+        return arena.line(index);
+    }
+
+    public long[] below() {
+        return arena.below(index);
+    }
+}
@@ -0,0 +1,105 @@
+// Rough timing driver for the front end and the translator. Not part of the translator.
+// The modes live in a class per stage: LexerBenchmark, ParserBenchmark, TreeBenchmark and
+// TranslatorBenchmark. The helpers they share are here.
+// usage: java Benchmark <mode>
+//   lookahead - parses nested expressions of growing depth in streaming and TokenArray mode
+//   literals  - lexes sources with large string literals and comments with both lexeme engines
+//   tokens    - lexes sources with a growing number of classes, as the parser reads them and into a TokenArray
+//   stream    - lexes generated sources of growing size from a Reader and reports the window size
+//   firstpass - runs FirstPass over sources with a growing number of classes
+//   translate - translates the parsed TestJavaSourceFiles corpus with Translator.finalize
+//   arena     - measures the heap kept by parsed trees of growing size as ASTNodes and packed into an ASTArena
+//   astwriter - writes parsed trees of growing size as text, JSON and binary with ASTWriter
+//   builder   - writes Python lines of growing count with PythonBuilder, then adds as many again at the top
+public class Benchmark {
+    static final int RUNS = 5; // timed runs per size, the best one is reported
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "lookahead";
+        switch (mode) {
+            case "lookahead":
+                // parsing recurses once per nesting level, so run on a thread with a large stack
+                Thread t = new Thread(null, () -> {
+                    try {
+                        ParserBenchmark.lookahead();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }, "benchmark", 1L << 29);
+                t.start();
+                t.join();
+                break;
+            case "literals":
+                LexerBenchmark.literals();
+                break;
+            case "tokens":
+                LexerBenchmark.tokens();
+                break;
+            case "stream":
+                LexerBenchmark.stream();
+                break;
+            case "firstpass":
+                ParserBenchmark.firstPass();
+                break;
+            case "translate":
+                TranslatorBenchmark.translate();
+                break;
+            case "arena":
+                TreeBenchmark.arena();
+                break;
+            case "astwriter":
+                TreeBenchmark.astWriter();
+                break;
+            case "builder":
+                TranslatorBenchmark.builder();
+                break;
+            default:
+                System.out.println("Unknown benchmark " + mode);
+        }
+    }
+
+    // classes with a field, a constructor and two methods each
+    static String classSource(int classes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            sb.append("class C").append(i).append(" {\n")
+                .append("    int total = 0; // running total\n")
+                .append("    C").append(i).append("(int start) {\n        total = start;\n    }\n")
+                .append("    void add(int x) {\n        if (x > 0) {\n            total += x;\n        }\n    }\n")
+                .append("    String show() {\n        return \"total {\" + total + \"}\";\n    }\n")
+                .append("}\n");
+        }
+        return sb.toString();
+    }
+
+    static int countNodes(ASTNode node) {
+        int n = 1;
+        for (ASTNode child : node.getChildren()) {
+            n += countNodes(child);
+        }
+        return n;
+    }
+
+    static Parser quietParser() {
+        Parser p = new Parser();
+        p.setDebug(false);
+        p.setPrintTree(false);
+        return p;
+    }
+
+    interface Run {
+        void run() throws Exception;
+    }
+
+    // Returns the fastest of RUNS timed runs in ns, after one warm up run
+    static long best(Run r) throws Exception {
+        r.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            r.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
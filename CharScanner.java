@@ -0,0 +1,296 @@
+// Hand-written replacement for SourceArray. Walks the source by index with a small state machine
+// instead of running a regex, so lines and positions are tracked without allocating per character.
+// Produces the same lexemes as SourceArray: a run of [a-zA-Z_0-9] or a single other character,
+// with \r, \n and \t skipped, at the same lines and positions.
+// The source can be a CharWindow over a stream, then chars are read as the scan reaches them.
+class CharScanner implements LexSource {
+    // lexemes for single ASCII characters are shared instead of allocated on every call
+    private static final String[] SINGLE_CHARS = new String[128];
+    static {
+        for (int i = 0; i < SINGLE_CHARS.length; i++) {
+            SINGLE_CHARS[i] = String.valueOf((char) i);
+        }
+    }
+
+    private final CharSequence source; // java source code
+    private final CharWindow window; // same as source when scanning a stream, null otherwise
+    private int length; // number of chars in source, read so far for a stream
+
+    private int index; // index of the next char to scan
+    private int scanLine; // line of the char at index
+
+    // Positions are counted the way SourceArray counts them: a lexeme is at the position of the lexeme
+    // before plus the chars between their starts, a line break sets the position back to 0 and a \t
+    // adds 1. A \r starts a line without being counted as a char, and the position stays put at EOF
+    private int srcIndex; // index the position of the next lexeme is counted from
+    private int srcPos; // position of the last lexeme, 0 right after a line break
+
+    private int lexStart; // index of the first char of the current lexeme
+    private int lexEnd; // index just past the current lexeme
+    private int lexLine; // line the current lexeme starts on
+    private int lexSrcIndex; // srcIndex and srcPos before the current lexeme, to scan it again after a halt
+    private int lexSrcPos;
+    private String lex; // current lexeme, null for a word until lex() is called
+    private int wordEnd; // index just past the current word, lexEnd moves on from it when skipTo() is called
+    private int consumedEnd; // index just past the last lexeme that has not been halted
+    private int prevConsumedEnd; // consumedEnd before the current lexeme was scanned
+
+    private int line; // reported line
+    private int pos; // reported position
+
+    CharScanner(CharSequence source) {
+        this.source = source;
+        this.window = source instanceof CharWindow ? (CharWindow) source : null;
+        this.length = source.length();
+        this.index = 0;
+        this.scanLine = 1;
+        this.srcIndex = 0;
+        this.srcPos = 1;
+        this.line = this.pos = 1;
+        this.lexStart = this.lexEnd = 0;
+        this.lexLine = 1;
+    }
+
+    // Returns current line 1...n in source code
+    public int currentLine() {
+        return line;
+    }
+
+    // Returns current position 1...n in current line
+    public int currentPos() {
+        return pos;
+    }
+
+    // Rewinds to the start of the current lexeme so the next call to nextLex scans it again.
+    // lastPos is reported until then.
+    public void haltNext(int lastPos) {
+        rewind();
+        this.pos = lastPos;
+    }
+
+    // Same, reporting lastLine too. Like SourceArray, the lexeme comes back at position 1
+    public void haltNext(int lastPos, int lastLine) {
+        rewind();
+        this.srcIndex = this.lexStart;
+        this.srcPos = 1;
+        this.pos = lastPos;
+        this.line = lastLine;
+    }
+
+    private void rewind() {
+        this.consumedEnd = this.prevConsumedEnd;
+        this.index = this.lexStart;
+        this.scanLine = this.lexLine;
+        this.srcIndex = this.lexSrcIndex;
+        this.srcPos = this.lexSrcPos;
+    }
+
+    // Returns next lexeme in source file. Returns "EOF" if at end of file.
+    public String nextLex() {
+        scanLex();
+        return lex();
+    }
+
+    // Moves on to the next lexeme like nextLex(), without making a String of a word. Returns false where
+    // nextLex() returns "EOF": at the end of the source, and for a word EOF as SourceArray does
+    boolean scanLex() {
+        prevConsumedEnd = consumedEnd;
+        boolean crLast = false; // last skipped char was \r, so a following \n ends the same line
+        while (has(index)) {
+            char c = source.charAt(index);
+            if (!skipSpace(c, crLast)) {
+                startLexeme(c);
+                return lex != null || !isEOFWord();
+            }
+            crLast = c == '\r' || (crLast && c == '\t');
+            index++;
+        }
+        this.lexStart = this.lexEnd = index;
+        this.lexLine = scanLine;
+        this.lexSrcIndex = srcIndex;
+        this.lexSrcPos = srcPos;
+        this.line = scanLine;
+        this.pos = srcPos;
+        this.lex = "EOF";
+        return false;
+    }
+
+    // Returns the current lexeme, a keyword being the literal of its shared token
+    String lex() {
+        if (lex == null) {
+            lex = lexeme(source, lexStart, wordEnd);
+        }
+        return lex;
+    }
+
+    // true if the current lexeme is a word, ex an identifier, keyword or number
+    boolean isWord() {
+        return lex == null || (lexStart < wordEnd && isWordChar(source.charAt(lexStart)));
+    }
+
+    private boolean isEOFWord() {
+        return wordEnd - lexStart == 3 && source.charAt(lexStart) == 'E' && source.charAt(lexStart + 1) == 'O' && source.charAt(lexStart + 2) == 'F';
+    }
+
+    // Counts c if it is a \r, \n or \t, which are skipped, and returns true. crLast is true when the
+    // last char skipped since a lexeme was a \r, so a \n after it ends the same line
+    private boolean skipSpace(char c, boolean crLast) {
+        switch (c) {
+            case '\r':
+                scanLine++;
+                srcPos = 0;
+                return true;
+            case '\n':
+                if (!crLast) {
+                    scanLine++;
+                }
+                srcIndex++;
+                srcPos = 0;
+                return true;
+            case '\t':
+                srcIndex++;
+                srcPos++;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // scans the lexeme starting with c at index, a word is only made into a String by lex()
+    private void startLexeme(char c) {
+        lexStart = index;
+        lexLine = line = scanLine;
+        lexSrcIndex = srcIndex;
+        lexSrcPos = srcPos;
+        startSourceLexeme(index);
+        pos = srcPos;
+        int end = index + 1;
+        if (isWordChar(c)) {
+            while (has(end) && isWordChar(source.charAt(end))) {
+                end++;
+            }
+        } else if (Character.isHighSurrogate(c) && has(end) && Character.isLowSurrogate(source.charAt(end))) {
+            // a supplementary character is one lexeme, like the regex code point match
+            end++;
+        }
+        lex = isWordChar(c) ? null : lexeme(source, index, end);
+        index = lexEnd = consumedEnd = wordEnd = end;
+    }
+
+    // Returns source[start, end) as a lexeme. Keywords reuse the literal of the shared token and single
+    // ASCII chars a shared string instead of a new substring
+    static String lexeme(CharSequence source, int start, int end) {
+        char c = source.charAt(start);
+        if (isWordChar(c)) {
+            JavaToken keyword = LexScanner.fixedToken(TokenLookup.keywordCode(source, start, end - start));
+            if (keyword != null) {
+                return keyword.getLiteral();
+            }
+        } else if (end - start == 1 && c < SINGLE_CHARS.length) {
+            return SINGLE_CHARS[c];
+        }
+        return source.subSequence(start, end).toString();
+    }
+
+    // moves the position on to a lexeme SourceArray would start at index i
+    private void startSourceLexeme(int i) {
+        srcPos += i - srcIndex;
+        srcIndex = i;
+    }
+
+    static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // Extends the current lexeme up to end, counting the line breaks and the lexemes SourceArray would
+    // split it into on the way. Used when the caller scans a token straight from the source
+    void skipTo(int end) {
+        boolean crLast = false;
+        for (int i = lexEnd; i < end; i++) {
+            char c = source.charAt(i);
+            if (skipSpace(c, crLast)) {
+                crLast = c == '\r' || (crLast && c == '\t');
+            } else if (startsLexeme(i)) {
+                startSourceLexeme(i);
+                crLast = false;
+            }
+        }
+        index = lexEnd = consumedEnd = end;
+    }
+
+    // true if a lexeme starts at index i, anything but the rest of a word or of a surrogate pair
+    private boolean startsLexeme(int i) {
+        if (i == 0) {
+            return true;
+        }
+        char c = source.charAt(i);
+        char before = source.charAt(i - 1);
+        if (isWordChar(c)) {
+            return !isWordChar(before);
+        }
+        return !(Character.isLowSurrogate(c) && Character.isHighSurrogate(before));
+    }
+
+    // Returns true if there is a char at index i, reading up to it first when scanning a stream
+    boolean has(int i) {
+        if (i < length) {
+            return true;
+        }
+        if (window == null || !window.fill(i)) {
+            return false;
+        }
+        length = window.length();
+        return true;
+    }
+
+    // Returns the index just past the run of word chars, '.', '+' and '-' starting at from, which no
+    // numeric literal starting there goes past. Everything up to it has been read
+    int numberLimit(int from) {
+        if (window == null) {
+            return length;
+        }
+        int i = from;
+        while (has(i)) {
+            char c = source.charAt(i);
+            if (!isWordChar(c) && c != '.' && c != '+' && c != '-') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // Lets a streamed source drop the chars before the next lexeme, nothing before it is scanned again
+    void release() {
+        if (window != null) {
+            window.release(index);
+        }
+    }
+
+    // Returns the index of the first char of the current lexeme
+    int lexStart() {
+        return lexStart;
+    }
+
+    // Returns the index just past the current lexeme
+    int lexEnd() {
+        return lexEnd;
+    }
+
+    // Returns the index just past the last lexeme handed out and not halted since
+    int consumedEnd() {
+        return consumedEnd;
+    }
+
+    // Returns the source being scanned
+    CharSequence getSource() {
+        return source;
+    }
+
+    // Prints all lexemes in the source file
+    void printAll() {
+        String s;
+        while ((s = this.nextLex()) != "EOF")
+            System.out.println(s + "#\tLine - " + line + " Pos - " + pos);
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+// Source read from a Reader in chunks into a sliding buffer, seen as a CharSequence indexed from the
+// start of the stream. Chars before the release point are dropped when the buffer fills up, so memory
+// stays around the longest token plus a chunk instead of the whole file.
+// length() is the number of chars read so far, fill() reads further. Reading a dropped char throws.
+class CharWindow implements CharSequence {
+    static final int CHUNK = 8192; // initial buffer size
+
+    private final Reader in;
+    private char[] buf;
+    private int base; // stream index of buf[0]
+    private int count; // chars held in buf
+    private int released; // stream index before which chars can be dropped
+    private boolean eof; // the reader has no more chars
+
+    CharWindow(Reader in) {
+        this(in, CHUNK);
+    }
+
+    CharWindow(Reader in, int capacity) {
+        this.in = in;
+        this.buf = new char[Math.max(capacity, 16)];
+    }
+
+    // Decodes the channel as UTF-8
+    CharWindow(ReadableByteChannel in) {
+        this(Channels.newReader(in, StandardCharsets.UTF_8.newDecoder(), -1));
+    }
+
+    public int length() {
+        return base + count;
+    }
+
+    public char charAt(int i) {
+        if (i < base || i >= base + count) {
+            throw new IndexOutOfBoundsException("char " + i + " is outside the window " + base + "..." + (base + count));
+        }
+        return buf[i - base];
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < base || end > base + count || start > end) {
+            throw new IndexOutOfBoundsException("chars " + start + "..." + end + " are outside the window " + base + "..." + (base + count));
+        }
+        return new String(buf, start - base, end - start);
+    }
+
+    // Returns the chars still held, not the whole stream
+    public String toString() {
+        return new String(buf, 0, count);
+    }
+
+    // Reads until the char at index i is held. Returns false if the stream ends first
+    boolean fill(int i) {
+        while (i >= base + count) {
+            if (eof) {
+                return false;
+            }
+            if (count == buf.length) {
+                makeRoom();
+            }
+            int n;
+            try {
+                n = in.read(buf, count, buf.length - count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (n < 0) {
+                eof = true;
+            } else {
+                count += n;
+            }
+        }
+        return true;
+    }
+
+    // drops the released chars, doubling the buffer instead when less than half of it would be freed
+    // so each char is moved a constant number of times on average
+    private void makeRoom() {
+        int drop = released - base;
+        if (drop < buf.length / 2) {
+            char[] bigger = new char[buf.length * 2];
+            System.arraycopy(buf, 0, bigger, 0, count);
+            buf = bigger;
+            return;
+        }
+        System.arraycopy(buf, drop, buf, 0, count - drop);
+        base = released;
+        count -= drop;
+    }
+
+    // Lets chars before index i be dropped, they can't be read after the next fill()
+    void release(int i) {
+        released = Math.max(released, Math.min(i, base + count));
+    }
+
+    // Returns the number of chars the buffer can hold
+    int capacity() {
+        return buf.length;
+    }
+
+    void close() throws IOException {
+        in.close();
+    }
+}
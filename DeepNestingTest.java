@@ -0,0 +1,80 @@
+// Stress check for the translator on deeply nested input. Builds a program with an expression nested in
+// DEPTH parentheses, a statement nested in DEPTH blocks and a sum of DEPTH terms, parses it and translates
+// it on a thread with a small stack, which only works if the translator doesn't recurse per level.
+// The parser still recurses, so it gets a thread with a stack big enough for the depth.
+// usage: java DeepNestingTest [depth, 10000 by default]
+public class DeepNestingTest {
+    static final long PARSE_STACK = 1L << 31;
+    static final long TRANSLATE_STACK = 256 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        String source = program(depth);
+
+        Parser p = new Parser();
+        ASTNode[] root = new ASTNode[1];
+        run("parser", PARSE_STACK, () -> {
+            p.setDebug(false);
+            p.setPrintTree(false);
+            p.setLexer(new LexScanner(source));
+            root[0] = p.parse();
+        });
+        if (p.getErrorMsg() != null) fail(p.getErrorMsg());
+
+        Translator t = new Translator(p);
+        long start = System.nanoTime();
+        run("translator", TRANSLATE_STACK, () -> {
+            t.setDebug(false);
+            t.setCrashOnError(false);
+            t.finalize(root[0]);
+        });
+        long time = System.nanoTime() - start;
+        if (t.isErrorOccurred()) fail(t.getErrorMessage());
+
+        String python = t.getSource();
+        String parens = "(".repeat(depth) + "1" + ")".repeat(depth);
+        if (!python.contains("x = " + parens)) fail("nested parentheses translated wrong");
+        if (!python.contains("x = x + 1")) fail("statement in nested blocks missing");
+        if (!python.contains("y = 0" + " + x".repeat(depth))) fail("long sum translated wrong");
+
+        System.out.println(String.format("depth %d translated in %.3f ms on a %d KB stack", depth, time / 1e6, TRANSLATE_STACK / 1024));
+    }
+
+    static String program(int depth) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public class Deep {\n");
+        sb.append("    public static void main(String[] args) {\n");
+        sb.append("        int x = ").append("(".repeat(depth)).append("1").append(")".repeat(depth)).append(";\n");
+        sb.append("        ").append("{".repeat(depth)).append("x = x + 1;").append("}".repeat(depth)).append("\n");
+        sb.append("        int y = 0").append(" + x".repeat(depth)).append(";\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    // runs task on a thread of its own with the given stack size and waits for it
+    static void run(String name, long stackSize, Task task) throws Exception {
+        Throwable[] thrown = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                thrown[0] = e;
+            }
+        }, name, stackSize);
+        thread.start();
+        thread.join();
+        if (thrown[0] instanceof StackOverflowError) fail("the " + name + " overflowed its stack");
+        if (thrown[0] instanceof Exception) throw (Exception) thrown[0];
+        if (thrown[0] != null) throw (Error) thrown[0];
+    }
+
+    static void fail(String message) {
+        System.out.println("FAILED: " + message);
+        System.exit(1);
+    }
+}
@@ -1,127 +1,327 @@
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 import java.util.HashMap; // import the HashMap class
-import java.util.Stack;
-import java.util.ArrayList;
 
 /*
-    Class for parsing class types and method information before full parse
+    Class for collecting class types and method information. The parser feeds it each token it reads,
+    or it walks a token source of its own.
+    Walks the tokens once, keeping track of { } nesting. A class is class_kw followed by an identifier,
+    and its body is the next { ... } group. A method is an identifier followed by a ( ) group and a {,
+    credited to the innermost open class. A field is an identifier followed by =, ; or , directly in a
+    class body, after a type or after the , of an earlier field in the same declaration.
+    Strings and comments are single tokens, so braces inside them are never counted.
+    Declarations are appended in source order to arrays, the class to methods map is built once at the end.
 */
 public class FirstPass{
-    String methodPattern = "([a-zA-Z]+)\\(.*\\)\\s*\\{"; // regex pattern for methods
-    String classPattern = "class\\s*([a-zA-Z]+)\\s*\\{"; // regex pattern for classes
-    Pattern pat; // pattern object
-    Matcher matcher; // matcher object
-    String source; // Java source code to parse
-    HashMap<String, String[]> classes; // key: methodStartIndex value: {className, classEndIndex}
-    HashMap<String, String[]> methods; // key: methodStartIndex value: {methodName, methodEndIndex}
+    private String[] classNames = new String[8]; // class names in order of declaration
+    private int classCount;
+    private String[] methodNames = new String[32]; // method names in order of declaration
+    private int[] methodClass = new int[32]; // index in classNames of the class each method belongs to
+    private int[] methodArity = new int[32]; // number of parameters of each method
+    private int methodCount;
+    private String[] fieldNames = new String[16]; // field names in order of declaration
+    private int[] fieldClass = new int[16]; // index in classNames of the class each field belongs to
+    private int fieldCount;
     HashMap<String, String[]> classMethods; // stores all the method names of each class
-    
-    FirstPass(String source){
-        this.source = source;
-        this.parseClasses(); // identify class declaration locations
-        this.parseMethods();  // identify method declaration locations
-        this.classMethods = new HashMap<String, String[]>(); // stores list of methods (value) for each class (key)
-        this.parse(0, null); // start parse of file to load classMethods data structure
-        for(String key: this.classMethods.keySet()){
-            System.out.println("Class " + key + " has methods:");
-            for(String method: this.classMethods.get(key)){
-                System.out.println("\t"+method);
-            }
-        }
+
+    // state of the walk between tokens
+    private int[] openClass = new int[8]; // classes whose body has not been closed yet, innermost last
+    private int[] openDepth = new int[8]; // { } nesting inside the body of each open class
+    private int open;
+    private int depth; // { } nesting
+    private boolean afterClass; // last token was class_kw
+    private String pendingClass; // class name waiting for the { of its body
+    private String lastId; // literal of the last token if it was an identifier
+    private int lastCode; // code of the last token
+    private int lastButOneCode; // code of the token before it
+    private String candidate; // identifier in front of a ( that may turn out to be a method
+    private int parens; // ( ) nesting inside the candidate's parameter list
+    private int angles; // < > nesting inside the candidate's parameter list, so generic type commas are skipped
+    private int params; // parameters counted so far in the candidate's parameter list
+    private boolean closed; // the candidate's parameter list has been closed
+    private boolean declaring; // a field was found and its declaration has not ended with ; yet
+
+    // Takes tokens one at a time through next() until finish() is called
+    FirstPass(){
+    }
+
+    FirstPass(String source) throws Exception{
+        this(new LexScanner(source));
     }
+
     /*
-        Method to recursively parse the contents of class bodies for method declarations
+        Collects classes and their methods from any token stream, including a streamed source that
+        can't be read again
     */
-    int parse(int start, String clsName){
-        int i = start; //start of parse
-        Stack<Character> stack = new Stack<Character>(); // keeps track of open and closed parens to determine class boundaries
-        boolean cont = true; // keeps loop going until it's time to exit the class
-        boolean inStr = false; // determines whether a found { or } was inside a string at the time and should be ignored
-        ArrayList<String> clsMethods = new ArrayList<String>(); // list of methods found in the class
-        
-        // Loop continues until the source has been fully parsed or the classes closing } has been reached (note the initial parse with null class will not exit under this condition)
-        while(i < this.source.length() && (clsName == null || cont) ){
-            //If at class declartion start parse of that class body
-            if(this.classes.containsKey(Integer.toString(i))){
-                i = this.parse(Integer.parseInt(this.classes.get(Integer.toString(i))[1]), this.classes.get(Integer.toString(i))[0]);
-                // parse returns with the new value for i to use -> skips ahead to end of the class
-            }else if(this.methods.containsKey(Integer.toString(i))){
-                clsMethods.add(this.methods.get(Integer.toString(i))[0]);
-                i = Integer.parseInt(this.methods.get(Integer.toString(i))[1]);
-                // -> skips ahead to end of the method
-            }else{
-                // switch statement for determining boundaries of a class using stack to store the open parens encountered
-                switch(this.source.charAt(i)){
-                    case '{':
-                        if(!inStr){
-                            stack.push('{');
-                        }else{
-                            //handles case where { is inside string and should be ignored
-                        }
-                        break;
-                    case '}':
-                        if(!inStr){
-                            if(stack.size() != 0){
-                                stack.pop();
-                            }
-                            if(stack.size() == 0){
-                                cont = false;
-                            }
-                        }else{
-                            //handles case where } is inside string and should be ignored
-                        }
-                        break;
-                    case '"':
-                        // alternates string status as a " is encountered
-                        inStr = !inStr;
-                        break;
+    FirstPass(LexScanner lexer) throws Exception{
+        int code;
+        do{
+            lexer.nextToken();
+            code = lexer.getTokenCode();
+            next(code, code == TokenCode.IDENTIFIER ? lexer.getLexeme() : null);
+        }while(code != TokenCode.EOF);
+        finish();
+    }
+
+    // Collects from tokens the parser already has, so the source is not scanned again
+    FirstPass(TokenArray tokens){
+        for(int i = 0; i < tokens.size(); i++){
+            int code = tokens.kind(i);
+            next(code, code == TokenCode.IDENTIFIER ? tokens.text(i) : null);
+        }
+        finish();
+    }
+
+    // Takes back the results of an earlier pass, as saved by ASTCache
+    FirstPass(String[] classNames, String[] methodNames, int[] methodClass, int[] methodArity,
+        String[] fieldNames, int[] fieldClass){
+        this.classNames = classNames;
+        this.classCount = classNames.length;
+        this.methodNames = methodNames;
+        this.methodClass = methodClass;
+        this.methodArity = methodArity;
+        this.methodCount = methodNames.length;
+        this.fieldNames = fieldNames;
+        this.fieldClass = fieldClass;
+        this.fieldCount = fieldNames.length;
+        this.openClass = this.openDepth = null;
+        this.classMethods = buildClassMethods();
+    }
+
+    // advances the walk by one token, literal is only read for identifiers
+    void next(int code, String literal){
+        if(code == TokenCode.SPACE_LT || LexScanner.isComment(code) || code == TokenCode.EOF){
+            return;
+        }
+        if(afterClass && code == TokenCode.IDENTIFIER){
+            pendingClass = literal;
+        }
+        afterClass = code == TokenCode.CLASS_KW;
+        boolean inBody = open > 0 && depth == openDepth[open - 1]; // directly in a class body
+        if(inBody && candidate == null && lastId != null
+            && (code == TokenCode.EQUALS_OP || code == TokenCode.SEMI_COLON_LT || code == TokenCode.COMMA_LT)
+            && (isTypeEnd(lastButOneCode) || (declaring && lastButOneCode == TokenCode.COMMA_LT))){
+            addField(lastId, openClass[open - 1]);
+            declaring = true;
+        }
+        if(inBody && code == TokenCode.SEMI_COLON_LT){
+            declaring = false;
+        }
+        boolean keepCandidate = candidate != null && !closed;
+        if(keepCandidate){
+            countParam(code);
+        }
+        switch(code){
+            case TokenCode.OPEN_PAREN_OP:
+                if(candidate == null && lastId != null){
+                    candidate = lastId;
+                    parens = angles = params = 0;
+                    keepCandidate = true;
                 }
-                i++;
-            }
+                if(candidate != null && !closed){
+                    parens++;
+                }
+                break;
+            case TokenCode.CLOSE_PAREN_OP:
+                if(keepCandidate && --parens == 0){
+                    closed = true;
+                }
+                break;
+            case TokenCode.OPEN_BRACKET_LT:
+                depth++;
+                if(pendingClass != null){
+                    if(open == openClass.length){
+                        openClass = Arrays.copyOf(openClass, open * 2);
+                        openDepth = Arrays.copyOf(openDepth, open * 2);
+                    }
+                    openClass[open] = addClass(pendingClass);
+                    openDepth[open] = depth;
+                    open++;
+                    pendingClass = null;
+                }else if(candidate != null && closed && open > 0){
+                    addMethod(candidate, params, openClass[open - 1]);
+                }
+                break;
+            case TokenCode.CLOSE_BRACKET_LT:
+                if(open > 0 && openDepth[open - 1] == depth){
+                    open--;
+                }
+                depth--;
+                break;
+        }
+        if(!keepCandidate){
+            // anything but { right after the ) means it was not a method declaration
+            candidate = null;
+            closed = false;
+        }
+        lastId = code == TokenCode.IDENTIFIER ? literal : null;
+        lastButOneCode = lastCode;
+        lastCode = code;
+    }
+
+    // counts parameters by the commas at the top level of the candidate's parameter list
+    private void countParam(int code){
+        if(parens != 1){
+            return;
         }
-        if(clsName != null){
-            String[] arr = new String[clsMethods.size()];
-            classMethods.put(clsName, clsMethods.toArray(arr));
+        switch(code){
+            case TokenCode.LESS_OP:
+                angles++;
+                break;
+            case TokenCode.GREATER_OP:
+                angles--;
+                break;
+            case TokenCode.SHIFT_RIGHT_OP:
+                angles -= 2;
+                break;
+            case TokenCode.UNSIGNED_SHIFT_RIGHT_OP:
+                angles -= 3;
+                break;
+            case TokenCode.COMMA_LT:
+                if(angles <= 0){
+                    params++;
+                }
+                break;
+        }
+        if(params == 0 && code != TokenCode.CLOSE_PAREN_OP){
+            params = 1;
         }
-        
-        return i;
     }
-    // finds names and start and end indexes for class declarations
-    void parseClasses(){
-        this.classes = new HashMap<String, String[]>();
-        this.pat = Pattern.compile(this.methodPattern);
-        this.pat = Pattern.compile(this.classPattern);
-        this.matcher = pat.matcher(this.source);
-        while(matcher.find()){
-            String [] match = {matcher.group(1), Integer.toString(matcher.end() - 1)};
-            this.classes.put(Integer.toString(matcher.start()), match);
+
+    // true for a token that can end a type ex int, String, Foo, int[], List<Foo>
+    private static boolean isTypeEnd(int code){
+        switch(code){
+            case TokenCode.IDENTIFIER:
+            case TokenCode.BOOLEAN_KW:
+            case TokenCode.BYTE_KW:
+            case TokenCode.CHAR_KW:
+            case TokenCode.SHORT_KW:
+            case TokenCode.INT_KW:
+            case TokenCode.LONG_KW:
+            case TokenCode.FLOAT_KW:
+            case TokenCode.DOUBLE_KW:
+            case TokenCode.STRING_KW:
+            case TokenCode.CLOSE_SQUARE:
+            case TokenCode.GREATER_OP:
+            case TokenCode.SHIFT_RIGHT_OP:
+            case TokenCode.UNSIGNED_SHIFT_RIGHT_OP:
+                return true;
+            default:
+                return false;
         }
     }
-    // finds names and start and end indexes for method declarations
-    void parseMethods(){
-        methods = new HashMap<String, String[]>();
-        this.pat = Pattern.compile(this.methodPattern);
-        this.matcher = pat.matcher(this.source);
-        while(matcher.find()){
-            String [] match = {matcher.group(1), Integer.toString(matcher.end() - 1)};
-            this.methods.put(Integer.toString(matcher.start()), match);
+
+    // ends the walk and builds the class to methods map
+    void finish(){
+        this.openClass = this.openDepth = null;
+        this.classMethods = buildClassMethods();
+    }
+
+    private int addClass(String name){
+        if(classCount == classNames.length){
+            classNames = Arrays.copyOf(classNames, classCount * 2);
         }
+        classNames[classCount] = name;
+        return classCount++;
     }
+
+    private void addMethod(String name, int arity, int cls){
+        if(methodCount == methodNames.length){
+            methodNames = Arrays.copyOf(methodNames, methodCount * 2);
+            methodClass = Arrays.copyOf(methodClass, methodCount * 2);
+            methodArity = Arrays.copyOf(methodArity, methodCount * 2);
+        }
+        methodNames[methodCount] = name;
+        methodClass[methodCount] = cls;
+        methodArity[methodCount] = arity;
+        methodCount++;
+    }
+
+    private void addField(String name, int cls){
+        if(fieldCount == fieldNames.length){
+            fieldNames = Arrays.copyOf(fieldNames, fieldCount * 2);
+            fieldClass = Arrays.copyOf(fieldClass, fieldCount * 2);
+        }
+        fieldNames[fieldCount] = name;
+        fieldClass[fieldCount] = cls;
+        fieldCount++;
+    }
+
+    // groups the methods by class with one counting pass and one filling pass.
+    // A class declared twice under the same name keeps the methods of the last one
+    private HashMap<String, String[]> buildClassMethods(){
+        int[] count = new int[classCount];
+        for(int i = 0; i < methodCount; i++){
+            count[methodClass[i]]++;
+        }
+        String[][] byClass = new String[classCount][];
+        for(int c = 0; c < classCount; c++){
+            byClass[c] = new String[count[c]];
+            count[c] = 0;
+        }
+        for(int i = 0; i < methodCount; i++){
+            int c = methodClass[i];
+            byClass[c][count[c]++] = methodNames[i];
+        }
+        HashMap<String, String[]> map = new HashMap<String, String[]>();
+        for(int c = 0; c < classCount; c++){
+            map.put(classNames[c], byClass[c]);
+        }
+        return map;
+    }
+
+    void printClassMethods(){
+        for(String key: this.classMethods.keySet()){
+            System.out.println("Class " + key + " has methods:");
+            for(String method: this.classMethods.get(key)){
+                System.out.println("\t"+method);
+            }
+        }
+    }
+
+    // returns the number of classes found, counting a repeated name each time
+    int classCount(){
+        return this.classCount;
+    }
+
+    String className(int i){
+        return this.classNames[i];
+    }
+
+    // returns the number of methods found in all classes
+    int methodCount(){
+        return this.methodCount;
+    }
+
+    String methodName(int i){
+        return this.methodNames[i];
+    }
+
+    // returns the index of the class method i belongs to
+    int methodClass(int i){
+        return this.methodClass[i];
+    }
+
+    // returns the number of parameters method i takes
+    int methodArity(int i){
+        return this.methodArity[i];
+    }
+
+    // returns the number of fields found in all classes
+    int fieldCount(){
+        return this.fieldCount;
+    }
+
+    String fieldName(int i){
+        return this.fieldNames[i];
+    }
+
+    // returns the index of the class field i belongs to
+    int fieldClass(int i){
+        return this.fieldClass[i];
+    }
+
     // returns a map of classes and their respective methods
     HashMap<String, String[]> getClassMethods(){
         return this.classMethods;
     }
 }
-
-
-//String methodPattern = "[a-zA-Z]+\\s*(?=\\()(?:(?=.*?\\((?!.*?\1)(.*\\)(?!.*\2).*))(?=.*?\\)(?!.*?\2)(.*)).)+?.*?(?=\1)[^(]*(?=\2$)\\s*\\{";
-//String methodPattern = "(?=\\()(?:(?=.*?\\((?!.*?\1)(.*\\)(?!.*\2).*))(?=.*?\\)(?!.*?\2)(.*)).)+?.*?(?=\1)[^(]*(?=\2$)\\{";
-//        for(String key: this.classes.keySet()){
-//            System.out.println("Here's a key " + key);
-//            System.out.println(this.classes.get(key)[0]);
-//        }
-//        for(String key: this.methods.keySet()){
-//            System.out.println("Here's a key " + key);
-//            System.out.println(this.methods.get(key)[0]);
-//        }
\ No newline at end of file
@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+// Map from int to int without boxing. Open addressing with linear probing in arrays whose size is a
+// power of two, kept at most half full. Removing an entry moves the entries probed past it back, so
+// lookups never have to skip deleted slots.
+class IntIntMap {
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    IntIntMap() {
+        this(16);
+    }
+
+    IntIntMap(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        keys = new int[slots];
+        values = new int[slots];
+        used = new boolean[slots];
+        mask = slots - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return used[find(key)];
+    }
+
+    // Returns the value for key, absent if there is none
+    int get(int key, int absent) {
+        int i = find(key);
+        return used[i] ? values[i] : absent;
+    }
+
+    void put(int key, int value) {
+        int i = find(key);
+        if (!used[i]) {
+            if (2 * (size + 1) > keys.length) {
+                resize(keys.length * 2);
+                i = find(key);
+            }
+            used[i] = true;
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    // Removes key, returns true if it was there
+    boolean remove(int key) {
+        int i = find(key);
+        if (!used[i]) return false;
+        used[i] = false;
+        size--;
+
+        // move back the entries after it that can't be reached from their home slot any more
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            boolean reachable = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!reachable) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                used[i] = true;
+                used[j] = false;
+                i = j;
+            }
+        }
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // slot holding key, or the free slot where it would go
+    private int find(int key) {
+        int i = slot(key);
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize(int slots) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new int[slots];
+        values = new int[slots];
+        used = new boolean[slots];
+        mask = slots - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int j = find(oldKeys[i]);
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -1,25 +1,38 @@
 
+// Token kind and literal. Keyword and operator tokens are flyweights shared from the LexScanner table,
+// so line and position are tracked by the scanner/parser rather than stored on the token.
+// Identifier, string and number tokens scanned from a source that stays in memory keep where they are in
+// it instead, and only slice their literal the first time getLiteral() is called.
 public class JavaToken{
-    String literal;
-    String tokenName;
-    int tokenCode;
-    Boolean possMulti; // operator that may have another character ex. + could be ++ so true but [ or || are complete so false
-    
-    int line; //line of token
-    int pos; // position of token
+    private String literal; // null until getLiteral() for a token that is a slice of source
+    private final CharSequence source;
+    private final int start; // slice of source the literal is, when it hasn't been made yet
+    private final int end;
+    final String tokenName;
+    final int tokenCode;
+    final Boolean possMulti; // operator that may have another character ex. + could be ++ so true but [ or || are complete so false
     
     JavaToken(String literal, String tokenName, int tokenCode,Boolean possMulti){
         this.literal = literal;
+        this.source = null;
+        this.start = this.end = 0;
         this.tokenName = tokenName;
         this.tokenCode = tokenCode;
         this.possMulti = possMulti;
     }
     
     JavaToken(String literal, String tokenName, int tokenCode){
-        this.literal = literal;
+        this(literal, tokenName, tokenCode, false);
+    }
+
+    // token whose literal is source[start, end), source must not change while the token is used
+    JavaToken(CharSequence source, int start, int end, String tokenName, int tokenCode, Boolean possMulti){
+        this.source = source;
+        this.start = start;
+        this.end = end;
         this.tokenName = tokenName;
         this.tokenCode = tokenCode;
-        this.possMulti = false;
+        this.possMulti = possMulti;
     }
               
     boolean isOperator(){return ( this.tokenCode >= 2000 && this.tokenCode <= 2999);}
@@ -32,20 +45,10 @@ public class JavaToken{
     
     int tokenCode(){ return this.tokenCode;}
     
-    void setLine(int line){ this.line = line; }
-    
-    int getLine(){ return this.line; }
-    
-    void setPos(int pos) {this.pos = pos; }
-    
-    int getPos() { return this.pos; }
-    
-    String getLiteral() {return this.literal;}
-    
-    JavaToken getCopy() {
-        JavaToken copy = new JavaToken(this.literal, this.tokenName, this.tokenCode, this.possMulti);
-        copy.setLine(this.line);
-        copy.setPos(this.pos);
-        return copy;
+    String getLiteral() {
+        if(this.literal == null){
+            this.literal = source.subSequence(start, end).toString();
+        }
+        return this.literal;
     }
 }
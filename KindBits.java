@@ -0,0 +1,116 @@
+import java.util.regex.Pattern;
+
+// Sets of node kinds and token codes kept as long[WORDS], used by ASTNode to remember what its subtree holds.
+// Kinds take bits 0 to 127 by ordinal. Token codes take bits 128 to 447, a block of 64 for each thousand
+// from keywords to DNE, so code 1024 is bit 128 + 24, code 2009 is bit 192 + 9 and EOF, 4001, is bit 320 + 1.
+final class KindBits {
+    private KindBits() {}
+
+    private static final int TOKEN_BASE = 128;
+    private static final int TOKEN_BLOCKS = TokenCode.DNE / 1000; // keywords, operators, literals, EOF, DNE
+    static final int WORDS = (TOKEN_BASE + TOKEN_BLOCKS * 64) / 64;
+
+    // token name of each token bit, as the lexer names the code, so patterns can be matched against them
+    private static final String[] tokenNames = initTokenNames();
+
+    static {
+        if (NodeKind.values().length > TOKEN_BASE) {
+            throw new IllegalStateException("too many node kinds for KindBits");
+        }
+    }
+
+    private static String[] initTokenNames() {
+        String[] names = new String[TOKEN_BLOCKS * 64];
+        for (int i = 0; i < names.length; i++) {
+            int code = (i / 64 + 1) * 1000 + i % 64;
+            String name = LexScanner.tokenName(code);
+            // tokenName() calls every code it doesn't know DNE
+            if (!name.equals("DNE") || code == TokenCode.DNE) {
+                names[i] = name;
+            }
+        }
+        return names;
+    }
+
+    // Returns the bit of a kind, -1 for null
+    static int kindBit(NodeKind kind) {
+        return kind == null ? -1 : kind.ordinal();
+    }
+
+    // Returns the bit of a token code, -1 for 0, the code of nodes that aren't tokens.
+    // Throws IllegalArgumentException for codes outside the blocks TokenCode uses
+    static int tokenBit(int code) {
+        if (code == 0) {
+            return -1;
+        }
+        int block = code / 1000 - 1;
+        int offset = code % 1000;
+        if (code < 0 || block < 0 || block >= TOKEN_BLOCKS || offset >= 64) {
+            throw new IllegalArgumentException("no KindBits bit for token code " + code);
+        }
+        return TOKEN_BASE + block * 64 + offset;
+    }
+
+    static boolean has(long[] bits, int bit) {
+        return bits != null && bit >= 0 && (bits[bit >>> 6] & 1L << bit) != 0;
+    }
+
+    // Sets a bit, returns true if it was not set before
+    static boolean add(long[] bits, int bit) {
+        if (bit < 0 || (bits[bit >>> 6] & 1L << bit) != 0) {
+            return false;
+        }
+        bits[bit >>> 6] |= 1L << bit;
+        return true;
+    }
+
+    // Adds every bit of from to into, returns true if into changed
+    static boolean addAll(long[] into, long[] from) {
+        boolean changed = false;
+        if (from != null) {
+            for (int i = 0; i < WORDS; i++) {
+                long merged = into[i] | from[i];
+                changed |= merged != into[i];
+                into[i] = merged;
+            }
+        }
+        return changed;
+    }
+
+    // Adds the kind and token code of a node and the bits of the nodes under it, below, to into.
+    // Returns true if into changed
+    static boolean addNode(long[] into, NodeKind kind, int code, long[] below) {
+        boolean changed = add(into, kindBit(kind));
+        changed |= add(into, tokenBit(code));
+        changed |= addAll(into, below);
+        return changed;
+    }
+
+    static boolean intersects(long[] a, long[] b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        for (int i = 0; i < WORDS; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the set of kinds whose label, and token codes whose name, the pattern finds a match in
+    static long[] matching(Pattern type) {
+        long[] bits = new long[WORDS];
+        for (NodeKind kind : NodeKind.values()) {
+            if (kind.label() != null && type.matcher(kind.label()).find()) {
+                add(bits, kindBit(kind));
+            }
+        }
+        for (int i = 0; i < tokenNames.length; i++) {
+            if (tokenNames[i] != null && type.matcher(tokenNames[i]).find()) {
+                add(bits, TOKEN_BASE + i);
+            }
+        }
+        return bits;
+    }
+}
@@ -3,6 +3,8 @@ import java.io.FileNotFoundException;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -10,24 +12,70 @@ import java.util.regex.Pattern;
 
 // Lexical Scanner class
 class LexScanner{
-    private SourceArray sa; //array of lexemes for source code
-    private Map<String,JavaToken> tokType; // keyword table
-    private String curLex; // current lexeme
+    private LexSource sa; //array of lexemes for source code
+    private CharScanner cs; // same as sa when scanning with CharScanner, null otherwise
+    private int tokStart; // index of the first char of the current token, CharScanner only
+    private final NumberScanner numbers = new NumberScanner(); // scans numeric literals
+    static final JavaToken EOF_TOKEN = new JavaToken("EOF","EOF", TokenCode.EOF);
+    private static final Map<String,JavaToken> tokType = initTokenTypes(); // keyword table, shared by all scanners. Lookups go through TokenLookup
+    private static final int CODE_BASE = 1000; // token codes start just above this
+    private static final JavaToken[] codeTable = initCodeTable(); // keyword table indexed by token code - CODE_BASE
+    private String curLex; // current lexeme, null until getLexeme() for a literal sliced from the source
     private String curTok; // current token
     private JavaToken curJavaToken; // current java token
     private int curTokCode; // current token code
+    private int litStart; // an identifier, string or number scanned with CharScanner is source[litStart, litEnd),
+    private int litEnd; // curJavaToken is only made for it by getJavaToken()
     private int lastPos; //last position
-    private String source; //source code to tokenize
+    private final StringBuilder joined = new StringBuilder(); // lexemes joined into an operator, SourceArray only
+    private String source; //source code to tokenize, null when streaming
+    private CharSequence text; // source other than a String that can be read again, ex a MappedSource
     
     // Constructor: Feeds source code to SourceArray 
     LexScanner(String source) throws Exception{
+        this(source, false);
+    }
+
+    // Constructor: Feeds source code to CharScanner when charScan is set, SourceArray otherwise
+    LexScanner(String source, boolean charScan) throws Exception{
         this.source = source;
-        sa = new SourceArray(source); //initialize data structure to store source code
-        tokType = initTokenTypes(); //initialize keyword/operator table
+        if(charScan){
+            sa = cs = new CharScanner(source);
+        }else{
+            sa = new SourceArray(source); //initialize data structure to store source code
+        }
+    }
+
+    // Constructor: Feeds a stream to CharScanner through a CharWindow, so only the chars around the
+    // current token are held in memory. getSource() returns null
+    LexScanner(Reader in) throws Exception{
+        this(new CharWindow(in));
+    }
+
+    // Constructor: same as above for a UTF-8 channel
+    LexScanner(ReadableByteChannel in) throws Exception{
+        this(new CharWindow(in));
+    }
+
+    // Constructor: Feeds any other CharSequence, such as a CharWindow or MappedSource, to CharScanner.
+    // getSource() returns null
+    LexScanner(CharSequence source){
+        this.source = null;
+        this.text = source instanceof CharWindow ? null : source;
+        sa = cs = new CharScanner(source);
+    }
+
+    // Returns a new scanner over the same source from the start, with the same lexeme engine.
+    // Returns null for a stream, which can only be read once
+    LexScanner rescan() throws Exception{
+        if(source != null){
+            return new LexScanner(source, cs != null);
+        }
+        return text != null ? new LexScanner(text) : null;
     }
 
     // Initializes the keyword table for tokens that have a single literal representation ex "while", ")", "+" not <integer> or <id>
-    Map<String, JavaToken> initTokenTypes(){
+    static Map<String, JavaToken> initTokenTypes(){
         Map<String,JavaToken> tokType = new HashMap<String, JavaToken>();
         // Keywords
         tokType.put("abstract", new JavaToken("abstract", "abstract_kw", 1001, true));
@@ -137,13 +185,54 @@ class LexScanner{
         // DNE: "DNE:5001"
         return tokType;
     }
+
+    // Indexes the keyword table by token code so flyweights can be found from a code alone
+    static JavaToken[] initCodeTable(){
+        JavaToken[] table = new JavaToken[TokenCode.EOF - CODE_BASE + 1];
+        for(JavaToken tok : tokType.values()){
+            table[tok.tokenCode() - CODE_BASE] = tok;
+        }
+        table[TokenCode.EOF - CODE_BASE] = EOF_TOKEN;
+        return table;
+    }
+
+    // Returns the shared token for a code with a single literal representation, null otherwise
+    static JavaToken fixedToken(int code){
+        if(code < CODE_BASE || code - CODE_BASE >= codeTable.length){
+            return null;
+        }
+        return codeTable[code - CODE_BASE];
+    }
+
+    // Returns true for single line and block comment token codes
+    static boolean isComment(int code){
+        return code == TokenCode.SINGLE_LINE_COMMENT || code == TokenCode.BLOCK_COMMENT;
+    }
+
+    // Returns the token name for a token code ex 3006 -> semi_colon_lt
+    static String tokenName(int code){
+        JavaToken tok = fixedToken(code);
+        if(tok != null){
+            return tok.tokenName();
+        }
+        switch(code){
+            case TokenCode.IDENTIFIER: return "identifier";
+            case TokenCode.INTEGER_LT: return "integer_lt";
+            case TokenCode.STRING_LT: return "string_lt";
+            case TokenCode.SINGLE_LINE_COMMENT: return "single_line_comment";
+            case TokenCode.BLOCK_COMMENT: return "block_comment";
+            case TokenCode.DECIMAL_LT: return "decimal_lt";
+            default: return "DNE";
+        }
+    }
     
     
     // Returns the token type and token code in one string ex integer_lt:3002
     JavaToken getTokenType(String lexeme) throws Exception{
         // Check if lexeme in keyword table, else determine if one of other possible options
-        if(tokType.containsKey(lexeme)){
-            this.curJavaToken = tokType.get(lexeme);
+        JavaToken fixed = lookup(lexeme);
+        if(fixed != null){
+            this.curJavaToken = fixed;
             if(this.curJavaToken.possibleMulti()){
                 if(lexeme.equals(" ")){
                     handleSpaces(lexeme);
@@ -162,59 +251,176 @@ class LexScanner{
             getNumberToken(lexeme);
             return this.curJavaToken;
         }else if(lexeme.equals("EOF")){
-            return new JavaToken("EOF","EOF", 4001);
+            return EOF_TOKEN;
         }else if(isID(lexeme)){
-            return new JavaToken(lexeme, "identifier", 3001);
+            return new JavaToken(lexeme, "identifier", TokenCode.IDENTIFIER);
         }else{
-            return new JavaToken(lexeme, "DNE", 5001); // Does not exist
+            return new JavaToken(lexeme, "DNE", TokenCode.DNE); // Does not exist
         }
     }
     
+    // Returns the shared token for a lexeme in the keyword table, null otherwise
+    static JavaToken lookup(CharSequence lexeme){
+        return fixedToken(TokenLookup.code(lexeme, 0, lexeme.length()));
+    }
+
     void advance(String lexeme){
+        if(cs == null){
+            joined.setLength(0);
+            joined.append(lexeme);
+        }
+        joinFixed();
+    }
+    
+    // Returns joined set to first followed by second
+    private StringBuilder join(String first, String second){
+        joined.setLength(0);
+        return joined.append(first).append(second);
+    }
+    
+    // Grows the token one lexeme at a time while it is still in the keyword table. Neither scanner
+    // concatenates lexemes: CharScanner looks the token up over the source from tokStart, SourceArray
+    // appends to joined, which holds the lexemes so far, and the token keeps the literal of the
+    // shared entry
+    private void joinFixed(){
         int startPos = getPosition();
-        while(tokType.containsKey(lexeme)){
-            this.curLex = lexeme;
-            this.curJavaToken = tokType.get(lexeme);
-            lexeme += sa.nextLex();
+        JavaToken tok;
+        if(cs != null){
+            CharSequence src = cs.getSource();
+            while((tok = fixedToken(TokenLookup.code(src, tokStart, cs.lexEnd() - tokStart))) != null){
+                this.curLex = tok.getLiteral();
+                this.curJavaToken = tok;
+                cs.scanLex();
+            }
+        }else{
+            while((tok = lookup(joined)) != null){
+                this.curLex = tok.getLiteral();
+                this.curJavaToken = tok;
+                joined.append(sa.nextLex());
+            }
         }
         //stops sa from advancing on the next lexeme 
         sa.haltNext(startPos);
     }
     void handleSpaces(String lexeme){
         int startPos = getPosition();
-        String next = "";
-        while(lexeme.replace(" ", "").length() == 0){
-            this.curLex = lexeme;
-            next = sa.nextLex();
-            lexeme += next;
+        int count = 0; // spaces in the run, counted instead of joined one by one
+        String next = lexeme;
+        while(next.equals(" ")){
+            count++;
+            next = nextLexToHalt();
         }
+        this.curLex = count == 1 ? lexeme : " ".repeat(count);
         //stops sa from advancing on the next lexeme if necessasry
         if(!next.equals("EOF")){
             sa.haltNext(startPos);
         }
     }
     
+    // Handles string and char literals and text blocks starting with the quote in lexeme
     void handleString(String lexeme) throws Exception{
+        if(cs != null){
+            scanString(lexeme.charAt(0));
+            return;
+        }
         boolean skipNext = false;
         String next;
         int startPos = getPosition();
-
-        while(!(next = sa.nextLex()).equals(lexeme) || skipNext){
-            if(next.equals("EOF")){
-                throw new Exception("String starting at line " + getLine() + " pos " + startPos + " is unterminated.");
+        int startLine = getLine();
+        StringBuilder literal = new StringBuilder(lexeme);
+        boolean textBlock = false;
+        if(lexeme.equals("\"")){
+            // """ starts a text block, "" is an empty string
+            next = sa.nextLex();
+            if(next.equals(lexeme)){
+                String third = sa.nextLex();
+                if(!third.equals(lexeme)){
+                    this.curLex = lexeme + next;
+                    this.curJavaToken = new JavaToken(this.curLex, "string_lt", TokenCode.STRING_LT);
+                    sa.haltNext(startPos);
+                    return;
+                }
+                literal.append(next).append(third);
+                textBlock = true;
             }else{
-                skipNext = next.equals("\\");
-                this.curLex += next;
+                sa.haltNext(startPos);
+            }
+        }
+        int line = startLine;
+        while(true){
+            next = sa.nextLex();
+            if(next.equals("EOF")){
+                throw new Exception("String starting at line " + startLine + " pos " + startPos + " is unterminated.");
+            }
+            if(textBlock && sa.currentLine() != line){
+                literal.append('\n'); // SourceArray drops line breaks, put them back in text blocks
+                line = sa.currentLine();
+            }
+            literal.append(next);
+            if(next.equals(lexeme) && !skipNext && (!textBlock || endsWithTextBlockQuote(literal))){
+                break;
             }
+            skipNext = !skipNext && next.equals("\\");
         }
 
-        this.curLex += next;
-        this.curJavaToken = new JavaToken(this.curLex, "string_lt" ,3012);
+        this.curLex = literal.toString();
+        this.curJavaToken = new JavaToken(this.curLex, "string_lt", TokenCode.STRING_LT);
         sa.nextLex();
         sa.haltNext(startPos);
     }
     
+    // true once a text block literal ends with an unescaped """ that is not part of the opening one
+    private static boolean endsWithTextBlockQuote(StringBuilder literal){
+        int len = literal.length();
+        return len >= 6 && literal.charAt(len - 2) == '"' && literal.charAt(len - 3) == '"' && literal.charAt(len - 4) != '\\';
+    }
+    
+    // Scans a string or char literal or text block straight from the source with CharScanner
+    // and moves the scanner past it, so the literal is sliced from the source once
+    void scanString(char quote) throws Exception{
+        int startPos = getPosition();
+        CharSequence src = cs.getSource();
+        int i = tokStart + 1;
+        boolean textBlock = quote == '"' && cs.has(i + 1) && src.charAt(i) == '"' && src.charAt(i + 1) == '"';
+        boolean closed = false;
+        if(textBlock){
+            i += 2;
+            while(cs.has(i) && !closed){
+                char c = src.charAt(i++);
+                if(c == '\\'){
+                    i++;
+                }else if(c == '"' && cs.has(i + 1) && src.charAt(i) == '"' && src.charAt(i + 1) == '"'){
+                    i += 2;
+                    closed = true;
+                }
+            }
+        }else{
+            while(cs.has(i) && !closed){
+                char c = src.charAt(i++);
+                if(c == '\\'){
+                    i++;
+                }else if(c == quote){
+                    closed = true;
+                }else if(c == '\n' || c == '\r'){
+                    break; // only text blocks can span lines
+                }
+            }
+        }
+        if(!closed){
+            throw new Exception("String starting at line " + getLine() + " pos " + getPosition() + " is unterminated.");
+        }
+        cs.skipTo(i);
+        literal(tokStart, i, TokenCode.STRING_LT);
+        // read the next lexeme and halt on it like handleString, so the line is the same
+        cs.scanLex();
+        sa.haltNext(startPos);
+    }
+    
+    // Handles // and /* */ comments and operators starting with /
     void handleComment(String lexeme) throws Exception{
+        if(cs != null && scanComment()){
+            return;
+        }
         int startPos = getPosition();
         int startLine = getLine();
         String next = sa.nextLex();
@@ -222,15 +428,37 @@ class LexScanner{
         if(next.equals("/")){
             int line = sa.currentLine();
             next = sa.nextLex();
-            this.curLex = "";
+            StringBuilder comment = new StringBuilder();
             while(line == sa.currentLine() && !next.equals("EOF")){
-                this.curLex += next;
+                comment.append(next);
                 next = sa.nextLex();
             } 
-            this.curJavaToken = new JavaToken(this.curLex, "single_line_comment", 3014);
-        }else if(tokType.containsKey(this.curLex + next)){
+            this.curLex = comment.toString();
+            this.curJavaToken = new JavaToken(this.curLex, "single_line_comment", TokenCode.SINGLE_LINE_COMMENT);
+        }else if(next.equals("*")){
+            // block comment, SourceArray drops line breaks so put them back between lines
+            StringBuilder comment = new StringBuilder();
+            int line = sa.currentLine();
+            String last = "";
+            next = sa.nextLex();
+            while(!next.equals("EOF") && !(last.equals("*") && next.equals("/"))){
+                if(sa.currentLine() != line){
+                    comment.append('\n');
+                    line = sa.currentLine();
+                }
+                comment.append(next);
+                last = next;
+                next = sa.nextLex();
+            }
+            if(!next.equals("EOF")){
+                comment.setLength(comment.length() - 1); // drop the * of */
+                next = sa.nextLex();
+            }
+            this.curLex = comment.toString();
+            this.curJavaToken = new JavaToken(this.curLex, "block_comment", TokenCode.BLOCK_COMMENT);
+        }else if(lookup(join(this.curLex, next)) != null){
             halt = false;
-            advance(this.curLex+next);
+            joinFixed();
         }else{
             ; // do nothing and let the current token get handled in nextToken
         }
@@ -240,92 +468,215 @@ class LexScanner{
         }
     }
     
+    // Scans a // or /* */ comment straight from the source with CharScanner and moves the scanner
+    // past it. Returns false if the / at tokStart does not start a comment
+    boolean scanComment(){
+        CharSequence src = cs.getSource();
+        int i = tokStart + 1;
+        if(!cs.has(i)){
+            return false;
+        }
+        int startPos = getPosition();
+        int startLine = getLine();
+        if(src.charAt(i) == '/'){
+            int end = i + 1;
+            while(cs.has(end) && src.charAt(end) != '\n' && src.charAt(end) != '\r'){
+                end++;
+            }
+            cs.skipTo(end);
+            this.curLex = src.subSequence(i + 1, end).toString();
+            this.curJavaToken = new JavaToken(this.curLex, "single_line_comment", TokenCode.SINGLE_LINE_COMMENT);
+            haltAfterComment(startPos, startLine);
+            return true;
+        }else if(src.charAt(i) == '*'){
+            int end = i + 1;
+            int textEnd = -1;
+            while(cs.has(end)){
+                if(src.charAt(end) == '*' && cs.has(end + 1) && src.charAt(end + 1) == '/'){
+                    textEnd = end;
+                    end += 2;
+                    break;
+                }
+                end++;
+            }
+            if(textEnd < 0){
+                textEnd = end; // unterminated comment runs to the end of the source
+            }
+            cs.skipTo(end);
+            this.curLex = src.subSequence(i + 1, textEnd).toString();
+            this.curJavaToken = new JavaToken(this.curLex, "block_comment", TokenCode.BLOCK_COMMENT);
+            haltAfterComment(startPos, startLine);
+            return true;
+        }
+        return false;
+    }
+    
+    // reads the lexeme after a comment and halts on it like handleComment, so it comes back at position 1
+    private void haltAfterComment(int startPos, int startLine){
+        if(cs.scanLex()){
+            sa.haltNext(startPos, startLine);
+        }
+    }
+    
     // Returns next token
     String nextToken() throws IOException, Exception{
-        this.curLex = sa.nextLex();
+        if(cs != null){
+            cs.release();
+            boolean more = cs.scanLex();
+            this.tokStart = cs.lexStart();
+            if(more && scanWord()){
+                return this.curTok;
+            }
+            this.curLex = cs.lex();
+        }else{
+            this.curLex = sa.nextLex();
+        }
         this.curJavaToken = this.getTokenType(this.curLex);
+        if(curJavaToken == null){
+            return this.curTok; // a string literal, see literal()
+        }
         // If lexeme in token table assign values to class variables
         if(curJavaToken.tokenName() != "DNE"){
             this.curTok = curJavaToken.tokenName();
             this.curTokCode = curJavaToken.tokenCode();
         }else{
             this.curTok = "DNE";
-            this.curTokCode = 5001;
+            this.curTokCode = TokenCode.DNE;
         }
-        curJavaToken.setLine(sa.currentLine());
-        curJavaToken.setPos(sa.currentPos());
         return this.curTok;
     }
-    // returns true if lexeme is a number
-    boolean isNumeric(String lexeme){
-        if(lexeme == null){
+    // Scans an identifier or number with CharScanner without making a String or JavaToken of it.
+    // Returns false for anything else, keywords included, which goes through getTokenType
+    private boolean scanWord(){
+        CharSequence src = cs.getSource();
+        int end = cs.lexEnd();
+        if(!cs.isWord() || fixedToken(TokenLookup.keywordCode(src, tokStart, end - tokStart)) != null){
             return false;
         }
-        try {
-            double d = Double.parseDouble(lexeme);
-        } catch (NumberFormatException e) {
-            return false;
+        if(NumberScanner.isDigit(src.charAt(tokStart))){
+            getNumberToken(null);
+        }else{
+            literal(tokStart, end, TokenCode.IDENTIFIER);
         }
         return true;
     }
+
+    // Makes source[start, end) the current token, with the given code. The JavaToken is made by getJavaToken()
+    // and the lexeme by getLexeme(), the token is only held as where it is in the source until then
+    private void literal(int start, int end, int code){
+        this.litStart = start;
+        this.litEnd = end;
+        this.curLex = null;
+        this.curJavaToken = null;
+        this.curTokCode = code;
+        this.curTok = tokenName(code);
+    }
+
+    // Reads the next lexeme only to see if it is a space or to halt on it. CharScanner doesn't make a
+    // String of a word for that, "" stands for one
+    private String nextLexToHalt(){
+        if(cs == null){
+            return sa.nextLex();
+        }
+        if(!cs.scanLex()){
+            return "EOF";
+        }
+        return cs.isWord() ? "" : cs.lex();
+    }
+
+    // returns true if lexeme starts a numeric literal
+    boolean isNumeric(String lexeme){
+        return lexeme != null && lexeme.length() > 0 && NumberScanner.isDigit(lexeme.charAt(0));
+    }
     
+    // Builds the integer_lt or decimal_lt token for the literal starting with lexeme,
+    // DNE if the literal is malformed. With CharScanner lexeme isn't used and the token is left to literal()
     void getNumberToken(String lexeme){
-        //String decPat = "[0-9]+([.,][0-9]+)?";
-        String decPat = "[0-9]+([.]{1}[0-9]+)*";
-        //String intPat = "([0-9]+[,]*)+";
-        String intPat = "[0-9]+";
-        String partDecPat = "([0-9]+)+[.]{1}";
-        boolean numeric = true;
-        boolean partial = false;
-        boolean abort = false;
-        String next = "";
-        int startPos = getPosition();
-        while(numeric){
-            if(lexeme.matches(intPat)){
-                this.curJavaToken = new JavaToken(lexeme, "integer_lt", 3002, true);
-                partial = false;
-            }else if(lexeme.matches(decPat)){
-                this.curJavaToken = new JavaToken(lexeme, "decimal_lt", 3015, true);
-                partial = false;
-            }else if(lexeme.matches(partDecPat)){
-                this.curJavaToken = new JavaToken(lexeme, "DNE", 5001);
-                partial = true;
+        if(cs != null){
+            // scan straight over the source and move the scanner past the literal
+            numbers.scan(cs.getSource(), tokStart, cs.numberLimit(tokStart));
+            int startPos = getPosition();
+            cs.skipTo(numbers.end());
+            literal(tokStart, numbers.end(), numbers.kind());
+            // read the next lexeme and halt on it like joinNumberLexemes
+            if(cs.scanLex()){
+                sa.haltNext(startPos);
             }
-            else {
-                numeric = false;
-                abort = true;
-                
+            return;
+        }
+        String text = joinNumberLexemes(lexeme);
+        numbers.scan(text, 0, text.length());
+        // leftover joined chars the literal couldn't use make the whole text malformed
+        int kind = numbers.end() == text.length() ? numbers.kind() : TokenCode.DNE;
+        this.curLex = text;
+        if(kind == TokenCode.INTEGER_LT){
+            this.curJavaToken = new JavaToken(text, "integer_lt", TokenCode.INTEGER_LT, true);
+        }else if(kind == TokenCode.DECIMAL_LT){
+            this.curJavaToken = new JavaToken(text, "decimal_lt", TokenCode.DECIMAL_LT, true);
+        }else{
+            this.curJavaToken = new JavaToken(text, "DNE", TokenCode.DNE);
+        }
+    }
+    
+    // Joins the lexemes that make up a numeric literal when SourceArray splits it on . + or -
+    // ex 1 . 5e - 3 -> 1.5e-3. Reads one lexeme past the literal and halts on it
+    String joinNumberLexemes(String lexeme){
+        int startPos = getPosition();
+        StringBuilder text = new StringBuilder(lexeme);
+        boolean joinedDot = false;
+        boolean needWord = false; // last joined lexeme was . or a sign, a following word belongs to the literal
+        while(true){
+            String next = sa.nextLex();
+            if(next.equals("EOF")){
+                break;
             }
-            //default behavior unless a non-numeric token has been encountered causing abort
-            if(!abort)
-            {
-                this.curLex = lexeme;
-                next = sa.nextLex();
-                if(tokType.containsKey(next) && !(next.equals("."))){
-                    //break 
-                    numeric = false;
-                }else if(!(isNumeric(lexeme)) &&  !(partial)){
-                    numeric = false;
-                }
-                lexeme += next;
+            char c = next.charAt(0);
+            if(needWord && CharScanner.isWordChar(c)){
+                text.append(next);
+                needWord = false;
+            }else if(next.equals(".") && !joinedDot && !needWord){
+                text.append(next);
+                joinedDot = needWord = true;
+            }else if((c == '+' || c == '-') && next.length() == 1 && !needWord && NumberScanner.endsWithExponent(text)){
+                text.append(next);
+                needWord = true;
+            }else{
+                sa.haltNext(startPos);
+                break;
             }
         }
-        if(!abort){
-            sa.haltNext(startPos);
-        }
+        return text.toString();
     }
     // Determines if lexeme is an identifier
     boolean isID(String lexeme){
-        // Checks if one character letter
-        if(lexeme.length() > 0 && lexeme.matches("[a-zA-Z_$][a-zA-Z_$0-9]*")){
-            return true;
-        }else{
+        // [a-zA-Z_$][a-zA-Z_$0-9]*
+        if(lexeme.length() == 0 || NumberScanner.isDigit(lexeme.charAt(0))){
             return false;
         }
+        for(int i = 0; i < lexeme.length(); i++){
+            char c = lexeme.charAt(i);
+            if(!CharScanner.isWordChar(c) && c != '$'){
+                return false;
+            }
+        }
+        return true;
     }
     
-    // Returns current JavaToken
-    JavaToken getJavaToken(){ return this.curJavaToken.getCopy(); }
+    // Returns current JavaToken. Keyword and operator tokens are shared, so line and position
+    // come from getLine() and getPosition()
+    JavaToken getJavaToken(){
+        if(this.curJavaToken == null){
+            CharSequence src = cs.getSource();
+            boolean number = curTokCode == TokenCode.INTEGER_LT || curTokCode == TokenCode.DECIMAL_LT;
+            if(source != null || text != null){
+                this.curJavaToken = new JavaToken(src, litStart, litEnd, curTok, curTokCode, number);
+            }else{
+                // a stream drops the chars of a token once the next one is scanned, so the literal is made now
+                this.curJavaToken = new JavaToken(src.subSequence(litStart, litEnd).toString(), curTok, curTokCode, number);
+            }
+        }
+        return this.curJavaToken;
+    }
     
     
     // Returns current token - slightly different than next token
@@ -340,9 +691,22 @@ class LexScanner{
 
     // Returns current lexeme
     String getLexeme(){
+        if(this.curLex == null){
+            this.curLex = getJavaToken().getLiteral();
+        }
         return this.curLex;
     }
     
+    // Returns index of the first char of the current token in the source, -1 unless scanning with CharScanner
+    int getTokenStart(){
+        return cs != null ? this.tokStart : -1;
+    }
+
+    // Returns index just past the current token in the source, -1 unless scanning with CharScanner
+    int getTokenEnd(){
+        return cs != null ? Math.max(cs.consumedEnd(), this.tokStart) : -1;
+    }
+
     // Returns line number of current lexeme 1...n
     int getLine(){
         return sa.currentLine();
@@ -0,0 +1,17 @@
+// contract shared by the lexeme providers used by LexScanner (SourceArray, CharScanner)
+interface LexSource {
+    // Returns next lexeme in source file. Returns "EOF" if at end of file.
+    String nextLex();
+
+    // Returns current line 1...n in source code
+    int currentLine();
+
+    // Returns current position 1...n in current line
+    int currentPos();
+
+    // Replays the current lexeme on the next call to nextLex, reporting lastPos until then
+    void haltNext(int lastPos);
+
+    // Replays the current lexeme on the next call to nextLex, reporting lastPos and lastLine until then
+    void haltNext(int lastPos, int lastLine);
+}
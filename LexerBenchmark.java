@@ -0,0 +1,112 @@
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+
+// Lexer timings for Benchmark
+final class LexerBenchmark {
+    private LexerBenchmark() {}
+
+    // Scanning a literal or comment should be linear in its length with either lexeme engine
+    static void literals() throws Exception {
+        System.out.println(String.format("%-10s%-16s%-16s%-16s%-16s", "chars", "regex ms", "regex ns/char", "char ms", "char ns/char"));
+        for (int size = 1 << 14; size <= 1 << 18; size <<= 1) {
+            String source = literalSource(size);
+            long regex = Benchmark.best(() -> lexAll(new LexScanner(source, false)));
+            long chars = Benchmark.best(() -> lexAll(new LexScanner(source, true)));
+            System.out.println(String.format("%-10d%-16.2f%-16d%-16.2f%-16d", source.length(), regex / 1e6, regex / source.length(), chars / 1e6, chars / source.length()));
+        }
+    }
+
+    // one string literal, one block comment and a run of line comments, each about size chars
+    static String literalSource(int size) {
+        StringBuilder sb = new StringBuilder("String s = \"");
+        for (int i = 0; i < size / 8; i++) {
+            sb.append("payload ");
+        }
+        sb.append("\";\n/*");
+        for (int i = 0; i < size / 8; i++) {
+            sb.append(i % 8 == 7 ? "comment\n" : "comment ");
+        }
+        sb.append("*/\n");
+        for (int i = 0; i < size / 32; i++) {
+            sb.append("// line comment number ").append(i % 10).append("\n");
+        }
+        return sb.append("int x = 1;\n").toString();
+    }
+
+    // The window should stay the same size however long the source is, since no token grows with it
+    static void stream() throws Exception {
+        System.out.println(String.format("%-12s%-16s%-16s%-16s", "chars", "ms", "ns/char", "window chars"));
+        for (long size = 1 << 20; size <= 1 << 25; size <<= 1) {
+            long chars = size / STREAM_SNIPPET.length() * STREAM_SNIPPET.length(); // whole snippets only
+            CharWindow[] window = new CharWindow[1];
+            long time = Benchmark.best(() -> {
+                window[0] = new CharWindow(new RepeatReader(STREAM_SNIPPET, chars));
+                lexAll(new LexScanner(window[0]));
+            });
+            System.out.println(String.format("%-12d%-16.2f%-16d%-16d", chars, time / 1e6, time / chars, window[0].capacity()));
+        }
+    }
+
+    static final String STREAM_SNIPPET = "int count = 42; // counter\nString s = \"some text\"; /* note */\nx = (a + b) * 3.5e2;\n";
+
+    // Hands out text repeated up to a total number of chars without holding more than one copy of it
+    static class RepeatReader extends Reader {
+        private final String text;
+        private long left; // chars still to hand out
+        private int at; // index in text of the next char
+
+        RepeatReader(String text, long total) {
+            this.text = text;
+            this.left = total;
+        }
+
+        public int read(char[] buf, int off, int len) {
+            if (left == 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, left);
+            for (int i = 0; i < n; i++) {
+                buf[off + i] = text.charAt(at);
+                at = at + 1 == text.length() ? 0 : at + 1;
+            }
+            left -= n;
+            return n;
+        }
+
+        public void close() {
+        }
+    }
+
+    // Bytes allocated per token by the scanner the parser reads from, which makes a JavaToken for each
+    // token it is asked for, and by TokenArray.tokenize, which only keeps kinds and offsets
+    static void tokens() throws Exception {
+        System.out.println(String.format("%-10s%-12s%-16s%-16s%-16s%-16s", "classes", "tokens", "scan ns/tok", "scan B/tok", "array ns/tok", "array B/tok"));
+        for (int classes = 100; classes <= 1600; classes *= 2) {
+            String source = Benchmark.classSource(classes);
+            int count = TokenArray.tokenize(source).size();
+            long scan = Benchmark.best(() -> lexAll(new LexScanner(source, true)));
+            long scanBytes = allocated(() -> lexAll(new LexScanner(source, true)));
+            long array = Benchmark.best(() -> TokenArray.tokenize(source));
+            long arrayBytes = allocated(() -> TokenArray.tokenize(source));
+            System.out.println(String.format("%-10d%-12d%-16d%-16d%-16d%-16d", classes, count, scan / count, scanBytes / count, array / count, arrayBytes / count));
+        }
+    }
+
+    // bytes the current thread allocates running r, the least of Benchmark.RUNS runs
+    static long allocated(Benchmark.Run r) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long least = Long.MAX_VALUE;
+        for (int i = 0; i < Benchmark.RUNS; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            r.run();
+            least = Math.min(least, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return least;
+    }
+
+    static void lexAll(LexScanner l) throws Exception {
+        do {
+            l.nextToken();
+        } while (l.getJavaToken().tokenCode() != TokenCode.EOF);
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.Arrays;
+
+// Lines of a PythonBuilder in order, each with its indent. Every line gets an id when it is added that
+// stays the same while lines are inserted around it, so something pointing at a line, a line tab or a
+// source line mapping, keeps the id and asks for its position when needed instead of being moved
+// along with every insert.
+// The ids are kept in a treap ordered by position, each node holding the size of its subtree, so
+// adding a line anywhere, finding the line at a position and finding the position of a line all take
+// O(log n). Priorities come from a hash of the id, so the shape of the tree is the same every run.
+class LineStore {
+    static final int NONE = -1; // no line
+
+    private int size;
+    private int root = NONE;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private int[] count; // lines in the subtree of each line, itself included
+    private int[] indent;
+    private StringBuilder[] text;
+
+    LineStore() {
+        left = new int[64];
+        right = new int[64];
+        parent = new int[64];
+        count = new int[64];
+        indent = new int[64];
+        text = new StringBuilder[64];
+    }
+
+    // number of lines
+    int size() {
+        return size;
+    }
+
+    // Adds a line so that it ends up at position, 0 to size(), and returns its id
+    int insert(int position, StringBuilder line, int lineIndent) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("line " + position + " of " + size);
+        }
+        if (size == left.length) {
+            grow(size * 2);
+        }
+        int id = size++;
+        left[id] = NONE;
+        right[id] = NONE;
+        parent[id] = NONE;
+        count[id] = 1;
+        indent[id] = lineIndent;
+        text[id] = line;
+        if (root == NONE) {
+            root = id;
+            return id;
+        }
+
+        // walk down to where the line goes, counting it in every subtree on the way
+        int node = root;
+        while (true) {
+            count[node]++;
+            int before = count(left[node]);
+            if (position <= before) {
+                if (left[node] == NONE) {
+                    left[node] = id;
+                    break;
+                }
+                node = left[node];
+            } else {
+                position -= before + 1;
+                if (right[node] == NONE) {
+                    right[node] = id;
+                    break;
+                }
+                node = right[node];
+            }
+        }
+        parent[id] = node;
+
+        // then rotate it up until its priority is below its parent's
+        while (parent[id] != NONE && priority(id) > priority(parent[id])) {
+            rotateUp(id);
+        }
+        return id;
+    }
+
+    // Returns the id of the line at position
+    int at(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("line " + position + " of " + size);
+        }
+        int node = root;
+        while (true) {
+            int before = count(left[node]);
+            if (position < before) {
+                node = left[node];
+            } else if (position == before) {
+                return node;
+            } else {
+                position -= before + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    // Returns the current position of line id
+    int position(int id) {
+        int position = count(left[id]);
+        for (int node = id; parent[node] != NONE; node = parent[node]) {
+            if (right[parent[node]] == node) {
+                position += count(left[parent[node]]) + 1;
+            }
+        }
+        return position;
+    }
+
+    // Returns the id of the first line, NONE when there are none
+    int first() {
+        int node = root;
+        while (node != NONE && left[node] != NONE) {
+            node = left[node];
+        }
+        return node;
+    }
+
+    // Returns the id of the line after line id, NONE for the last one
+    int next(int id) {
+        if (right[id] != NONE) {
+            int node = right[id];
+            while (left[node] != NONE) {
+                node = left[node];
+            }
+            return node;
+        }
+        int node = id;
+        while (parent[node] != NONE && right[parent[node]] == node) {
+            node = parent[node];
+        }
+        return parent[node];
+    }
+
+    StringBuilder text(int id) {
+        return text[id];
+    }
+
+    void setText(int id, StringBuilder line) {
+        text[id] = line;
+    }
+
+    int indent(int id) {
+        return indent[id];
+    }
+
+    void setIndent(int id, int lineIndent) {
+        indent[id] = lineIndent;
+    }
+
+    private int count(int node) {
+        return node == NONE ? 0 : count[node];
+    }
+
+    private static int priority(int id) {
+        int h = id * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    // swaps node with its parent, keeping the order of the lines
+    private void rotateUp(int node) {
+        int p = parent[node];
+        int g = parent[p];
+        if (left[p] == node) {
+            left[p] = right[node];
+            if (right[node] != NONE) parent[right[node]] = p;
+            right[node] = p;
+        } else {
+            right[p] = left[node];
+            if (left[node] != NONE) parent[left[node]] = p;
+            left[node] = p;
+        }
+        parent[p] = node;
+        parent[node] = g;
+        if (g == NONE) {
+            root = node;
+        } else if (left[g] == p) {
+            left[g] = node;
+        } else {
+            right[g] = node;
+        }
+        count[p] = 1 + count(left[p]) + count(right[p]);
+        count[node] = 1 + count(left[node]) + count(right[node]);
+    }
+
+    private void grow(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        count = Arrays.copyOf(count, capacity);
+        indent = Arrays.copyOf(indent, capacity);
+        text = Arrays.copyOf(text, capacity);
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// UTF-8 source file mapped into memory and seen as a CharSequence, so the file is read through the
+// page cache instead of being copied onto the heap as bytes and again as a String.
+// The file is split into blocks of about BLOCK bytes. Blocks that are all ASCII are read straight from
+// the mapping, others are decoded when first reached into one cached block of chars.
+// Files up to 2 GB only.
+class MappedSource implements CharSequence {
+    static final int BLOCK = 1 << 16; // bytes per block, a block never splits a UTF-8 sequence
+
+    private final MappedByteBuffer bytes;
+    private int[] byteStart; // byte offset of each block, then the file size
+    private int[] charStart; // char index of each block, then the length
+    private final int blocks; // number of blocks
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    // cached block, charAt checks it before searching
+    private int lo; // char index of its first char
+    private int hi; // char index just past its last char
+    private int byteOff; // byte offset of its first char, used when ascii
+    private boolean ascii; // one byte per char
+    private char[] chars; // decoded chars when not ascii
+
+    // Maps the whole file read only. The mapping stays valid after the channel is closed
+    static MappedSource open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map as one source");
+            }
+            return new MappedSource(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    // Finds the block boundaries and counts the chars in each block. Blocks with non-ASCII bytes
+    // are decoded once here to count them, which also reports malformed input up front
+    private MappedSource(MappedByteBuffer bytes) throws IOException {
+        this.bytes = bytes;
+        int size = bytes.limit();
+        int capacity = size / BLOCK + 2; // blocks can come out a few bytes short, so allow one more
+        this.byteStart = new int[capacity + 1];
+        this.charStart = new int[capacity + 1];
+        int count = 0;
+        int chars = 0;
+        CharBuffer scratch = null;
+        for (int b = 0; b < size; ) {
+            int end = Math.min(b + BLOCK, size);
+            for (int k = 0; k < 3 && end < size && (bytes.get(end) & 0xC0) == 0x80; k++) {
+                end--; // back up to the first byte of a sequence
+            }
+            if (count == capacity) {
+                capacity *= 2;
+                byteStart = Arrays.copyOf(byteStart, capacity + 1);
+                charStart = Arrays.copyOf(charStart, capacity + 1);
+            }
+            byteStart[count] = b;
+            charStart[count] = chars;
+            count++;
+            if (isAscii(b, end)) {
+                chars += end - b;
+            } else {
+                if (scratch == null) {
+                    scratch = CharBuffer.allocate(BLOCK);
+                }
+                chars += decode(b, end, scratch);
+            }
+            b = end;
+        }
+        byteStart[count] = size;
+        charStart[count] = chars;
+        this.blocks = count;
+        this.ascii = true;
+    }
+
+    private boolean isAscii(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // decodes bytes from...to into out, returns the number of chars
+    private int decode(int from, int to, CharBuffer out) throws IOException {
+        ByteBuffer in = bytes.duplicate();
+        in.limit(to).position(from);
+        out.clear();
+        decoder.reset();
+        CoderResult r = decoder.decode(in, out, true);
+        if (!r.isUnderflow()) {
+            r.throwException();
+        }
+        r = decoder.flush(out);
+        if (!r.isUnderflow()) {
+            r.throwException();
+        }
+        return out.position();
+    }
+
+    public int length() {
+        return charStart[blocks];
+    }
+
+    public char charAt(int i) {
+        if (i < lo || i >= hi) {
+            load(i);
+        }
+        return ascii ? (char) bytes.get(byteOff + i - lo) : chars[i - lo];
+    }
+
+    // makes the block holding char i the cached one
+    private void load(int i) {
+        if (i < 0 || i >= length()) {
+            throw new IndexOutOfBoundsException("char " + i + " of " + length());
+        }
+        int block = Arrays.binarySearch(charStart, 0, blocks, i);
+        if (block < 0) {
+            block = -block - 2; // block starting before i
+        }
+        lo = charStart[block];
+        hi = charStart[block + 1];
+        byteOff = byteStart[block];
+        ascii = hi - lo == byteStart[block + 1] - byteOff;
+        if (!ascii) {
+            if (chars == null) {
+                chars = new char[BLOCK];
+            }
+            try {
+                decode(byteOff, byteStart[block + 1], CharBuffer.wrap(chars));
+            } catch (IOException e) {
+                throw new IllegalStateException("block decoded when opened no longer decodes", e);
+            }
+        }
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("chars " + start + "..." + end + " of " + length());
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            sb.append(charAt(i));
+        }
+        return sb.toString();
+    }
+
+    // Decodes the whole file into a String
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
@@ -0,0 +1,119 @@
+// Kinds of AST nodes, so the translator can dispatch on the kind with a jump switch and node searches
+// compare references instead of strings. Each kind keeps the label the parser used to print it.
+enum NodeKind {
+    // built by the parser from its grammar rules
+    PROGRAM("program"),
+    BLOCK("block"),
+    BLOCK_STATEMENTS("block statements"),
+    BLOCK_STATEMENT("block statement"),
+    STATEMENT("statement"),
+    EMPTY_STATEMENT("empty statement"),
+    LOCAL_VARIABLE_DECLARATION_STATEMENT("local variable declaration statement"),
+    LOCAL_VARIABLE_DECLARATION("local variable declaration"),
+    VARIABLE_DECLARATORS("variable declarators"),
+    VARIABLE_DECLARATOR("variable declarator"),
+    ARRAY_IDENTIFIER("array identifier"),
+    IDENTIFIER("identifier"),
+    VARIABLE_INITIALIZER("variable initializer"),
+    ARRAY_INITIALIZER("array initializer"),
+    EXPRESSION_STATEMENT("expression statement"),
+    STATEMENT_EXPRESSION("statement expression"),
+    EXPRESSION("expression"),
+    PARENTHESIZED_EXPRESSION("parenthesized expression"),
+    ASSIGNMENT_EXPRESSION("assignment expression"),
+    CONDITIONAL_EXPRESSION("conditional expression"),
+    UNARY_EXPRESSION("unary expression"),
+    FIELD_ACCESS("field access"),
+    ARRAY_ACCESS("array access"),
+    METHOD_INVOCATION("method invocation"),
+    METHOD_NAME("method name"),
+    ARGUMENT_LIST("argument list"),
+    POSTFIX_EXPRESSION("postfix expression"),
+    POSTFIX_EXPRESSION_OPERATOR("postfix expression operator"),
+    PREFIX_EXPRESSION("prefix expression"),
+    PREFIX_EXPRESSION_OPERATOR("prefix expression operator"),
+    ARRAY_CREATION_EXPRESSION("array creation expression"),
+    ARRAY_TYPE("array type"),
+    DIM_EXPRESSIONS("dim expressions"),
+    DIMS("dims"),
+    DIM("dim"),
+    ASSIGNMENT("assignment"),
+    SWITCH_STATEMENT("switch statement"),
+    SWITCH_BLOCK("switch block"),
+    SWITCH_BLOCK_STATEMENT_GROUPS("switch block statement groups"),
+    SWITCH_BLOCK_STATEMENT_GROUP("switch block statement group"),
+    SWITCH_LABELS("switch labels"),
+    SWITCH_LABEL("switch label"),
+    DO_STATEMENT("do statement"),
+    WHILE_STATEMENT("while statement"),
+    ELSE_IF_STATEMENT("else if statement"),
+    ELSE_STATEMENT("else statement"),
+    IF_STATEMENT("if statement"),
+    TRY_STATEMENT("try statement"),
+    CATCHES("catches"),
+    CATCH_CLAUSE("catch clause"),
+    TRY_FINALLY("try finally"),
+    FOREACH_STATEMENT("foreach statement"),
+    FOR_STATEMENT("for statement"),
+    FOR_INIT("for init"),
+    FOR_UPDATE("for update"),
+    STATEMENT_EXPRESSION_LIST("statement expression list"),
+    TYPE_DECLARATIONS("type declarations"),
+    CLASS_INSTANCE_CREATION_EXPRESSION("class instance creation expression"),
+    REFERENCE_TYPE("reference type"),
+    CLASS_DECLARATION("class declaration"),
+    MODIFIERS("modifiers"),
+    CLASS_BODY("class body"),
+    CLASS_BODY_DECLARATIONS("class body declarations"),
+    CONSTRUCTOR_DECLARATION("constructor declaration"),
+    CONSTRUCTOR_DECLARATOR("constructor declarator"),
+    FORMAL_PARAMETER_LIST("formal parameter list"),
+    CONSTRUCTOR_BODY("constructor body"),
+    EXPLICIT_CONSTRUCTOR_INVOCATION("explicit constructor invocation"),
+    FIELD_DECLARATION("field declaration"),
+    METHOD_DECLARATION("method declaration"),
+    METHOD_HEADER("method header"),
+    PRIMATIVE_TYPE("primative type"),
+    METHOD_DECLARATOR("method declarator"),
+    FORMAL_PARAMETER("formal parameter"),
+    // arrays of a type
+    REFERENCE_TYPE_ARRAY("reference type array"),
+    PRIMATIVE_TYPE_ARRAY("primative type array"),
+    // one word statements
+    BREAK_STATEMENT("break statement"),
+    CONTINUE_STATEMENT("continue statement"),
+    RETURN_STATEMENT("return statement"),
+    THROWS_STATEMENT("throws statement"),
+    // binary operators, named by Parser.binaryType
+    CONDITIONAL_OR_EXPRESSION("conditional or expression"),
+    CONDITIONAL_AND_EXPRESSION("conditional and expression"),
+    INCLUSIVE_OR_EXPRESSION("inclusive or expression"),
+    EXCLUSIVE_OR_EXPRESSION("exclusive or expression"),
+    AND_EXPRESSION("and expression"),
+    EQUALITY_EXPRESSION("equality expression"),
+    INEQUALITY_EXPRESSION("inequality expression"),
+    RELATIONAL_EXPRESSION("relational expression"),
+    SHIFT_EXPRESSION("shift expression"),
+    ADDITIVE_EXPRESSION("additive expression"),
+    MULTIPLICATIVE_EXPRESSION("multiplicative expression"),
+    // leaf holding a single token such as an operator, keyword or literal, its label is the token name
+    TOKEN(null);
+
+    private final String label;
+    private final boolean expression; // label ends with "expression"
+
+    NodeKind(String label) {
+        this.label = label;
+        this.expression = label != null && label.endsWith("expression");
+    }
+
+    // Returns the name printed for nodes of this kind, null for TOKEN whose nodes print their token name
+    String label() {
+        return label;
+    }
+
+    // Returns true for the kinds named "... expression"
+    boolean isExpression() {
+        return expression;
+    }
+}
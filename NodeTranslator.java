@@ -0,0 +1,7 @@
+// Translates one kind of node for a Translator. The translator looks up the handler registered for
+// the kind of each node it reaches, see Translator.register(). A handler writes what comes before the
+// node's children to the translator's builder right away, and schedules the children with visit()
+// and whatever goes between and after them with then(), rather than translating them itself.
+interface NodeTranslator {
+    void translate(Translator translator, SyntaxNode node);
+}
@@ -0,0 +1,205 @@
+// Single pass scanner for Java numeric literals: decimal, octal, hex and binary integers with an
+// optional L suffix, and decimal or hex floating point with fraction, exponent and f/d suffixes.
+// Underscores between digits are allowed. Reads chars directly, no regexes or parsing exceptions.
+// A literal that runs into letters or digits it can't use (ex 123abc, 0b102) is kept as one
+// invalid token, the way the lexer treats any other malformed word.
+class NumberScanner {
+    private int end; // index just past the last scanned literal
+    private int kind; // TokenCode.INTEGER_LT, TokenCode.DECIMAL_LT or TokenCode.DNE when malformed
+    private boolean valid; // no malformed parts seen so far in the current scan
+
+    // Returns index just past the last scanned literal
+    int end() {
+        return end;
+    }
+
+    // Returns token code of the last scanned literal
+    int kind() {
+        return kind;
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Scans the literal starting at off, which must be a digit, without going past limit
+    void scan(CharSequence s, int off, int limit) {
+        valid = true;
+        boolean decimal = false;
+        int radix = 10;
+        int i = off;
+        if (s.charAt(i) == '0' && i + 1 < limit) {
+            char n = s.charAt(i + 1);
+            if (n == 'x' || n == 'X') {
+                radix = 16;
+                i += 2;
+            } else if (n == 'b' || n == 'B') {
+                radix = 2;
+                i += 2;
+            }
+        }
+        int intStart = i;
+        i = digits(s, i, limit, radix);
+        int intDigits = i - intStart;
+        int fracDigits = 0;
+        if (i < limit && s.charAt(i) == '.' && radix != 2) {
+            decimal = true;
+            int fracStart = ++i;
+            i = digits(s, i, limit, radix);
+            fracDigits = i - fracStart;
+        }
+        if (intDigits + fracDigits == 0) {
+            valid = false;
+        }
+        if (radix == 10 && intDigits > 1 && !decimal && s.charAt(intStart) == '0') {
+            // octal, 8 and 9 are only allowed if this turns out to be a floating point literal
+            int octalEnd = i;
+            boolean octal = true;
+            for (int j = intStart; j < octalEnd; j++) {
+                char c = s.charAt(j);
+                if (c == '8' || c == '9') {
+                    octal = false;
+                }
+            }
+            if (!octal && !(i < limit && isExponent(s.charAt(i), radix)) && !(i < limit && isFloatSuffix(s.charAt(i)))) {
+                valid = false;
+            }
+        }
+        if (i < limit && isExponent(s.charAt(i), radix)) {
+            decimal = true;
+            i++;
+            if (i < limit && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                i++;
+            }
+            int expStart = i;
+            i = digits(s, i, limit, 10);
+            if (i == expStart) {
+                valid = false;
+            }
+        } else if (radix == 16 && decimal) {
+            valid = false; // hex floating point needs a p exponent
+        }
+        if (i < limit) {
+            char c = s.charAt(i);
+            if (c == 'L' || c == 'l') {
+                if (decimal) {
+                    valid = false;
+                }
+                i++;
+            } else if (isFloatSuffix(c) && radix != 2 && (radix == 10 || decimal)) {
+                decimal = true;
+                i++;
+            }
+        }
+        // anything word-like stuck to the literal makes the whole run one malformed token
+        while (i < limit && CharScanner.isWordChar(s.charAt(i))) {
+            valid = false;
+            i++;
+        }
+        this.end = i;
+        this.kind = !valid ? TokenCode.DNE : decimal ? TokenCode.DECIMAL_LT : TokenCode.INTEGER_LT;
+    }
+
+    // consumes a run of digits and underscores, digits outside the radix and misplaced underscores
+    // are consumed but mark the literal invalid
+    private int digits(CharSequence s, int i, int limit, int radix) {
+        int start = i;
+        while (i < limit) {
+            char c = s.charAt(i);
+            if (isDigit(c)) {
+                if (c - '0' >= radix) {
+                    valid = false;
+                }
+            } else if (radix == 16 && ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                ; // hex digit
+            } else if (c != '_') {
+                break;
+            }
+            i++;
+        }
+        if (i > start && (s.charAt(start) == '_' || s.charAt(i - 1) == '_')) {
+            valid = false;
+        }
+        return i;
+    }
+
+    static boolean isExponent(char c, int radix) {
+        if (radix == 16) {
+            return c == 'p' || c == 'P';
+        }
+        return radix == 10 && (c == 'e' || c == 'E');
+    }
+
+    static boolean isFloatSuffix(char c) {
+        return c == 'f' || c == 'F' || c == 'd' || c == 'D';
+    }
+
+    // Returns a scanned literal written the Python way in one pass over its chars: a run of underscores
+    // becomes one, the L, f and d suffixes are dropped, a whole number with f or d stays a float
+    // (3d -> 3.0), octal 017 becomes 0o17 and hex floating point float.fromhex('0x1p3')
+    static String toPython(String literal) {
+        int len = literal.length();
+        if (len == 0) {
+            return literal;
+        }
+        boolean hex = len > 1 && literal.charAt(0) == '0' && (literal.charAt(1) == 'x' || literal.charAt(1) == 'X');
+        boolean binary = len > 1 && literal.charAt(0) == '0' && (literal.charAt(1) == 'b' || literal.charAt(1) == 'B');
+        boolean hexExponent = false; // a p anywhere in a hex literal
+        boolean decimalPart = false; // a . e or E anywhere
+        StringBuilder num = new StringBuilder(len + 2);
+        for (int i = 0; i < len; i++) {
+            char c = literal.charAt(i);
+            if (c == '_' && num.length() > 0 && num.charAt(num.length() - 1) == '_') {
+                continue;
+            }
+            hexExponent |= c == 'p' || c == 'P';
+            decimalPart |= c == '.' || c == 'e' || c == 'E';
+            num.append(c);
+        }
+        char last = num.charAt(num.length() - 1);
+        if (hex && hexExponent) {
+            if (isFloatSuffix(last)) {
+                num.setLength(num.length() - 1);
+            }
+            return "float.fromhex('" + num + "')";
+        }
+        if (hex || binary) {
+            if (last == 'L' || last == 'l') {
+                num.setLength(num.length() - 1);
+            }
+            return num.toString();
+        }
+        if (isFloatSuffix(last) && !decimalPart) {
+            // 3d is a double, keep it a float in Python
+            num.setLength(num.length() - 1);
+            num.append(".0");
+        } else if (isFloatSuffix(last) || last == 'L' || last == 'l') {
+            num.setLength(num.length() - 1);
+        }
+        if (num.length() > 1 && num.charAt(0) == '0' && isOctal(num)) {
+            num.replace(0, 1, "0o");
+        }
+        return num.toString();
+    }
+
+    // true if num is only octal digits and underscores
+    private static boolean isOctal(CharSequence num) {
+        for (int i = 0; i < num.length(); i++) {
+            char c = num.charAt(i);
+            if ((c < '0' || c > '7') && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // true if text ends with an exponent letter, so a following + or - belongs to the literal
+    static boolean endsWithExponent(CharSequence text) {
+        int len = text.length();
+        if (len < 2) {
+            return false;
+        }
+        boolean hex = text.charAt(0) == '0' && (text.charAt(1) == 'x' || text.charAt(1) == 'X');
+        return isExponent(text.charAt(len - 1), hex ? 16 : 10) && (hex || isDigit(text.charAt(len - 2)) || text.charAt(len - 2) == '.');
+    }
+}
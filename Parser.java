@@ -1,15 +1,30 @@
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Parser {
 	private LexScanner lexer; // Lexical Analyzer class
-    private ArrayList<JavaToken> buffer; // buffer for tokens read from LexScanner but not consumed
+    private TokenArray tokens; // pre-tokenized source, used instead of lexer when set
+    private int tokIndex; // index in tokens of the token after curTok
+    private TokenWindow buffer; // tokens read from LexScanner but not consumed
     private JavaToken curTok; // current token
+    private int curLine; // line of current token
+    private int curPos; // position of current token
+    private boolean curReplayed; // current token was handed out before a reset()
     private JavaToken lastTok; // previous token
+    // parser state saved by mark() for reset()
+    private JavaToken markTok;
+    private JavaToken markLastTok;
+    private int markLine;
+    private int markPos;
+    private int markIndex;
     
     private boolean debug = true; // debug mode set to default
     private boolean printTree = true; // print AST after source code is recognized
@@ -17,29 +32,47 @@ public class Parser {
     
     private String errorMsg = null; // error msg if Parser encounters a syntax error
     private ArrayList<Comment> comments; // list of comments encounter in source code
-    private ArrayList<String> references; // list of classes encountered in source code or pre-defined
+    private SymbolTable symbols; // classes encountered in source code or pre-defined, with their methods and fields
     private Map<String,String[]> modifiers; // maps modifier keywords to a list of modifier types it satisfies  -> static|{"field", "class"}
     
     // recognizes classes and their methods in the source code prior to the full parse performed by the parser
     private FirstPass fp; 
+    // sees every token pulled from a streamed lexer, which can't be read twice, becomes fp at the end of the parse
+    private FirstPass collecting;
+    // set while parsing a stream with classes, whose class names are only known as they are declared
+    private boolean forwardTypesAllowed;
+    // class names used before their declaration, with the line and position of the first use
+    private LinkedHashMap<String, int[]> forwardTypes = new LinkedHashMap<String, int[]>();
     
     Parser()
     {
         //inititalize required data structures for parsing
-        this.buffer = new ArrayList<JavaToken>();
+        this.buffer = new TokenWindow(16);
         this.comments = new ArrayList<Comment>();
-        this.references = new ArrayList<String>();
-        
-        // add pre-defined classes to list of class reference names
-        String[] class_names = { "Exception", "ArithmeticException" };
-        this.references.addAll(Arrays.asList(class_names));
+        this.symbols = new SymbolTable(); // starts with the pre-defined classes
         initModifiers();
     }
     
     void setLexer(LexScanner l)
     {
         this.lexer = l;
-        
+        this.collecting = null;
+    }
+    
+    // Parses from a pre-tokenized source instead of pulling tokens from a LexScanner
+    void setTokens(TokenArray t)
+    {
+        this.tokens = t;
+        this.tokIndex = 0;
+        // comments are already separated from the tokens, so collect them all up front
+        TokenArray trivia = t.trivia();
+        for(int i = 0; i < trivia.size(); i++)
+        {
+            if(LexScanner.isComment(trivia.kind(i)))
+            {
+                comments.add(new Comment(trivia.text(i), trivia.line(i)));
+            }
+        }
     }
     
     String getErrorMsg()
@@ -56,66 +89,99 @@ public class Parser {
         Returns the nextToken from either the token buffer or the lexical analyzer. 
         Priotizes the buffer to maintain order of source code file
     */
-    String nextToken() throws IOException, Exception
+    int nextToken() throws IOException, Exception
     { 
-        if (buffer.size() > 0)
+        if (tokens != null)
+        {
+            if(this.curTok != null){
+                this.lastTok = this.curTok;
+            }
+            int i = Math.min(tokIndex, tokens.size() - 1); // stay on EOF once reached
+            this.curTok = tokens.token(i);
+            this.curLine = tokens.line(i);
+            this.curPos = tokens.col(i);
+            tokIndex = i + 1;
+        }
+        else if (buffer.size() > 0 || buffer.isMarked())
         {
+            // while marked every token goes through the buffer so reset() can replay it
+            if(buffer.size() == 0){
+                nextPeekToken();
+            }
             if(this.curTok != null){
                 this.lastTok = this.curTok;
             }
-            this.curTok = buffer.remove(0);
+            this.curTok = buffer.peek(0);
+            this.curLine = buffer.line(0);
+            this.curPos = buffer.pos(0);
+            this.curReplayed = buffer.consume();
         }
         else
         {
-            lexer.nextToken();
+            JavaToken next = lexToken();
+            buffer.pass(next);
             // if not a space or comment token store current token as last token before updating
-            if(this.curTok != null && curTok.tokenCode() != 3009 && curTok.tokenCode() != 3014)
+            if(this.curTok != null && curTok.tokenCode() != TokenCode.SPACE_LT && !LexScanner.isComment(curTok.tokenCode()))
             {
                 this.lastTok = this.curTok;
             }
-            this.curTok = lexer.getJavaToken();
+            this.curTok = next;
+            this.curLine = lexer.getLine();
+            this.curPos = lexer.getPosition();
+            this.curReplayed = false;
         }
-        return this.curTok.tokenName();
+        return this.curTok.tokenCode();
     }
     
     /*
         Returns the next non space or comment token
     */
-    String nextNonSpace() throws Exception
+    int nextNonSpace() throws Exception
     {
         nextToken();
-        while (curTok.tokenCode() == 3009 || curTok.tokenCode() == 3014)
+        while (curTok.tokenCode() == TokenCode.SPACE_LT || LexScanner.isComment(curTok.tokenCode()))
         {
-            // add comment tokens to the comment list
-            if(curTok.tokenCode() == 3014)
+            // add comment tokens to the comment list, unless already added before a reset()
+            if(LexScanner.isComment(curTok.tokenCode()) && !curReplayed)
             {
-                comments.add(new Comment(curTok.getLiteral(), curTok.getLine()));
+                comments.add(new Comment(curTok.getLiteral(), curLine));
             }
             nextToken();
         }
-        if (debug) System.out.println("Current token " + curTok.tokenName() + " Literal " + curTok.getLiteral() + " token line " + curTok.getLine());
-        return curTok.tokenName();
+        if (debug) System.out.println("Current token " + curTok.tokenName() + " Literal " + curTok.getLiteral() + " token line " + curLine);
+        return curTok.tokenCode();
     }
     
     /*
-        Used exclusively by the lookahead function to avoid using the buffer in nextToken
+        Used exclusively by the lookahead function to avoid using the buffer in nextToken.
+        Adds the next token to the end of the buffer
     */
-    JavaToken nextPeekToken() throws IOException, Exception
+    void nextPeekToken() throws IOException, Exception
     {
-        lexer.nextToken();
-        JavaToken retVal = lexer.getJavaToken();
-        while(retVal.tokenCode() == 3009 || curTok.tokenCode() == 3014)
+        JavaToken retVal = lexToken();
+        while(retVal.tokenCode() == TokenCode.SPACE_LT || LexScanner.isComment(retVal.tokenCode()))
         {
-            if(retVal.tokenCode() == 3014)
+            if(LexScanner.isComment(retVal.tokenCode()))
             {
-                comments.add(new Comment(retVal.getLiteral(), retVal.getLine()));
-                lexer.nextToken();
-                retVal = lexer.getJavaToken();
+                comments.add(new Comment(retVal.getLiteral(), lexer.getLine()));
             }
-            lexer.nextToken();
-            retVal = lexer.getJavaToken();
+            retVal = lexToken();
         }
-        return retVal;
+        buffer.add(retVal, lexer.getLine(), lexer.getPosition());
+    }
+    /*
+        Reads the next token from the lexer. When collecting, every token goes by FirstPass here, once,
+        so the classes and methods of a stream are collected while it is parsed
+    */
+    JavaToken lexToken() throws Exception
+    {
+        lexer.nextToken();
+        JavaToken tok = lexer.getJavaToken();
+        if(collecting != null)
+        {
+            collecting.next(tok.tokenCode(), tok.getLiteral());
+        }
+        return tok;
     }
     /*
         Looks n JavaToken spots ahead of the current token.
@@ -123,34 +189,92 @@ public class Parser {
     */
     JavaToken lookAhead(int n) throws Exception
     {
-        JavaToken tok;
+        if(tokens != null){
+            return tokens.token(lookAheadIndex(n));
+        }
         while(n > buffer.size()){
-            // copy by value to avoid reusing same JavaToken
-            tok = nextPeekToken().getCopy();
-            buffer.add(tok);
+            nextPeekToken();
         }
         //printBuffer();
-        return buffer.get(n - 1);
+        return buffer.peek(n - 1);
+    }
+    // token code n spots ahead of the current token
+    int lookAheadCode(int n) throws Exception
+    {
+        if(tokens != null){
+            return tokens.kind(lookAheadIndex(n));
+        }
+        return lookAhead(n).tokenCode();
+    }
+    // index in tokens n spots ahead of the current token, EOF if past the end
+    int lookAheadIndex(int n)
+    {
+        return Math.min(tokIndex + n - 1, tokens.size() - 1);
+    }
+    /*
+        Marks the current position so tokens consumed from here can be read again after reset().
+        Used for speculative parsing. A new mark replaces the old one
+    */
+    void mark()
+    {
+        this.markTok = curTok;
+        this.markLastTok = lastTok;
+        this.markLine = curLine;
+        this.markPos = curPos;
+        if(tokens != null){
+            this.markIndex = tokIndex;
+        }else{
+            buffer.mark();
+        }
+    }
+    // returns the parser to the position saved by mark()
+    void reset()
+    {
+        this.curTok = markTok;
+        this.lastTok = markLastTok;
+        this.curLine = markLine;
+        this.curPos = markPos;
+        if(tokens != null){
+            this.tokIndex = markIndex;
+        }else{
+            buffer.reset();
+        }
+    }
+    /*
+        Runs FirstPass before the full parse, so class names are known before the statements that use them.
+        Walks the TokenArray when there is one, else scans the source again from the start with the same
+        lexeme engine. Returns null for a stream, which can't be read twice
+    */
+    FirstPass firstPass() throws Exception
+    {
+        if(tokens != null)
+        {
+            return new FirstPass(tokens);
+        }
+        LexScanner again = lexer.rescan();
+        return again != null ? new FirstPass(again) : null;
     }
     //print current buffer contents
     void printBuffer(){
         if (debug) {
-            JavaToken print;
-            for(int i = 0; i < buffer.size(); i++){
-                print = buffer.get(i);
-                System.out.print("Index: " + i + " Literal: " + print.getLiteral() + " Line: " + print.getLine());
-            }
-            System.out.println("");
+            buffer.print();
         }
     }
     /*
-    Loads class reference data from FirstPass class which collects method and class info before the full parse.
-    Loading references allows the parser to recognize classes before they have been declared in the file
+    Loads class reference data from FirstPass class which collects method and class info.
+    Loaded before the full parse it lets the parser recognize classes before they have been declared in the
+    file. For a stream it is loaded after the parse, for the translator
     */
     void loadReferences(){
-        for(String key: this.fp.getClassMethods().keySet()){
-            this.references.add(key);
-        }
+        this.symbols.load(this.fp);
+    }
+    // returns the symbol table, shared with the Translator
+    SymbolTable getSymbols(){
+        return this.symbols;
+    }
+    // returns what FirstPass found, null if the source had no class
+    FirstPass getFirstPass(){
+        return this.fp;
     }
     // returns a map of classes and their respective methods
     HashMap<String, String[]> getClassMethods(){
@@ -158,26 +282,11 @@ public class Parser {
     }
     // method for determining if a className has a methodName
     boolean classHasMethod(String className, String methodName){
-        if(this.fp.getClassMethods().containsKey(className)){
-            String[] methods = this.fp.getClassMethods().get(className);
-            for(String method: methods){
-                if(method.equals(methodName)){
-                    return true;
-                }
-            }
-            return false;
-        }else{
-            return false;
-        }
-        
+        return this.symbols.hasMethod(className, methodName);
     }
     
     int classMethodCount(String className){
-        if(this.fp.getClassMethods().containsKey(className)){
-            return this.fp.getClassMethods().get(className).length;
-        }else{
-            return 0;
-        }
+        return this.symbols.methodCount(className);
     }
     /*
     Identifies when a non-implemented function would be called during parse and exit
@@ -186,101 +295,95 @@ public class Parser {
     */
     void notImplemented(String funcName) throws Exception
     {
-        customErrorMsg("This is a " + funcName + ". Not implemented yet.", curTok.getLine(), curTok.getPos());
+        customErrorMsg("This is a " + funcName + ". Not implemented yet.", curLine, curPos);
     }
     
-    // optionally gets nextToken and checks to see if it matches expecting token, throws error otherwise
-    void expect(String expToken, boolean next) throws Exception
+    // optionally gets nextToken and checks to see if it matches expecting token code, throws error otherwise
+    void expect(int expToken, boolean next) throws Exception
     {
         if(next)
         {
             nextNonSpace();
         }
-        if(curTok.tokenName() != expToken)
+        if(curTok.tokenCode() != expToken)
         {
-            errorMsg(expToken, curTok.getLine(), curTok.getPos());
+            errorMsg(LexScanner.tokenName(expToken), curLine, curPos);
         }
     }
+    
+    // returns true if token code is one of the codes in tokens
+    static boolean isOneOf(int code, int[] tokens)
+    {
+        for(int tok : tokens)
+        {
+            if(tok == code)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
     /*
     Function for looking ahead in the JavaToken buffer until it finds one of the specified token types 
     param:find
     Note: Keeps track of ( and [ to ignore tokens in sub expressions
     */
-    String lookAheadToFind(ArrayList<String> find) throws Exception
+    int lookAheadToFind(int ... find) throws Exception
     {
         enterNT("lookAheadToFind");
-        int open_par = 0; // open parenthesis encountered without matching close
-        int open_bra = 0; // open brackets encountered without matching close
-        boolean cont = true;
         int n = 0; //lookahead value
         // if parse just started need to initialize curTok
         if(this.curTok == null){
             nextNonSpace();
         }
-        JavaToken tok = curTok;
-        String fToken = "";
-        while(cont)
+        if(tokens != null){
+            // indexed search skips nested ( ) and [ ] groups
+            exitNT("lookAheadToFind");
+            return tokens.kind(tokens.findAtLevel(tokIndex - 1, find));
+        }
+        // a match has as many ( and [ open before it as the current token. The window knows where each
+        // ( ) and [ ] group it has read ends, nothing inside one is at that level, so it is skipped whole
+        int level_par = buffer.curPar();
+        int level_bra = buffer.curBra();
+        int tok = curTok.tokenCode();
+        int par = level_par;
+        int bra = level_bra;
+        int seq = buffer.curSeq();
+        int partner = buffer.curPartner();
+        while(tok != TokenCode.EOF && !(par == level_par && bra == level_bra && isOneOf(tok, find)))
         {
-            if(find.contains(tok.tokenName()))
-            {
-                if(open_par == 0 && open_bra == 0)
-                {
-                    fToken = tok.tokenName();
-                    cont = false;
-                }
-            }
-            if(tok.tokenName() == "EOF")
-            {
-                fToken = tok.tokenName();
-                cont = false;
-            }
-            switch(tok.tokenName())
-            {
-                case "(_op":
-                    open_par++;
-                    break;
-                case "[":
-                    open_bra++;
-                    break;
-                case ")_op":
-                    open_par--;
-                    break;
-                case "]":
-                    open_bra--;
-                    break;
-                case "EOF":
-                    fToken = tok.tokenName();
-                    cont = false;
-                    break;
-            }
-            n++; //advance lookahead index
-            tok = lookAhead(n);
+            n += (partner >= 0) ? partner - seq + 1 : 1; // past the closing token, or to the next one
+            tok = lookAheadCode(n);
+            par = buffer.par(n - 1);
+            bra = buffer.bra(n - 1);
+            seq = buffer.seq(n - 1);
+            partner = buffer.partner(n - 1);
         }
         exitNT("lookAheadToFind");
-        return fToken;
+        return tok;
     }
     
     /*
     Gives multiple options for expected token
-    returns tokenName if one is found else returns "" 
+    returns token code if one is found else returns 0
     params: next -> determines if the next Token should be called before checking the current token
             raiseError -> determines whether an error is raised if no matches are made
     */
-    String expectOr(boolean next, boolean raiseError, String ... expTokens) throws Exception
+    int expectOr(boolean next, boolean raiseError, int ... expTokens) throws Exception
     {
-        String foundTok = "";
+        int foundTok = 0;
         if(next){
             nextNonSpace();
         }
-        for(String tok : expTokens){
-            if(curTok.tokenName() == tok){
-                foundTok = tok;
-                break;
-            }
+        if(isOneOf(curTok.tokenCode(), expTokens)){
+            foundTok = curTok.tokenCode();
         }
-        if (foundTok.length() < 1 && raiseError){
-            List<String> exp = Arrays.asList(expTokens);
-            customErrorMsg("Token "+ curTok.tokenName() + " does not match any expected tokens " + exp.toString(), curTok.getLine(), curTok.getPos());
+        if (foundTok == 0 && raiseError){
+            List<String> exp = new ArrayList<String>();
+            for(int tok : expTokens){
+                exp.add(LexScanner.tokenName(tok));
+            }
+            customErrorMsg("Token "+ curTok.tokenName() + " does not match any expected tokens " + exp.toString(), curLine, curPos);
         }
         return foundTok;
     }
@@ -297,11 +400,20 @@ public class Parser {
         throw new Exception("Syntax error");
     }
 
-    boolean isLiteral(String token)
+    boolean isLiteral(int token)
     {
-        ArrayList<String> lits = new ArrayList<String>(Arrays.asList("string_lt", "integer_lt","decimal_lt", "null_lt"));
-        return lits.contains(token);
+        switch(token)
+        {
+            case TokenCode.STRING_LT:
+            case TokenCode.INTEGER_LT:
+            case TokenCode.DECIMAL_LT:
+            case TokenCode.NULL_LT:
+                return true;
+            default:
+                return false;
+        }
     }
+
     
     /* Handles both a full java program and as well as a code block without class
      * Goes to typeDeclarations() when class_kw is found before ; else uses <block>
@@ -310,24 +422,41 @@ public class Parser {
 	ASTNode parse() throws Exception
 	{
 		if (debug) System.out.println("**BEGIN PARSE**");
-        ASTNode program = new ASTNode("program",null, 1);
+        ASTNode program = new ASTNode(NodeKind.PROGRAM,null, 1);
         try{
-            ArrayList<String> find = new ArrayList<String>();
-            find.add("EOF");
-            find.add("semi_colon_lt");
-            find.add("class_kw");
-            String fToken = lookAheadToFind(find);
-            if(fToken == "class_kw")
+            int fToken = lookAheadToFind(TokenCode.EOF, TokenCode.SEMI_COLON_LT, TokenCode.CLASS_KW);
+            if(fToken == TokenCode.CLASS_KW)
             {
-                this.fp = new FirstPass(lexer.getSource());
-                loadReferences(); // load class names from firstPass
+                this.fp = firstPass();
+                if(this.fp == null)
+                {
+                    // a stream: collect while parsing, taking names that can only be types as classes to come
+                    this.collecting = new FirstPass();
+                    this.collecting.next(curTok.tokenCode(), curTok.getLiteral());
+                    for(int i = 0; i < buffer.size(); i++)
+                    {
+                        this.collecting.next(buffer.peek(i).tokenCode(), buffer.peek(i).getLiteral());
+                    }
+                    this.forwardTypesAllowed = true;
+                }else{
+                    if (debug) fp.printClassMethods();
+                    loadReferences(); // load class names from firstPass
+                }
                 program.addChild(typeDeclarations());
+                if(this.collecting != null)
+                {
+                    collecting.finish();
+                    this.fp = collecting;
+                    if (debug) fp.printClassMethods();
+                    loadReferences(); // load methods and fields for the translator
+                }
             }else{
                 program.addChild(blockStatements());
             }
+            checkForwardTypes();
             if (debug) {
                 System.out.println("**FINISHED PARSE**");
-                System.out.println("Current token: " + curTok.tokenName() + "Current line" + curTok.getLine());
+                System.out.println("Current token: " + curTok.tokenName() + "Current line" + curLine);
             }
             if (printTree) printTree(program);
         }catch(Exception e)
@@ -336,24 +465,50 @@ public class Parser {
                 errorMsg = "A system error has occured";
                 if(debug) e.printStackTrace();
             }
+            if(forwardTypesAllowed)
+            {
+                undeclaredForwardType();
+            }
         }
         return program;
 	}
 	
+    /*
+        After an error in a stream, reads the rest of it for the classes it declares. A class name taken by
+        forwardType() before the error that is never declared is the earlier error, reported instead
+    */
+    void undeclaredForwardType()
+    {
+        try{
+            while(lexToken().tokenCode() != TokenCode.EOF);
+            collecting.finish();
+            for(Map.Entry<String, int[]> use : forwardTypes.entrySet())
+            {
+                if(!collecting.getClassMethods().containsKey(use.getKey()))
+                {
+                    customErrorMsg(" Unknown type " + use.getKey(), use.getValue()[0], use.getValue()[1]);
+                }
+            }
+        }catch(Exception e)
+        {
+            // the error found first stands
+        }
+    }
+	
 	/*
 	 * <block> ::= { <block statements>? }
 	 */
 	ASTNode block() throws Exception
 	{
 		enterNT("block");
-        ASTNode block = new ASTNode("block",null, curTok.getLine());
-        String s = nextNonSpace();
+        ASTNode block = new ASTNode(NodeKind.BLOCK,null, curLine);
+        int s = nextNonSpace();
         // if not } then contains block statements
-        if(s != "close_bracket_lt"){
+        if(s != TokenCode.CLOSE_BRACKET_LT){
             block.addChild(blockStatements());
         } 
         // checks that current token is a }
-        expect("close_bracket_lt", false);
+        expect(TokenCode.CLOSE_BRACKET_LT, false);
         nextNonSpace(); //advance past the close bracket
 		exitNT("block");
         return block;
@@ -365,13 +520,13 @@ public class Parser {
 	ASTNode blockStatements() throws Exception
 	{
 		enterNT("blockStatements");
-        ASTNode blockStmnts = new ASTNode("block statements",null, curTok.getLine());
+        ASTNode blockStmnts = new ASTNode(NodeKind.BLOCK_STATEMENTS,null, curLine);
         while(curTok.tokenCode() != 3004 && curTok.tokenCode() != 4001 && curTok.tokenCode != 1026 && curTok.tokenCode != 1007) // close_bracket_lt, 4001 = EOF 1026 = case_kw, 1007 = default_kw
         {
             // error msg if reach EOF while parsing
             if(curTok.tokenCode() == 4001) // EOF
             {
-                errorMsg("}",curTok.getLine(), curTok.getPos());    
+                errorMsg("}",curLine, curPos);    
             }
             blockStmnts.addChild(blockStatement());
         }
@@ -386,7 +541,7 @@ public class Parser {
 	ASTNode blockStatement() throws Exception
 	{
 		enterNT("blockStatement");
-        ASTNode blockStmnt = new ASTNode("block statement",null, curTok.getLine());
+        ASTNode blockStmnt = new ASTNode(NodeKind.BLOCK_STATEMENT,null, curLine);
         //check if local variable declaration by checking if current token is a type else it's a statement
         if(isType())
         {
@@ -403,33 +558,33 @@ public class Parser {
 	// for handling misc one word exp statements like break, continue, return, throw
     ASTNode miscStatements() throws Exception
     {
-        String nodeName = "";
+        NodeKind nodeName = null;
         boolean needExp = false; // throws expression needs an expression the others do not
-        switch(curTok.tokenName()){
-            case "break_kw":
-                nodeName = "break statement";
+        switch(curTok.tokenCode()){
+            case TokenCode.BREAK_KW:
+                nodeName = NodeKind.BREAK_STATEMENT;
                 break;
-            case "continue_kw":
-                nodeName = "continue statement";
+            case TokenCode.CONTINUE_KW:
+                nodeName = NodeKind.CONTINUE_STATEMENT;
                 break;
-            case "return_kw":
-                nodeName = "return statement";
+            case TokenCode.RETURN_KW:
+                nodeName = NodeKind.RETURN_STATEMENT;
                 break;
-            case "throw_kw":
-                nodeName = "throws statement";
+            case TokenCode.THROW_KW:
+                nodeName = NodeKind.THROWS_STATEMENT;
                 needExp = true;
                 break;
         }
-        ASTNode miscStmnt = new ASTNode(nodeName,curTok.getLiteral(), curTok.getLine());
+        ASTNode miscStmnt = new ASTNode(nodeName,curTok.getLiteral(), curLine);
         nextNonSpace(); // move past kw
-        if(curTok.tokenName() != "semi_colon_lt"){
+        if(curTok.tokenCode() != TokenCode.SEMI_COLON_LT){
             miscStmnt.addChild(expression());
         }else{
             if(needExp){
-                expect("expression", false);
+                errorMsg("expression", curLine, curPos);
             }
         }
-        expect("semi_colon_lt",false);
+        expect(TokenCode.SEMI_COLON_LT, false);
         nextNonSpace(); // move past ;
         return miscStmnt;
     }
@@ -443,48 +598,48 @@ public class Parser {
     ASTNode statement() throws Exception
     {
         enterNT("statement");
-        ASTNode stmnt = new ASTNode("statement",null, curTok.getLine());
-        switch(curTok.tokenName())
+        ASTNode stmnt = new ASTNode(NodeKind.STATEMENT,null, curLine);
+        switch(curTok.tokenCode())
         {
-            case "open_bracket_lt": // {
+            case TokenCode.OPEN_BRACKET_LT: // {
                 stmnt.addChild(block());
                 break;
-            case "semi_colon_lt": // ;
-                stmnt.addChild(new ASTNode("empty statement",null, curTok.getLine()));
+            case TokenCode.SEMI_COLON_LT: // ;
+                stmnt.addChild(new ASTNode(NodeKind.EMPTY_STATEMENT,null, curLine));
                 nextNonSpace();
                 break;
-            case "if_kw":
+            case TokenCode.IF_KW:
                 stmnt.addChild(ifStatement());
                 break;
-            case "for_kw":
+            case TokenCode.FOR_KW:
                 stmnt.addChild(forStatement());
                 break;
-            case "switch_kw":
+            case TokenCode.SWITCH_KW:
             	stmnt.addChild(switchStatement());
                 break;
-            case "do_kw":
+            case TokenCode.DO_KW:
                 stmnt.addChild(doStatement());
                 break;
-            case "while_kw":
+            case TokenCode.WHILE_KW:
                 stmnt.addChild(whileStatement());
                 break;
-            case "break_kw":
+            case TokenCode.BREAK_KW:
                 stmnt.addChild(miscStatements());
                 break;
-            case "continue_kw":
+            case TokenCode.CONTINUE_KW:
                 stmnt.addChild(miscStatements());
                 break;
-            case "return_kw":
+            case TokenCode.RETURN_KW:
                 stmnt.addChild(miscStatements());
                 break;
-            case "throw_kw":
+            case TokenCode.THROW_KW:
                 stmnt.addChild(miscStatements());
                 break;
-            case "synchronized_kw":
+            case TokenCode.SYNCHRONIZED_KW:
                 // TODO: Check if this has a python analogue
                 notImplemented("synchronized statement");
                 break;
-            case "try_kw":
+            case TokenCode.TRY_KW:
             	stmnt.addChild(tryStatement());
                 break;
             default:
@@ -499,9 +654,9 @@ public class Parser {
 	ASTNode localVariableDeclarationStatement() throws Exception
 	{
 		enterNT("localVariableDeclarationStatement");
-		ASTNode localVarDecStmnt = new ASTNode("local variable declaration statement",null, curTok.getLine()); 
+		ASTNode localVarDecStmnt = new ASTNode(NodeKind.LOCAL_VARIABLE_DECLARATION_STATEMENT,null, curLine); 
         localVarDecStmnt.addChild(localVariableDeclaration());
-        expect("semi_colon_lt", false);
+        expect(TokenCode.SEMI_COLON_LT, false);
         nextNonSpace(); //advance past ';'
 		exitNT("localVariableDeclarationStatement");
         return localVarDecStmnt;
@@ -511,11 +666,11 @@ public class Parser {
 	ASTNode localVariableDeclaration() throws Exception
 	{
 		enterNT("localVariableDeclaration");
-		ASTNode localVarDec = new ASTNode("local variable declaration",null, curTok.getLine());
+		ASTNode localVarDec = new ASTNode(NodeKind.LOCAL_VARIABLE_DECLARATION,null, curLine);
         // check first element is type then add
 		if(!isType()) 
 		{
-			errorMsg("type", curTok.getLine(), curTok.getPos());
+			errorMsg("type", curLine, curPos);
         }
         localVarDec.addChild(type());
         localVarDec.addChild(variableDeclarators());
@@ -528,8 +683,13 @@ public class Parser {
     */
 	boolean isType() throws Exception
 	{
-        if(references.contains(curTok.getLiteral())){
-            return true;
+        if(symbols.isType(curTok.getLiteral())){
+            // a class name followed by . starts a field access or method invocation, ex Helper.show(x)
+            return curTok.tokenCode() != TokenCode.IDENTIFIER || lookAheadCode(1) != TokenCode.PERIOD_LT;
+        }else if(forwardTypesAllowed && curTok.tokenCode() == TokenCode.IDENTIFIER && (lookAheadCode(1) == TokenCode.IDENTIFIER
+            || (lookAheadCode(1) == TokenCode.OPEN_SQUARE && lookAheadCode(2) == TokenCode.CLOSE_SQUARE))){
+            // a name followed by a name or [] can only be a type, ex a class declared further down
+            return forwardType();
         }else{
             switch (curTok.tokenCode())
             {
@@ -547,38 +707,76 @@ public class Parser {
             }
         }
 	}
-    // stores list of valid assignment Operators
-    static String[] getAssignmentOps()
+    // valid assignment operators
+    static final int[] ASSIGNMENT_OPS = {TokenCode.EQUALS_OP, TokenCode.TIMES_EQUALS_OP, TokenCode.DIVIDE_EQUALS_OP,
+        TokenCode.MOD_EQUALS_OP, TokenCode.PLUS_EQUALS_OP, TokenCode.MINUS_EQUALS_OP};
+    // tokens that tell an assignment, postfix expression or method invocation apart in a statement expression
+    static final int[] STATEMENT_EXP_FIND = concat(ASSIGNMENT_OPS, TokenCode.DECREMENT_OP, TokenCode.INCREMENT_OP,
+        TokenCode.EOF, TokenCode.SEMI_COLON_LT);
+    // assignment operators indicate an assignment, the rest a conditional expression
+    static final int[] ASSIGNMENT_EXP_FIND = concat(ASSIGNMENT_OPS, TokenCode.PLUS_OP, TokenCode.MINUS_OP, TokenCode.TILDE_OP,
+        TokenCode.NOT_OP, TokenCode.OR_OR_OP, TokenCode.AND_AND_OP, TokenCode.CARET_OP, TokenCode.AND_OP, TokenCode.EQUAL_EQUAL_OP,
+        TokenCode.LESS_OP, TokenCode.GREATER_OP, TokenCode.GREATER_EQUAL_OP, TokenCode.LESS_EQUAL_OP, TokenCode.INSTANCEOF_KW,
+        TokenCode.SHIFT_LEFT_OP, TokenCode.SHIFT_RIGHT_OP, TokenCode.TIMES_OP, TokenCode.DIVIDE_OP, TokenCode.MOD_OP,
+        TokenCode.INCREMENT_OP, TokenCode.DECREMENT_OP, TokenCode.EOF, TokenCode.COLON_LT, TokenCode.SEMI_COLON_LT,
+        TokenCode.CLOSE_PAREN_OP, TokenCode.OPEN_BRACKET_LT, TokenCode.CLOSE_BRACKET_LT, TokenCode.COMMA_LT);
+
+    static int[] concat(int[] first, int ... rest)
     {
-        String[] assOps = {"equals_op", "*=_op", "/=_op", "%=_op", "+=_op", "-=_op", "<<=_op", ">>=_op"};
-        return assOps;
+        int[] all = Arrays.copyOf(first, first.length + rest.length);
+        System.arraycopy(rest, 0, all, first.length, rest.length);
+        return all;
     }
     
+    /*
+        Takes the current identifier as the name of a class that has not been declared yet, when parsing a
+        stream. checkForwardTypes() reports it after the parse if it never is
+    */
+    boolean forwardType()
+    {
+        if(!forwardTypesAllowed || curTok.tokenCode() != TokenCode.IDENTIFIER){
+            return false;
+        }
+        String name = curTok.getLiteral();
+        if(!symbols.isType(name)){
+            symbols.addType(name);
+            forwardTypes.put(name, new int[]{curLine, curPos});
+        }
+        return true;
+    }
+    // raises an error at the first use of a class name taken by forwardType() that was never declared
+    void checkForwardTypes() throws Exception
+    {
+        for(Map.Entry<String, int[]> use : forwardTypes.entrySet())
+        {
+            if(!symbols.isClass(use.getKey()))
+            {
+                customErrorMsg(" Unknown type " + use.getKey(), use.getValue()[0], use.getValue()[1]);
+            }
+        }
+    }
+
 	// returns a node of <primitive type> or <reference type> or <primative type array><reference type array>
     ASTNode type() throws Exception
     {
         enterNT("type");
-        if(!isType() && !references.contains(curTok.getLiteral())) 
+        if(!isType() && !symbols.isType(curTok.getLiteral())) 
 		{
-			errorMsg("type", curTok.getLine(), curTok.getPos());
+			errorMsg("type", curLine, curPos);
         }
         ASTNode varType = null;
         String typeLit = curTok.getLiteral(); // saves type info
-        String ASTName = ""; // to save name of the node
-        if(references.contains(typeLit)){
-            ASTName = "reference type";
-        }else{
-            ASTName = "primative type";
-        }
+        boolean reference = symbols.isType(typeLit);
+        NodeKind ASTName = reference ? NodeKind.REFERENCE_TYPE : NodeKind.PRIMATIVE_TYPE; // to save kind of the node
         nextNonSpace(); //advance past type
         if(curTok.tokenCode() == 2003) // open [
         {
-            ASTName = ASTName + " array";
-            varType = new ASTNode(ASTName,typeLit, curTok.getLine());
+            ASTName = reference ? NodeKind.REFERENCE_TYPE_ARRAY : NodeKind.PRIMATIVE_TYPE_ARRAY;
+            varType = new ASTNode(ASTName,typeLit, curLine);
             varType.addChild(dims());
         }
         else{
-            varType = new ASTNode(ASTName,typeLit, curTok.getLine());
+            varType = new ASTNode(ASTName,typeLit, curLine);
         }
         exitNT("type");
         return varType;
@@ -591,7 +789,7 @@ public class Parser {
 	ASTNode variableDeclarators() throws Exception
 	{
 		enterNT("variableDeclarators");
-        ASTNode varDecs = new ASTNode("variable declarators",null, curTok.getLine());
+        ASTNode varDecs = new ASTNode(NodeKind.VARIABLE_DECLARATORS,null, curLine);
         boolean moreDecs = true;
         while(moreDecs)
         {
@@ -616,14 +814,14 @@ public class Parser {
 	ASTNode variableDeclarator() throws Exception
 	{
 		enterNT("variableDeclarator");
-		ASTNode varDec = new ASTNode("variable declarator",null, curTok.getLine());
+		ASTNode varDec = new ASTNode(NodeKind.VARIABLE_DECLARATOR,null, curLine);
         // check if identifier else throw error
-        expect("identifier", false);
+        expect(TokenCode.IDENTIFIER, false);
         varDec.addChild(variableDeclaratorID());
         // check if variable initialization <followed by equal_op ('=')>
         if (curTok.tokenCode() == 2032) // = 
         {
-            varDec.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine()));
+            varDec.addChild(new ASTNode(curTok, curLine));
             nextNonSpace(); // advance to next token
             varDec.addChild(variableInitializer());
         }
@@ -639,18 +837,18 @@ public class Parser {
 		enterNT("variableDeclaratorID");
 		ASTNode varDecID;
         // check if identifier else throw error
-        expect("identifier", false);
+        expect(TokenCode.IDENTIFIER, false);
         String id = curTok.getLiteral();
         nextNonSpace(); // advance past id
         // check if array identifier looking for '['
 		if(curTok.tokenCode() == 2003 ) // [
         {
-            varDecID = new ASTNode("array identifier",id, curTok.getLine());
+            varDecID = new ASTNode(NodeKind.ARRAY_IDENTIFIER,id, curLine);
             varDecID.addChild(dims());
         }
         else
         {
-            varDecID = new ASTNode("identifier",id, curTok.getLine());
+            varDecID = new ASTNode(NodeKind.IDENTIFIER,id, curLine);
         }
 		exitNT("variableDeclaratorID");
 		return varDecID;
@@ -662,12 +860,11 @@ public class Parser {
 	ASTNode variableInitializer() throws Exception
 	{
         enterNT("variableInitializer");
-        ASTNode varInit = new ASTNode("variable initializer",null, curTok.getLine());
+        ASTNode varInit = new ASTNode(NodeKind.VARIABLE_INITIALIZER,null, curLine);
         //check for array initializer start symbol '{'
         if(curTok.tokenCode() == 3003)
         {
-            System.out.println(curTok.getLiteral());
-            System.out.println(curTok.tokenCode());
+            if (debug) System.out.println(curTok.getLiteral() + " " + curTok.tokenCode());
             varInit.addChild(arrayInitializer());
         }
         else
@@ -683,8 +880,8 @@ public class Parser {
     ASTNode arrayInitializer() throws Exception
     {
         enterNT("arrayInitializer");
-        ASTNode arrInit = new ASTNode("array initializer",null, curTok.getLine());
-        expect("open_bracket_lt", false);
+        ASTNode arrInit = new ASTNode(NodeKind.ARRAY_INITIALIZER,null, curLine);
+        expect(TokenCode.OPEN_BRACKET_LT, false);
         nextNonSpace(); //advance past {
         boolean moreElems = true;
         if(curTok.tokenCode() == 3004)
@@ -693,7 +890,7 @@ public class Parser {
         }
         while(moreElems)
         {
-            arrInit.addChild(conditionalExpression("close_bracket_lt"));
+            arrInit.addChild(conditionalExpression(TokenCode.CLOSE_BRACKET_LT));
             if(curTok.tokenCode() == 3007) // comma_lt
             {
                 nextNonSpace(); // increment ahead of ,
@@ -703,7 +900,7 @@ public class Parser {
                 moreElems = false;
             }
         }
-        expect("close_bracket_lt", false);
+        expect(TokenCode.CLOSE_BRACKET_LT, false);
         nextNonSpace(); // advance past }
         exitNT("arrayInitializer");
         return arrInit;
@@ -715,9 +912,9 @@ public class Parser {
     ASTNode expressionStatement() throws Exception
     {
         enterNT("expressionStatement");
-        ASTNode expStmnt = new ASTNode("expression statement",null, curTok.getLine());
+        ASTNode expStmnt = new ASTNode(NodeKind.EXPRESSION_STATEMENT,null, curLine);
         expStmnt.addChild(statementExpression());
-        expect("semi_colon_lt", false);
+        expect(TokenCode.SEMI_COLON_LT, false);
         nextNonSpace(); //advance past ';'
         exitNT("expressionStatement");
         return expStmnt;
@@ -730,37 +927,31 @@ public class Parser {
     ASTNode statementExpression() throws Exception
     {
         enterNT("statementExpression");
-        ASTNode stmntExp = new ASTNode("statement expression",null, curTok.getLine());
+        ASTNode stmntExp = new ASTNode(NodeKind.STATEMENT_EXPRESSION,null, curLine);
         
-        switch(curTok.tokenName())
+        switch(curTok.tokenCode())
         {
-            case "--_op":
-                stmntExp.addChild(prefixExpression("--_op"));
+            case TokenCode.DECREMENT_OP:
+                stmntExp.addChild(prefixExpression(TokenCode.DECREMENT_OP));
                 break;
-            case "++_op":
-                stmntExp.addChild(prefixExpression("++_op"));
+            case TokenCode.INCREMENT_OP:
+                stmntExp.addChild(prefixExpression(TokenCode.INCREMENT_OP));
                 break;
-            case "new_kw":
+            case TokenCode.NEW_KW:
                 stmntExp.addChild(classInstanceCreationExpression());
                 break;
             default:
                 //either assignment, post(increment|decrement), or method invocation
                 //use lookahead to find assignment or -- ++ else it's a method invocation
-                String[]assOps = getAssignmentOps();
-                ArrayList<String> find = new ArrayList<String>(Arrays.asList(assOps));
-                find.add("--_op");
-                find.add("++_op");
-                find.add("EOF");
-                find.add("semi_colon_lt");
-                String fToken = lookAheadToFind(find);
-                if(Arrays.asList(assOps).contains(fToken))
+                int fToken = lookAheadToFind(STATEMENT_EXP_FIND);
+                if(isOneOf(fToken, ASSIGNMENT_OPS))
                 {
                     stmntExp.addChild(assignment());
-                }else if(fToken == "--_op"){
-                    stmntExp.addChild(postfixExpression("--_op"));
-                }else if(fToken == "++_op"){
-                    stmntExp.addChild(postfixExpression("++_op"));
-                }else if(fToken == "semi_colon_lt" || fToken == "EOF")
+                }else if(fToken == TokenCode.DECREMENT_OP){
+                    stmntExp.addChild(postfixExpression(TokenCode.DECREMENT_OP));
+                }else if(fToken == TokenCode.INCREMENT_OP){
+                    stmntExp.addChild(postfixExpression(TokenCode.INCREMENT_OP));
+                }else if(fToken == TokenCode.SEMI_COLON_LT || fToken == TokenCode.EOF)
                 {
                     stmntExp.addChild(handleIdentifier());
                 }
@@ -776,7 +967,7 @@ public class Parser {
 	ASTNode expression() throws Exception
 	{
         enterNT("expression");
-        ASTNode exp = new ASTNode("expression",null, curTok.getLine());
+        ASTNode exp = new ASTNode(NodeKind.EXPRESSION,null, curLine);
         exp.addChild(assignmentExpression());
         exitNT("expression");
         return exp;
@@ -788,7 +979,7 @@ public class Parser {
 	ASTNode parenthesizedExpression() throws Exception
 	{
         enterNT("parenthesized expression");
-        ASTNode parExp = new ASTNode("parenthesized expression",null, curTok.getLine());
+        ASTNode parExp = new ASTNode(NodeKind.PARENTHESIZED_EXPRESSION,null, curLine);
         nextNonSpace(); //advance past (
         parExp.addChild(expression());
         nextNonSpace(); // advance past )
@@ -803,48 +994,15 @@ public class Parser {
 	{
 		//look ahead until it finds a token that indicates either an <assignment operator> or <conditional expression>
         enterNT("assignmentExpression");
-        ASTNode assExp = new ASTNode("assignment expression",null, curTok.getLine());
-        // these indicated assignment expression
-        String[] assOps = getAssignmentOps();
-        ArrayList<String> find = new ArrayList<String>(Arrays.asList(assOps));
-        // these indicate conditional expression
-        find.add("+_op");
-        find.add("-_op");
-        find.add("~_op");
-        find.add("!_op");
-        find.add("||_op");
-        find.add("&&_op");
-        find.add("^_op");
-        find.add("&_op");
-        find.add("==_op");
-        find.add("<_op");
-        find.add(">_op");
-        find.add(">=_op");
-        find.add("<=_op");
-        find.add("instanceof_kw");
-        find.add("<<_op");
-        find.add(">>_op");
-        find.add("*_op");
-        find.add("/_op");
-        find.add("%_op");
-        find.add("++_op");
-        find.add("--_op");
-        find.add("EOF");
-        find.add("colon_lt");
-        find.add("semi_colon_lt");
-        find.add(")_op");
-        find.add("open_bracket_lt");
-        find.add("close_bracket_lt");
-        find.add("comma_lt");
-        
-        String fToken = lookAheadToFind(find);
+        ASTNode assExp = new ASTNode(NodeKind.ASSIGNMENT_EXPRESSION,null, curLine);
+        int fToken = lookAheadToFind(ASSIGNMENT_EXP_FIND);
         if(debug) System.out.println("The fToken is " + fToken);
-        if(Arrays.asList(assOps).contains(fToken))
+        if(isOneOf(fToken, ASSIGNMENT_OPS))
         {
             assExp.addChild(assignment());
         }else
         {
-            assExp.addChild(conditionalExpression(null));
+            assExp.addChild(conditionalExpression(0));
         }
         exitNT("assignmentExpression");
         return assExp;
@@ -854,10 +1012,10 @@ public class Parser {
 	 * <conditional expression> ::= <conditiongital or expression> | 
 	 * <conditional or expression> ? <expression> : <conditional expression>
 	 */
-	ASTNode conditionalExpression(String endToken) throws Exception
+	ASTNode conditionalExpression(int endToken) throws Exception
 	{
         enterNT("conditionalExpression");
-        ASTNode cndExpr = new ASTNode("conditional expression",null, curTok.getLine());
+        ASTNode cndExpr = new ASTNode(NodeKind.CONDITIONAL_EXPRESSION,null, curLine);
         
         boolean endExp = false;
         boolean validExp = false;
@@ -872,26 +1030,26 @@ public class Parser {
             else{
                 lastChild = null;
             }
-            if(curTok.tokenName() == endToken)
+            if(curTok.tokenCode() == endToken)
             {
                 if(!validExp)
                 {
-                    customErrorMsg("Error: Illegal end of expression", curTok.getLine(), curTok.getPos());
+                    customErrorMsg("Error: Illegal end of expression", curLine, curPos);
                 }
                 endExp = true;
                 break;
             }else{
-                switch(curTok.tokenName()){
-                    case "(_op":
+                switch(curTok.tokenCode()){
+                    case TokenCode.OPEN_PAREN_OP:
                         //TODO: Check for cast before calling parenthizedExp
                         cndExpr.addChild(parenthesizedExpression());
                         validExp=true;
                         lastPart = "operand";
                         break;
-                    case "+_op":
-                    case "-_op":
+                    case TokenCode.PLUS_OP:
+                    case TokenCode.MINUS_OP:
                         if(cndExpr.childCount() > 0){
-                            int retVal = binaryOrUnary(lastChild.getType());
+                            int retVal = binaryOrUnary(lastChild);
                             if(retVal == 2)
                             {
                                 cndExpr.addChild(binaryExpression());
@@ -907,14 +1065,14 @@ public class Parser {
                         validExp=false;
                         lastPart = "operator";
                         break;
-                    case "~_op":
-                    case "!_op":
+                    case TokenCode.TILDE_OP:
+                    case TokenCode.NOT_OP:
                         cndExpr.addChild(unaryExpression());
                         validExp=false;
                         lastPart = "operator";
                         break;
-                    case "++_op":
-                    case "--_op":
+                    case TokenCode.INCREMENT_OP:
+                    case TokenCode.DECREMENT_OP:
                          if(cndExpr.childCount() > 0 && lastPart == "operand"){
                              cndExpr.addChild(postfixExpressionOp());
                              validExp=true;
@@ -925,39 +1083,38 @@ public class Parser {
                              lastPart = "operator";
                          }
                         break;
-                    case "*_op":
-                    case "/_op":
-                    case "%_op":
-                    case ">_op":
-                    case "<_op":
-                    case "<=_op":
-                    case ">=_op":
-                    case "instanceof":
-                    case "||_op":
-                    case "&&_op":
-                    case "|_op":
-                    case "^_op":
-                    case "&_op":
-                    case "==_op":
-                    case "!=_op":
-                    case "<<_op":
-                    case ">>_op":
+                    case TokenCode.TIMES_OP:
+                    case TokenCode.DIVIDE_OP:
+                    case TokenCode.MOD_OP:
+                    case TokenCode.GREATER_OP:
+                    case TokenCode.LESS_OP:
+                    case TokenCode.LESS_EQUAL_OP:
+                    case TokenCode.GREATER_EQUAL_OP:
+                    case TokenCode.OR_OR_OP:
+                    case TokenCode.AND_AND_OP:
+                    case TokenCode.OR_OP:
+                    case TokenCode.CARET_OP:
+                    case TokenCode.AND_OP:
+                    case TokenCode.EQUAL_EQUAL_OP:
+                    case TokenCode.NOT_EQUAL_OP:
+                    case TokenCode.SHIFT_LEFT_OP:
+                    case TokenCode.SHIFT_RIGHT_OP:
                         cndExpr.addChild(binaryExpression());
                         validExp=false; //waiting on its second operand
                         lastPart = "operator";
                         break;
-                    case "semi_colon_lt":
-                    case ")_op":
-                    case "colon_lt":
-                    case "]":
-                    case "comma_lt":
+                    case TokenCode.SEMI_COLON_LT:
+                    case TokenCode.CLOSE_PAREN_OP:
+                    case TokenCode.COLON_LT:
+                    case TokenCode.CLOSE_SQUARE:
+                    case TokenCode.COMMA_LT:
                         // end of expression
                         if(lastPart == "operator")
                         {
-                            customErrorMsg("Error: Illegal end of expression", curTok.getLine(), curTok.getPos());
+                            customErrorMsg("Error: Illegal end of expression", curLine, curPos);
                         }else if(lastPart == "")
                         {
-                            customErrorMsg("Error: Expecting expression", curTok.getLine(), curTok.getPos());
+                            customErrorMsg("Error: Expecting expression", curLine, curPos);
                         }
                         endExp = true;
                         break;
@@ -966,16 +1123,13 @@ public class Parser {
                         // can't have two operands in a row
                         if(lastPart == "operand"){
                             //will fail
-                            expect("semi_colon_lt", false);
+                            expect(TokenCode.SEMI_COLON_LT, false);
                         }
                         cndExpr.addChild(primary());
                         validExp = true;
                         lastPart = "operand";
                 }
             }
-            if(endToken == "ONE"){
-                endExp = true;
-            }
         }
         exitNT("conditionalExpression");
         return cndExpr;
@@ -987,16 +1141,11 @@ public class Parser {
     {
         enterNT("primary");
         ASTNode prim = null;
-        if(curTok.tokenName() == "new_kw")
+        if(curTok.tokenCode() == TokenCode.NEW_KW)
         {
             //check if class or array creation
-            ArrayList<String> find = new ArrayList<String>();
-            find.add("(_op");
-            find.add("[");
-            find.add("EOF");
-            find.add("semi_colon_lt");
-            String fToken = lookAheadToFind(find);
-            if(fToken == "[")
+            int fToken = lookAheadToFind(TokenCode.OPEN_PAREN_OP, TokenCode.OPEN_SQUARE, TokenCode.EOF, TokenCode.SEMI_COLON_LT);
+            if(fToken == TokenCode.OPEN_SQUARE)
             {
                 prim = arrayCreationExpression();
             }else
@@ -1020,20 +1169,20 @@ public class Parser {
     {
         enterNT("primaryNoNewArray");
         ASTNode primNoNew;
-        if(isLiteral(curTok.tokenName()))
+        if(isLiteral(curTok.tokenCode()))
         {
             if (debug) System.out.println(curTok.getLiteral() + " " + curTok.tokenName());
-            primNoNew = new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine());
+            primNoNew = new ASTNode(curTok, curLine);
             nextNonSpace(); //advance to next token
         }
         else{
-            switch(curTok.tokenName()){
-                case "new_kw":
+            switch(curTok.tokenCode()){
+                case TokenCode.NEW_KW:
                     primNoNew = classInstanceCreationExpression();
                     break;
-                case "this_kw":
-                case "super_kw":
-                case "identifier":
+                case TokenCode.THIS_KW:
+                case TokenCode.SUPER_KW:
+                case TokenCode.IDENTIFIER:
                     //determine if method, field access, array access, or var
                     //keep checking for . and '[]' vs '()' vs ''\
                     primNoNew = handleIdentifier();
@@ -1041,7 +1190,7 @@ public class Parser {
                 default:
                     if (debug) System.out.println("[" + curTok.getLiteral() + "]");
                     notImplemented("The default for switch case in PrimaryNoNewArray");
-                    primNoNew = new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine());
+                    primNoNew = new ASTNode(curTok, curLine);
             }
         }
         exitNT("primaryNoNewArray");
@@ -1053,8 +1202,8 @@ public class Parser {
     ASTNode unaryExpression() throws Exception
     {
         enterNT("unaryExpression");
-        ASTNode unExp = new ASTNode("unary expression",null, curTok.getLine());
-        unExp.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine())); // add operator
+        ASTNode unExp = new ASTNode(NodeKind.UNARY_EXPRESSION,null, curLine);
+        unExp.addChild(new ASTNode(curTok, curLine)); // add operator
         nextNonSpace(); //advance past operator
         exitNT("unaryExpression");
         return unExp;
@@ -1065,33 +1214,50 @@ public class Parser {
     ASTNode binaryExpression() throws Exception
     {
         enterNT("binaryExpression");
-        HashMap<String, String> binOps = new HashMap<String, String>();
-        binOps.put("+_op", "additive expression");
-        binOps.put("-_op", "additive expression");
-        binOps.put("*_op", "multiplicative expression");
-        binOps.put("/_op", "multiplicative expression");
-        binOps.put("%_op", "multiplicative expression");
-        binOps.put(">_op", "relational expression");
-        binOps.put("<_op", "relational expression");
-        binOps.put("<=_op", "relational expression");
-        binOps.put(">=_op", "relational expression");
-        binOps.put("instanceof", "relational expression");
-        binOps.put("||_op", "conditional or expression");
-        binOps.put("&&_op", "conditional and expression");
-        binOps.put("|_op", "inclusive or expression");
-        binOps.put("^_op", "exclusive or expression");
-        binOps.put("&_op", "and expression");
-        binOps.put("==_op", "equality expression");
-        binOps.put("!=_op", "inequality expression");
-        binOps.put("<<_op", "shift expression");
-        binOps.put(">>_op", "shift expression");
-        String binaryType = binOps.get(curTok.tokenName());
-        ASTNode binExp = new ASTNode(binaryType,null, curTok.getLine());
-        binExp.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine())); // add operator
+        NodeKind binaryType = binaryType(curTok.tokenCode());
+        ASTNode binExp = new ASTNode(binaryType,null, curLine);
+        binExp.addChild(new ASTNode(curTok, curLine)); // add operator
         nextNonSpace(); //advance past operator
         exitNT("binaryExpression");
         return binExp;
     }
+    // node kind for a binary operator token
+    static NodeKind binaryType(int code)
+    {
+        switch(code){
+            case TokenCode.PLUS_OP:
+            case TokenCode.MINUS_OP:
+                return NodeKind.ADDITIVE_EXPRESSION;
+            case TokenCode.TIMES_OP:
+            case TokenCode.DIVIDE_OP:
+            case TokenCode.MOD_OP:
+                return NodeKind.MULTIPLICATIVE_EXPRESSION;
+            case TokenCode.GREATER_OP:
+            case TokenCode.LESS_OP:
+            case TokenCode.LESS_EQUAL_OP:
+            case TokenCode.GREATER_EQUAL_OP:
+                return NodeKind.RELATIONAL_EXPRESSION;
+            case TokenCode.OR_OR_OP:
+                return NodeKind.CONDITIONAL_OR_EXPRESSION;
+            case TokenCode.AND_AND_OP:
+                return NodeKind.CONDITIONAL_AND_EXPRESSION;
+            case TokenCode.OR_OP:
+                return NodeKind.INCLUSIVE_OR_EXPRESSION;
+            case TokenCode.CARET_OP:
+                return NodeKind.EXCLUSIVE_OR_EXPRESSION;
+            case TokenCode.AND_OP:
+                return NodeKind.AND_EXPRESSION;
+            case TokenCode.EQUAL_EQUAL_OP:
+                return NodeKind.EQUALITY_EXPRESSION;
+            case TokenCode.NOT_EQUAL_OP:
+                return NodeKind.INEQUALITY_EXPRESSION;
+            case TokenCode.SHIFT_LEFT_OP:
+            case TokenCode.SHIFT_RIGHT_OP:
+                return NodeKind.SHIFT_EXPRESSION;
+            default:
+                return null;
+        }
+    }
     /*
     *checks last node and determines if it's a valid operand for the binaryExp
     * binary exp types
@@ -1100,41 +1266,41 @@ public class Parser {
     * unary exp
     *  - "binary operators"
     */
-    int binaryOrUnary(String lastNode) throws Exception
+    int binaryOrUnary(ASTNode lastNode) throws Exception
     {
         int retVal = 0;
-        if(isLiteral(lastNode)){
+        if(isLiteral(lastNode.tokenCode())){
             retVal = 2;
         }else{
-            switch(lastNode){
-                case "parenthesized expression":
-                case "identifier":
-                case "prefix expression":
-                case "postfix expression":
-                case "postfix expression operator":
-                case "method invocation":
-                case "array access":
-                case "field access":
+            switch(lastNode.getKind()){
+                case PARENTHESIZED_EXPRESSION:
+                case IDENTIFIER:
+                case PREFIX_EXPRESSION:
+                case POSTFIX_EXPRESSION:
+                case POSTFIX_EXPRESSION_OPERATOR:
+                case METHOD_INVOCATION:
+                case ARRAY_ACCESS:
+                case FIELD_ACCESS:
                     retVal = 2;
                     break;
-                case "prefix expression operator": // case where exp after prefix has not been handled yet
-                case "conditional or expression":
-                case "conditional and expression":
-                case "inclusive or expression":
-                case "exclusive or expression":
-                case "and expression":
-                case "equality expression":
-                case "relational expression":
-                case "shift expression":
-                case "additive expression":
-                case "multiplicative expression":
+                case PREFIX_EXPRESSION_OPERATOR: // case where exp after prefix has not been handled yet
+                case CONDITIONAL_OR_EXPRESSION:
+                case CONDITIONAL_AND_EXPRESSION:
+                case INCLUSIVE_OR_EXPRESSION:
+                case EXCLUSIVE_OR_EXPRESSION:
+                case AND_EXPRESSION:
+                case EQUALITY_EXPRESSION:
+                case RELATIONAL_EXPRESSION:
+                case SHIFT_EXPRESSION:
+                case ADDITIVE_EXPRESSION:
+                case MULTIPLICATIVE_EXPRESSION:
                     retVal = 1;
                     break;
-                case "unary expression":
-                    customErrorMsg("Error: Illegal start of expression", curTok.getLine(), curTok.getPos());
+                case UNARY_EXPRESSION:
+                    customErrorMsg("Error: Illegal start of expression", curLine, curPos);
                     break;
                 default:
-                    customErrorMsg("System error Found another ASTNode in binaryOrUnary " + lastNode, curTok.getLine(), curTok.getPos());
+                    customErrorMsg("System error Found another ASTNode in binaryOrUnary " + lastNode.getType(), curLine, curPos);
             }
         }
         return retVal;
@@ -1154,31 +1320,31 @@ public class Parser {
         while(cont)
         {
             nextNonSpace();
-            switch(curTok.tokenName()){
-                case "period_lt":
+            switch(curTok.tokenCode()){
+                case TokenCode.PERIOD_LT:
                     //consume and add previous to qualified name
                     name = name + ".";
                     idType="field access";
                     periodEnd = true;
                     break;
-                case "(_op":
+                case TokenCode.OPEN_PAREN_OP:
                     //method
                     idType="method";
                     cont = false;
                     break;
-                case "[":
+                case TokenCode.OPEN_SQUARE:
                     //array access
                     idType="array access";
                     cont = false;
                     break;
-                case "identifier":
+                case TokenCode.IDENTIFIER:
                     if(name.charAt(name.length() - 1) == '.'){
                         name = name + curTok.getLiteral();
                         idType="field access";
                         periodEnd = false;
                         break;
                     }else{
-                        expect("semi_colon_lt", false);
+                        expect(TokenCode.SEMI_COLON_LT, false);
                     }
                 default:
                     if (debug) System.out.println("The default for this is " + curTok.tokenName());
@@ -1186,26 +1352,26 @@ public class Parser {
             }
         }
         if(periodEnd){
-            customErrorMsg("Error: Expecting identifier at", curTok.getLine(), curTok.getPos());
+            customErrorMsg("Error: Expecting identifier at", curLine, curPos);
         }
         name = name.replaceFirst("^\\.", ""); // remove leading period if necessary
         if (debug) System.out.println("The id type is " + idType);
         switch(idType)
         {
             case "identifier":
-                id = new ASTNode("identifier",name, curTok.getLine());
+                id = new ASTNode(NodeKind.IDENTIFIER,name, curLine);
                 break;
             case "method":
                 id = methodInvocation(name);
                 break;
             case "field access":
-                id = new ASTNode("field access",name, curTok.getLine());
+                id = new ASTNode(NodeKind.FIELD_ACCESS,name, curLine);
                 break;
             case "array access":
                 id = arrayAccess(name);
                 break;
             default:
-                customErrorMsg("System error Somethings wrong with idType ###" + idType + "###", curTok.getLine(), curTok.getPos());
+                customErrorMsg("System error Somethings wrong with idType ###" + idType + "###", curLine, curPos);
         }
         exitNT("handleIdentifier");
         return id;
@@ -1217,15 +1383,15 @@ public class Parser {
     ASTNode arrayAccess(String name) throws Exception
     {
         enterNT("arrayAccess");
-        ASTNode arrAcc = new ASTNode("array access",null, curTok.getLine());
-        arrAcc.addChild(new ASTNode("identifier",name, curTok.getLine()));
-        while(curTok.tokenName() == "["){
+        ASTNode arrAcc = new ASTNode(NodeKind.ARRAY_ACCESS,null, curLine);
+        arrAcc.addChild(new ASTNode(NodeKind.IDENTIFIER,name, curLine));
+        while(curTok.tokenCode() == TokenCode.OPEN_SQUARE){
             nextNonSpace(); // move past [
             arrAcc.addChild(expression());
-            expect("]", false);
+            expect(TokenCode.CLOSE_SQUARE, false);
             nextNonSpace();
         }
-        if(curTok.tokenName() == "period_lt"){
+        if(curTok.tokenCode() == TokenCode.PERIOD_LT){
             //nextNonSpace(); // move past .
             arrAcc.addChild(handleIdentifier());
         }
@@ -1240,23 +1406,23 @@ public class Parser {
     ASTNode methodInvocation(String name) throws Exception
     {
         enterNT("methodInvocation");
-        ASTNode methInv = new ASTNode("method invocation",null, curTok.getLine());
-        methInv.addChild(new ASTNode("method name",name, curTok.getLine()));
-        expect("(_op", false);
+        ASTNode methInv = new ASTNode(NodeKind.METHOD_INVOCATION,null, curLine);
+        methInv.addChild(new ASTNode(NodeKind.METHOD_NAME,name, curLine));
+        expect(TokenCode.OPEN_PAREN_OP, false);
         nextNonSpace(); // move past (
-        if(curTok.tokenName() == ")_op")
+        if(curTok.tokenCode() == TokenCode.CLOSE_PAREN_OP)
         {
-            methInv.addChild(new ASTNode("argument list",null, curTok.getLine()));
+            methInv.addChild(new ASTNode(NodeKind.ARGUMENT_LIST,null, curLine));
         }else
         {
             methInv.addChild(argumentList());
         }
-        expect(")_op", false);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
         nextNonSpace(); // advance past )
-        if(curTok.tokenName() == "period_lt"){
+        if(curTok.tokenCode() == TokenCode.PERIOD_LT){
             nextNonSpace(); //advance past .
             methInv.addChild(handleIdentifier());
-        }else if(curTok.tokenName() == "["){
+        }else if(curTok.tokenCode() == TokenCode.OPEN_SQUARE){
             methInv.addChild(arrayAccess(null));
         }
         exitNT("methodInvocation");
@@ -1265,13 +1431,13 @@ public class Parser {
     /*
     * <postfix expression> ::= <postincrement expression> | <postdecrement expression>
     */
-    ASTNode postfixExpression(String operator) throws Exception
+    ASTNode postfixExpression(int operator) throws Exception
     {
         enterNT("postfixExpression");
-        ASTNode postfix = new ASTNode("postfix expression",null, curTok.getLine());
+        ASTNode postfix = new ASTNode(NodeKind.POSTFIX_EXPRESSION,null, curLine);
         postfix.addChild(conditionalExpression(operator));
         expect(operator, false);
-        postfix.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine()));
+        postfix.addChild(new ASTNode(curTok, curLine));
         nextNonSpace(); //move past operator
         exitNT("postfixExpression");
         return postfix;
@@ -1281,8 +1447,8 @@ public class Parser {
     ASTNode postfixExpressionOp() throws Exception
     {
         enterNT("postfixExpressionOp");
-        ASTNode postfixExpOp = new ASTNode("postfix expression operator",null, curTok.getLine());
-        postfixExpOp.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine())); // add operator
+        ASTNode postfixExpOp = new ASTNode(NodeKind.POSTFIX_EXPRESSION_OPERATOR,null, curLine);
+        postfixExpOp.addChild(new ASTNode(curTok, curLine)); // add operator
         nextNonSpace(); //advance past operator
         exitNT("postfixExpressionOp");
         return postfixExpOp;
@@ -1290,12 +1456,12 @@ public class Parser {
     /*
     * <prefix expression> ::= <preincrement expression> | <predecrement expression>
     */
-    ASTNode prefixExpression(String operator) throws Exception
+    ASTNode prefixExpression(int operator) throws Exception
     {
         enterNT("prefixExpression");
-        ASTNode prefix = new ASTNode("prefix expression",null, curTok.getLine());
+        ASTNode prefix = new ASTNode(NodeKind.PREFIX_EXPRESSION,null, curLine);
         expect(operator, false);
-        prefix.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine()));
+        prefix.addChild(new ASTNode(curTok, curLine));
         nextNonSpace(); // advance past operator
         prefix.addChild(expression());
         exitNT("prefixExpression");
@@ -1305,8 +1471,8 @@ public class Parser {
     ASTNode prefixExpressionOp() throws Exception
     {
         enterNT("prefixExpressionOp");
-        ASTNode prefixExpOp = new ASTNode("prefix expression operator",null, curTok.getLine());
-        prefixExpOp.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine())); // add operator
+        ASTNode prefixExpOp = new ASTNode(NodeKind.PREFIX_EXPRESSION_OPERATOR,null, curLine);
+        prefixExpOp.addChild(new ASTNode(curTok, curLine)); // add operator
         nextNonSpace(); //advance past operator
         exitNT("prefixExpressionOp");
         return prefixExpOp;
@@ -1319,17 +1485,17 @@ public class Parser {
     ASTNode arrayCreationExpression() throws Exception
     {
         enterNT("arrayCreationExpression");
-        ASTNode arrCreate = new ASTNode("array creation expression",null, curTok.getLine());
+        ASTNode arrCreate = new ASTNode(NodeKind.ARRAY_CREATION_EXPRESSION,null, curLine);
         nextNonSpace();
-        if(!isType() && !references.contains(curTok.getLiteral()))
+        if(!isType() && !forwardType())
 		{
-			errorMsg("type", curTok.getLine(), curTok.getPos());
+			errorMsg("type", curLine, curPos);
         }
-        arrCreate.addChild(new ASTNode("array type",curTok.getLiteral(), curTok.getLine()));
+        arrCreate.addChild(new ASTNode(NodeKind.ARRAY_TYPE,curTok.getLiteral(), curLine));
         nextNonSpace(); // advance past type
-        expect("[", false);
+        expect(TokenCode.OPEN_SQUARE, false);
         arrCreate.addChild(dimExprs());
-        if(curTok.tokenName() == "[")
+        if(curTok.tokenCode() == TokenCode.OPEN_SQUARE)
         {
             arrCreate.addChild(dims());
         }
@@ -1342,13 +1508,13 @@ public class Parser {
     ASTNode dimExprs() throws Exception
     {
         enterNT("dimExprs");
-        ASTNode dimExps = new ASTNode("dim expressions",null, curTok.getLine());
+        ASTNode dimExps = new ASTNode(NodeKind.DIM_EXPRESSIONS,null, curLine);
         boolean cont = false;
         do{
             dimExps.addChild(dimExpr());
             JavaToken nextTok = lookAhead(1);
             // check for an additional dim expr (lookahead 1 to verify it's not a dim)
-            if(curTok.tokenName() == "[" && nextTok.tokenName() != "]")
+            if(curTok.tokenCode() == TokenCode.OPEN_SQUARE && nextTok.tokenCode() != TokenCode.CLOSE_SQUARE)
             {
                 cont = true;
             }else
@@ -1365,10 +1531,10 @@ public class Parser {
     ASTNode dimExpr() throws Exception
     {
         enterNT("dimExpr");
-        expect("[", false);
+        expect(TokenCode.OPEN_SQUARE, false);
         nextNonSpace(); // advance past [
         ASTNode dimExp = expression();
-        expect("]", false);
+        expect(TokenCode.CLOSE_SQUARE, false);
         nextNonSpace(); // advance past ]
         exitNT("dimExpr");
         return dimExp;
@@ -1379,11 +1545,11 @@ public class Parser {
     ASTNode dims() throws Exception
     {
         enterNT("dims");
-        ASTNode dms = new ASTNode("dims",null, curTok.getLine());
+        ASTNode dms = new ASTNode(NodeKind.DIMS,null, curLine);
         boolean cont = false;
         do{
             dms.addChild(dim());
-            if(curTok.tokenName() == "[")
+            if(curTok.tokenCode() == TokenCode.OPEN_SQUARE)
             {
                 cont = true;
             }else
@@ -1400,9 +1566,9 @@ public class Parser {
     ASTNode dim() throws Exception
     {
         enterNT("dim");
-        expect("[", false);
-        ASTNode dm = new ASTNode("dim", "[]", curTok.getLine());
-        expect("]", true);
+        expect(TokenCode.OPEN_SQUARE, false);
+        ASTNode dm = new ASTNode(NodeKind.DIM, "[]", curLine);
+        expect(TokenCode.CLOSE_SQUARE, true);
         nextNonSpace(); // advance past ]
         exitNT("dim");
         return dm;
@@ -1413,12 +1579,12 @@ public class Parser {
     ASTNode argumentList() throws Exception
     {
         enterNT("argumentList");
-        ASTNode argList = new ASTNode("argument list",null, curTok.getLine());
+        ASTNode argList = new ASTNode(NodeKind.ARGUMENT_LIST,null, curLine);
         boolean cont = false;
         do{
             argList.addChild(expression());;
             // check for an additional arg
-            if(curTok.tokenName() == "comma_lt")
+            if(curTok.tokenCode() == TokenCode.COMMA_LT)
             {
                 nextNonSpace(); //advance past ,
                 cont = true;
@@ -1437,11 +1603,10 @@ public class Parser {
 	ASTNode assignment() throws Exception
 	{
         enterNT("assignment");
-		ASTNode assnmnt = new ASTNode("assignment",null, curTok.getLine());
+		ASTNode assnmnt = new ASTNode(NodeKind.ASSIGNMENT,null, curLine);
         assnmnt.addChild(leftHandSide());
-        String[] assOps = getAssignmentOps();
-        expectOr(false, true, assOps);
-        assnmnt.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine()));
+        expectOr(false, true, ASSIGNMENT_OPS);
+        assnmnt.addChild(new ASTNode(curTok, curLine));
         nextNonSpace(); //advance past assignment exp
         assnmnt.addChild(assignmentExpression());
         exitNT("assignment");
@@ -1454,7 +1619,7 @@ public class Parser {
     ASTNode leftHandSide() throws Exception
     {
         enterNT("leftHandSide");
-        expectOr(false, true, "identifier", "super_kw", "this_kw");
+        expectOr(false, true, TokenCode.IDENTIFIER, TokenCode.SUPER_KW, TokenCode.THIS_KW);
         ASTNode lhs = handleIdentifier();
         exitNT("leftHandSide");
         return lhs;
@@ -1465,12 +1630,12 @@ public class Parser {
     ASTNode switchStatement() throws Exception
     {
     	enterNT("switchStatement");
-    	expect("switch_kw", false);
-    	ASTNode switchStmnt = new ASTNode("switch statement",null, curTok.getLine());
-    	expect("(_op", true);
+    	expect(TokenCode.SWITCH_KW, false);
+    	ASTNode switchStmnt = new ASTNode(NodeKind.SWITCH_STATEMENT,null, curLine);
+    	expect(TokenCode.OPEN_PAREN_OP, true);
     	nextNonSpace(); // move past (
     	switchStmnt.addChild(expression());
-    	expect(")_op", false);
+    	expect(TokenCode.CLOSE_PAREN_OP, false);
     	nextNonSpace(); // move past )
     	switchStmnt.addChild(switchBlock());
     	exitNT("switchStatement");
@@ -1482,13 +1647,13 @@ public class Parser {
     ASTNode switchBlock() throws Exception
     {
     	enterNT("switchBlock");
-    	expect("open_bracket_lt", false);
-    	String s =nextNonSpace(); // move past {
-    	ASTNode switchBlk = new ASTNode("switch block",null, curTok.getLine());
-    	if(s != "close_bracket_lt"){
+    	expect(TokenCode.OPEN_BRACKET_LT, false);
+    	int s = nextNonSpace(); // move past {
+    	ASTNode switchBlk = new ASTNode(NodeKind.SWITCH_BLOCK,null, curLine);
+    	if(s != TokenCode.CLOSE_BRACKET_LT){
             switchBlk.addChild(switchBlockStatementGroups());
         }
-        expect("close_bracket_lt", false);
+        expect(TokenCode.CLOSE_BRACKET_LT, false);
         nextNonSpace(); // move past switch block
         exitNT("switchBlock");
     	return switchBlk;
@@ -1500,13 +1665,13 @@ public class Parser {
     ASTNode switchBlockStatementGroups() throws Exception
     {
     	enterNT("switchBlockStatementGroups");
-    	ASTNode switchBlkStmntGroups = new ASTNode("switch block statement groups",null, curTok.getLine());
+    	ASTNode switchBlkStmntGroups = new ASTNode(NodeKind.SWITCH_BLOCK_STATEMENT_GROUPS,null, curLine);
     	// continue while current token is case or default
         while(curTok.tokenCode() == 1026 || curTok.tokenCode() == 1007 || curTok.tokenCode() == 4001){
             // error msg if reach EOF while parsing
             if(curTok.tokenCode() == 4001) // EOF
             {
-                customErrorMsg("EOF reached while parsing", curTok.getLine(), curTok.getPos());
+                customErrorMsg("EOF reached while parsing", curLine, curPos);
             }
             switchBlkStmntGroups.addChild(switchBlockStatementGroup());
         }
@@ -1519,7 +1684,7 @@ public class Parser {
     ASTNode switchBlockStatementGroup() throws Exception
     {
     	enterNT("switchBlockStatementGroup");
-    	ASTNode switchBlkStmntGroup = new ASTNode("switch block statement group",null, curTok.getLine());
+    	ASTNode switchBlkStmntGroup = new ASTNode(NodeKind.SWITCH_BLOCK_STATEMENT_GROUP,null, curLine);
     	switchBlkStmntGroup.addChild(switchLabels());
     	switchBlkStmntGroup.addChild(blockStatements());
     	
@@ -1533,13 +1698,13 @@ public class Parser {
     ASTNode switchLabels() throws Exception
     {
     	enterNT("switchLabels");
-    	ASTNode switchLbls = new ASTNode("switch labels",null, curTok.getLine());
+    	ASTNode switchLbls = new ASTNode(NodeKind.SWITCH_LABELS,null, curLine);
     	// continue while current token is default or case
         while(curTok.tokenCode() == 1026 || curTok.tokenCode() == 1007 || curTok.tokenCode == 4001){
     	   // error msg if reach EOF while parsing
             if(curTok.tokenCode() == 4001) // EOF
             {
-                customErrorMsg("EOF reached while parsing", curTok.getLine(), curTok.getPos());
+                customErrorMsg("EOF reached while parsing", curLine, curPos);
             }
             switchLbls.addChild(switchLabel());
         }
@@ -1554,7 +1719,7 @@ public class Parser {
     ASTNode switchLabel() throws Exception
     {
     	enterNT("switchLabel");
-    	ASTNode switchLbl = new ASTNode("switch label",null, curTok.getLine());
+    	ASTNode switchLbl = new ASTNode(NodeKind.SWITCH_LABEL,null, curLine);
     	if (curTok.tokenCode() == 1026) // 'case'
     	{
 	    	nextNonSpace(); // move past "case"
@@ -1562,11 +1727,11 @@ public class Parser {
     	}
     	else
     	{
-    		expect("default_kw", false);
+    		expect(TokenCode.DEFAULT_KW, false);
     		nextNonSpace();
     	}
     	
-    	expect("colon_lt", false);
+    	expect(TokenCode.COLON_LT, false);
     	nextNonSpace(); // move past :
     	
     	exitNT("switchLabel");
@@ -1579,16 +1744,16 @@ public class Parser {
     ASTNode doStatement() throws Exception
     {
         enterNT("doStatement");
-        expect("do_kw", false);
-        ASTNode doStmnt = new ASTNode("do statement",null, curTok.getLine());
-        expect("open_bracket_lt", true);
+        expect(TokenCode.DO_KW, false);
+        ASTNode doStmnt = new ASTNode(NodeKind.DO_STATEMENT,null, curLine);
+        expect(TokenCode.OPEN_BRACKET_LT, true);
         doStmnt.addChild(statement());
-        expect("while_kw", false);
-        expect("(_op", true);
+        expect(TokenCode.WHILE_KW, false);
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); // move past (
         doStmnt.addChild(expression());
-        expect(")_op", false);
-        expect("semi_colon_lt", true);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
+        expect(TokenCode.SEMI_COLON_LT, true);
         exitNT("doStatement");
         nextNonSpace();
         return doStmnt;
@@ -1599,13 +1764,13 @@ public class Parser {
     ASTNode whileStatement() throws Exception
     {
         enterNT("whileStatement");
-        expect("while_kw", false);
-        ASTNode whileStmnt = new ASTNode("while statement",null, curTok.getLine());
-        expect("(_op", true);
+        expect(TokenCode.WHILE_KW, false);
+        ASTNode whileStmnt = new ASTNode(NodeKind.WHILE_STATEMENT,null, curLine);
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); // move past (
         whileStmnt.addChild(expression());
-        expect(")_op", false);
-        expect("open_bracket_lt", true);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
+        expect(TokenCode.OPEN_BRACKET_LT, true);
         whileStmnt.addChild(statement());
         exitNT("whileStatement");
         return whileStmnt;
@@ -1616,26 +1781,26 @@ public class Parser {
     ASTNode elseStatement() throws Exception
     {
         enterNT("elseStatement");
-        expect("else_kw", false);
+        expect(TokenCode.ELSE_KW, false);
         ASTNode elseStmnt = null;
         boolean elseFound = false;
         nextNonSpace();
 
-        if(curTok.tokenName() == "if_kw")
+        if(curTok.tokenCode() == TokenCode.IF_KW)
         {
-            elseStmnt = new ASTNode("else if statement",null, curTok.getLine());
+            elseStmnt = new ASTNode(NodeKind.ELSE_IF_STATEMENT,null, curLine);
             elseStmnt.addChild(ifHeaders());
         } else {
-            elseStmnt = new ASTNode("else statement",null, curTok.getLine());
+            elseStmnt = new ASTNode(NodeKind.ELSE_STATEMENT,null, curLine);
             elseFound = true;
         }
 
         elseStmnt.addChild(statement());
 
-        if (curTok.tokenName() == "else_kw") {
+        if (curTok.tokenCode() == TokenCode.ELSE_KW) {
             if (!elseFound) {
                 elseStmnt.addChild(elseStatement());
-            } else customErrorMsg("Else without if", curTok.getLine(), curTok.getPos());
+            } else customErrorMsg("Else without if", curLine, curPos);
         }
 
         exitNT("elseStatement");
@@ -1647,12 +1812,12 @@ public class Parser {
     ASTNode ifStatement() throws Exception
     {
         enterNT("ifStatement");
-        expect("if_kw", false);
-        ASTNode ifStmnt = new ASTNode("if statement",null, curTok.getLine());
+        expect(TokenCode.IF_KW, false);
+        ASTNode ifStmnt = new ASTNode(NodeKind.IF_STATEMENT,null, curLine);
         ifStmnt.addChild(ifHeaders());
         ifStmnt.addChild(statement());
 
-        if (curTok.tokenName() == "else_kw") ifStmnt.addChild(elseStatement());
+        if (curTok.tokenCode() == TokenCode.ELSE_KW) ifStmnt.addChild(elseStatement());
 
         exitNT("ifStatement");
         return ifStmnt;
@@ -1662,11 +1827,11 @@ public class Parser {
      */
     ASTNode ifHeaders() throws Exception
     {
-        expect("(_op", true);
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); // move past (
         ASTNode exp = expression();
-        expect(")_op", false);
-        expect("open_bracket_lt", true);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
+        expect(TokenCode.OPEN_BRACKET_LT, true);
         return exp;
     }
     /*
@@ -1675,9 +1840,9 @@ public class Parser {
     ASTNode tryStatement() throws Exception
     {
     	enterNT("tryStatement");
-    	ASTNode tryStmnt = new ASTNode("try statement", null, curTok.getLine());
-    	expect("try_kw", false);
-    	expect("open_bracket_lt", true);
+    	ASTNode tryStmnt = new ASTNode(NodeKind.TRY_STATEMENT, null, curLine);
+    	expect(TokenCode.TRY_KW, false);
+    	expect(TokenCode.OPEN_BRACKET_LT, true);
     	//nextNonSpace();
     	tryStmnt.addChild(block());
     	tryStmnt.addChild(catches());
@@ -1697,7 +1862,7 @@ public class Parser {
     ASTNode catches() throws Exception
     {
     	enterNT("catches");
-    	ASTNode cat = new ASTNode("catches", null, curTok.getLine());
+    	ASTNode cat = new ASTNode(NodeKind.CATCHES, null, curLine);
     	while (curTok.tokenCode == 1031) // catch_kw
     	{
     		cat.addChild(catchClause());
@@ -1711,13 +1876,13 @@ public class Parser {
     ASTNode catchClause() throws Exception
     {
     	enterNT("catchClause");
-    	ASTNode catch_clause = new ASTNode("catch clause", null, curTok.getLine());
-    	expect("catch_kw", false);
-    	expect("(_op", true);
+    	ASTNode catch_clause = new ASTNode(NodeKind.CATCH_CLAUSE, null, curLine);
+    	expect(TokenCode.CATCH_KW, false);
+    	expect(TokenCode.OPEN_PAREN_OP, true);
     	nextNonSpace(); // move past (
     	catch_clause.addChild(formalParameter());
-    	expect(")_op", false);
-    	expect("open_bracket_lt", true);
+    	expect(TokenCode.CLOSE_PAREN_OP, false);
+    	expect(TokenCode.OPEN_BRACKET_LT, true);
     	catch_clause.addChild(block());
     	exitNT("catchClause");
     	return catch_clause;
@@ -1728,9 +1893,9 @@ public class Parser {
     ASTNode tryFinally() throws Exception
     {
     	enterNT("tryFinally");
-    	expect("finally_kw", false);
-    	ASTNode try_finally = new ASTNode("try finally", null, curTok.getLine());
-    	expect("open_bracket_lt", true);
+    	expect(TokenCode.FINALLY_KW, false);
+    	ASTNode try_finally = new ASTNode(NodeKind.TRY_FINALLY, null, curLine);
+    	expect(TokenCode.OPEN_BRACKET_LT, true);
     	try_finally.addChild(block());
     	exitNT("tryFinally");
     	return try_finally;
@@ -1741,9 +1906,9 @@ public class Parser {
     ASTNode forStatement() throws Exception
     {
         enterNT("forStatement");
-        expect("for_kw", false);
+        expect(TokenCode.FOR_KW, false);
         ASTNode forStmnt = null;
-        expect("(_op", true);
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); //move past (
 
         // **BEGIN checking for colon token, which will determine whether
@@ -1753,44 +1918,44 @@ public class Parser {
         boolean identFound = false;
 
         if (isType()) {
-            isForEach = lookAhead(1).tokenName() == "identifier"
-                        && lookAhead(2).tokenName() == "colon_lt";
+            isForEach = lookAhead(1).tokenCode() == TokenCode.IDENTIFIER
+                        && lookAhead(2).tokenCode() == TokenCode.COLON_LT;
         }
 
         if (debug && isForEach) System.out.println("Is a foreach statement.");
         // END check for colon token**
 
         if (isForEach) {
-            forStmnt = new ASTNode("foreach statement",null, curTok.getLine());
+            forStmnt = new ASTNode(NodeKind.FOREACH_STATEMENT,null, curLine);
             nextNonSpace(); // skip type
             forStmnt.addChild(primary());
             nextNonSpace(); // skip colon
             forStmnt.addChild(expression());
         } else {
-            forStmnt = new ASTNode("for statement",null, curTok.getLine());
-            if(curTok.tokenName() == "semi_colon_lt")
+            forStmnt = new ASTNode(NodeKind.FOR_STATEMENT,null, curLine);
+            if(curTok.tokenCode() == TokenCode.SEMI_COLON_LT)
             {
-                forStmnt.addChild(new ASTNode("for init",null, curTok.getLine()));
+                forStmnt.addChild(new ASTNode(NodeKind.FOR_INIT,null, curLine));
                 nextNonSpace(); //move past ';'
             }
             else
             {
                 forStmnt.addChild(forInit());
             }
-            if(curTok.tokenName() == "semi_colon_lt")
+            if(curTok.tokenCode() == TokenCode.SEMI_COLON_LT)
             {
-                forStmnt.addChild(new ASTNode("expression",null, curTok.getLine()));
+                forStmnt.addChild(new ASTNode(NodeKind.EXPRESSION,null, curLine));
                 nextNonSpace(); //move past ';'
             }
             else
             {
                 forStmnt.addChild(expression());
-                expect("semi_colon_lt", false);
+                expect(TokenCode.SEMI_COLON_LT, false);
                 nextNonSpace(); // move past ;
             }
-            if(curTok.tokenName() == "semi_colon_lt")
+            if(curTok.tokenCode() == TokenCode.SEMI_COLON_LT)
             {
-                forStmnt.addChild(new ASTNode("for update",null, curTok.getLine()));
+                forStmnt.addChild(new ASTNode(NodeKind.FOR_UPDATE,null, curLine));
                 nextNonSpace(); //move past ';'
             }
             else
@@ -1799,8 +1964,8 @@ public class Parser {
             }
         }
 
-        expect(")_op", false);
-        expect("open_bracket_lt", true);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
+        expect(TokenCode.OPEN_BRACKET_LT, true);
         forStmnt.addChild(statement());
         exitNT("for statement");
         return forStmnt;
@@ -1811,7 +1976,7 @@ public class Parser {
 ASTNode forInit() throws Exception
     {
         enterNT("forInit");
-        ASTNode forIn = new ASTNode("for init",null, curTok.getLine());
+        ASTNode forIn = new ASTNode(NodeKind.FOR_INIT,null, curLine);
         do
         {
             //TODO: ADD modifiers as possible indicators
@@ -1824,9 +1989,9 @@ ASTNode forInit() throws Exception
                 forIn.addChild(statementExpressionList());
                 nextNonSpace(); //advance past ;
             }
-            System.out.println(curTok.getLiteral());
+            if (debug) System.out.println(curTok.getLiteral());
         }
-        while(lastTok.tokenName() != "semi_colon_lt");
+        while(lastTok.tokenCode() != TokenCode.SEMI_COLON_LT);
         exitNT("forInit");
         return forIn;
     }
@@ -1836,7 +2001,7 @@ ASTNode forInit() throws Exception
     ASTNode forUpdate() throws Exception
     {
         enterNT("forUpdate");
-        ASTNode forUp = new ASTNode("for update",null, curTok.getLine());
+        ASTNode forUp = new ASTNode(NodeKind.FOR_UPDATE,null, curLine);
         forUp.addChild(statementExpressionList());
         exitNT("forUpdate");
         return forUp;
@@ -1848,7 +2013,7 @@ ASTNode forInit() throws Exception
     ASTNode statementExpressionList() throws Exception
     {
         enterNT("statementExpressionList");
-        ASTNode stmntExpList = new ASTNode("statement expression list",null, curTok.getLine());
+        ASTNode stmntExpList = new ASTNode(NodeKind.STATEMENT_EXPRESSION_LIST,null, curLine);
         boolean moreStmnts = true;
         while(moreStmnts)
         {
@@ -1872,7 +2037,7 @@ ASTNode forInit() throws Exception
     ASTNode typeDeclarations() throws Exception
 	{
 		enterNT("typeDeclarations");
-        ASTNode typeDecs = new ASTNode("type declarations",null, curTok.getLine());
+        ASTNode typeDecs = new ASTNode(NodeKind.TYPE_DECLARATIONS,null, curLine);
         while(curTok.tokenCode() != 4001) // EOF
         {
             typeDecs.addChild(classDeclaration());
@@ -1887,24 +2052,24 @@ ASTNode forInit() throws Exception
     ASTNode classInstanceCreationExpression() throws Exception
     {
         enterNT("classInstanceCreationExpression");
-        ASTNode clsInst = new ASTNode("class instance creation expression",null, curTok.getLine());
-        expect("new_kw", false);
+        ASTNode clsInst = new ASTNode(NodeKind.CLASS_INSTANCE_CREATION_EXPRESSION,null, curLine);
+        expect(TokenCode.NEW_KW, false);
         nextNonSpace(); //advance past new
-        if(!references.contains(curTok.getLiteral()))
+        if(!symbols.isType(curTok.getLiteral()) && !forwardType())
         {
-            errorMsg("reference type", curTok.getLine(), curTok.getPos());
+            errorMsg("reference type", curLine, curPos);
         }
-        clsInst.addChild(new ASTNode("reference type",curTok.getLiteral(), curTok.getLine()));
-        expect("(_op", true);
+        clsInst.addChild(new ASTNode(NodeKind.REFERENCE_TYPE,curTok.getLiteral(), curLine));
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); // move past (
-        if(curTok.tokenName() == ")_op")
+        if(curTok.tokenCode() == TokenCode.CLOSE_PAREN_OP)
         {
-            clsInst.addChild(new ASTNode("argument list",null, curTok.getLine()));
+            clsInst.addChild(new ASTNode(NodeKind.ARGUMENT_LIST,null, curLine));
         }else
         {
             clsInst.addChild(argumentList());
         }
-        expect(")_op", false);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
         nextNonSpace(); // advance past )
         exitNT("classInstanceCreationExpression");
         return clsInst;
@@ -1915,22 +2080,19 @@ ASTNode forInit() throws Exception
     ASTNode classDeclaration() throws Exception
     {
         enterNT("classDeclaration");
-        ASTNode classDec = new ASTNode("class declaration",null, curTok.getLine());
+        ASTNode classDec = new ASTNode(NodeKind.CLASS_DECLARATION,null, curLine);
         if(isModifier(null))
         {
             classDec.addChild(handleModifiers("class"));
         }else{
             // create null place holder
-            classDec.addChild(new ASTNode("modifiers",null, curTok.getLine()));
+            classDec.addChild(new ASTNode(NodeKind.MODIFIERS,null, curLine));
         }
         
-        expect("class_kw", false);
-        expect("identifier", true);
-        classDec.addChild(new ASTNode("identifier",curTok.getLiteral(), curTok.getLine()));
-        if(!references.contains(curTok.getLiteral()))
-        {
-            references.add(curTok.getLiteral());
-        }
+        expect(TokenCode.CLASS_KW, false);
+        expect(TokenCode.IDENTIFIER, true);
+        classDec.addChild(new ASTNode(NodeKind.IDENTIFIER,curTok.getLiteral(), curLine));
+        symbols.addClass(curTok.getLiteral());
         nextNonSpace(); // advance past identifier
         classDec.addChild(classBody());
         exitNT("classDeclaration");
@@ -1989,14 +2151,14 @@ ASTNode forInit() throws Exception
     ASTNode handleModifiers(String type) throws Exception
     {
         enterNT("handleModifiers");
-        ASTNode mod = new ASTNode("modifiers",null, curTok.getLine());
+        ASTNode mod = new ASTNode(NodeKind.MODIFIERS,null, curLine);
         while(isModifier(null))
         {
             if(!isModifier(type))
             {
-                customErrorMsg(curTok.getLiteral() + " is not a " + type + " modifier", curTok.getLine(), curTok.getPos());
+                customErrorMsg(curTok.getLiteral() + " is not a " + type + " modifier", curLine, curPos);
             }
-            mod.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine()));
+            mod.addChild(new ASTNode(curTok, curLine));
             nextNonSpace(); // advance past modifier
         }
         exitNT("handleModifiers");
@@ -2008,15 +2170,15 @@ ASTNode forInit() throws Exception
     ASTNode classBody() throws Exception
     {
         enterNT("classBody");
-        ASTNode clsBody = new ASTNode("class body",null, curTok.getLine());
-        expect("open_bracket_lt", false);
-        String s = nextNonSpace();
+        ASTNode clsBody = new ASTNode(NodeKind.CLASS_BODY,null, curLine);
+        expect(TokenCode.OPEN_BRACKET_LT, false);
+        int s = nextNonSpace();
         // if not } then contains block statements
-        if(s != "close_bracket_lt"){
+        if(s != TokenCode.CLOSE_BRACKET_LT){
             clsBody.addChild(classBodyDeclarations());
         } 
         // checks that current token is a }
-        expect("close_bracket_lt", false);
+        expect(TokenCode.CLOSE_BRACKET_LT, false);
         nextNonSpace(); //advance past the close bracket
         exitNT("classBody");
         return clsBody;
@@ -2028,13 +2190,13 @@ ASTNode forInit() throws Exception
     ASTNode classBodyDeclarations() throws Exception
     {
         enterNT("classBodyDeclarations");
-        ASTNode clsBodyDecs = new ASTNode("class body declarations",null, curTok.getLine());
+        ASTNode clsBodyDecs = new ASTNode(NodeKind.CLASS_BODY_DECLARATIONS,null, curLine);
         while(curTok.tokenCode() != 3004 && curTok.tokenCode != 1026 && curTok.tokenCode != 1007) // close_bracket_lt, 4001 = EOF 1026 = case_kw, 1007 = default_kw
         {
             // error msg if reach EOF while parsing
             if(curTok.tokenCode() == 4001)
             {
-                errorMsg("}",curTok.getLine(), curTok.getPos());
+                errorMsg("}",curLine, curPos);
             }
             //check if constructor or method/field declaration
             if(isConstructor()){
@@ -2049,28 +2211,21 @@ ASTNode forInit() throws Exception
     //Looks ahead to see if the current statement is a constructor declaration or a method/field declartion
     boolean isConstructor() throws Exception
     {
-        JavaToken tok = curTok;
-        int n = 0;
+        boolean retVal = false;
+        mark(); // read ahead speculatively and go back afterwards
         //if modifier but not constructor mod then not constructor 
-        if(isModifier(null)){
-            if(!isModifier("constructor")){
-                return false;
+        if(!isModifier(null) || isModifier("constructor")){
+            if(isModifier(null)){
+                nextNonSpace();
             }
-            else{
-                tok = lookAhead(++n);
+            // if not a class type then it can't be a contructor declaration
+            // need to have an ( after it to fully indicate a constructor vs a class result type for a method
+            if(symbols.isType(curTok.getLiteral()) && nextNonSpace() == TokenCode.OPEN_PAREN_OP){
+                retVal = true;
             }
         }
-        // if not a class type then it can't be a contructor declaration
-        if(!references.contains(tok.getLiteral())){
-            return false;
-        }else{
-            tok = lookAhead(++n);
-        }
-        // need to have an ( here to fully indicate a constructor vs a class result type for a method
-        if(tok.tokenName() != "(_op"){
-            return false;
-        }
-        return true;
+        reset();
+        return retVal;
     }
     /*
     * <constructor declaration> ::= <constructor modifiers>? <constructor declarator> <throws>? <constructor body>
@@ -2078,12 +2233,12 @@ ASTNode forInit() throws Exception
     ASTNode constructorDeclaration() throws Exception
     {
         enterNT("constructorDeclaration");
-        ASTNode conDec = new ASTNode("constructor declaration", null, curTok.getLine());
+        ASTNode conDec = new ASTNode(NodeKind.CONSTRUCTOR_DECLARATION, null, curLine);
         if(isModifier(null))
         {
             conDec.addChild(handleModifiers("method"));
         }else{
-            conDec.addChild(new ASTNode("modifiers",null, curTok.getLine()));
+            conDec.addChild(new ASTNode(NodeKind.MODIFIERS,null, curLine));
         }
         conDec.addChild(constructorDeclarator());
         // TODO handle throws
@@ -2097,21 +2252,21 @@ ASTNode forInit() throws Exception
     ASTNode constructorDeclarator() throws Exception
     {
         enterNT("constructorDeclarator");
-        ASTNode conDec = new ASTNode("constructor declarator", null, curTok.getLine());
-        if(!references.contains(curTok.getLiteral())){
-			errorMsg("reference type", curTok.getLine(), curTok.getPos());
+        ASTNode conDec = new ASTNode(NodeKind.CONSTRUCTOR_DECLARATOR, null, curLine);
+        if(!symbols.isType(curTok.getLiteral())){
+			errorMsg("reference type", curLine, curPos);
         }
-        conDec.addChild(new ASTNode("identifier", curTok.getLiteral(), curTok.getLine()));
-        expect("(_op", true);
+        conDec.addChild(new ASTNode(NodeKind.IDENTIFIER, curTok.getLiteral(), curLine));
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); // move past (
-        if(curTok.tokenName() == ")_op")
+        if(curTok.tokenCode() == TokenCode.CLOSE_PAREN_OP)
         {
-            conDec.addChild(new ASTNode("formal parameter list",null, curTok.getLine()));
+            conDec.addChild(new ASTNode(NodeKind.FORMAL_PARAMETER_LIST,null, curLine));
         }else
         {
             conDec.addChild(formalParameterList());
         }
-        expect(")_op", false);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
         nextNonSpace(); // advance past )
         exitNT("constructorDeclarator");
         return conDec;
@@ -2122,18 +2277,18 @@ ASTNode forInit() throws Exception
     ASTNode constructorBody() throws Exception
     {
         enterNT("constructorBody");
-        ASTNode conBody = new ASTNode("constructor body", null, curTok.getLine());
-        expect("open_bracket_lt", false);
-        String s = nextNonSpace();
+        ASTNode conBody = new ASTNode(NodeKind.CONSTRUCTOR_BODY, null, curLine);
+        expect(TokenCode.OPEN_BRACKET_LT, false);
+        int s = nextNonSpace();
         // if not } then contains explicit constructor statements or block statements
-        if(s != "close_bracket_lt"){
-            if((s == "super_kw" || s == "this_kw") && lookAhead(1).tokenName() == "(_op"){
+        if(s != TokenCode.CLOSE_BRACKET_LT){
+            if((s == TokenCode.SUPER_KW || s == TokenCode.THIS_KW) && lookAhead(1).tokenCode() == TokenCode.OPEN_PAREN_OP){
                 conBody.addChild(explicitConstructorInvocation());
             }
             conBody.addChild(blockStatements());
         } 
         // checks that current token is a }
-        expect("close_bracket_lt", false);
+        expect(TokenCode.CLOSE_BRACKET_LT, false);
         nextNonSpace(); //advance past the close bracket
         exitNT("constructorBody");
         return conBody;
@@ -2144,20 +2299,20 @@ ASTNode forInit() throws Exception
     ASTNode explicitConstructorInvocation() throws Exception
     {
         enterNT("explicitConstructorInvocation");
-        ASTNode expConInv = new ASTNode("explicit constructor invocation", null, curTok.getLine());
+        ASTNode expConInv = new ASTNode(NodeKind.EXPLICIT_CONSTRUCTOR_INVOCATION, null, curLine);
         // add super or this
-        expConInv.addChild(new ASTNode(curTok.tokenName(),curTok.getLiteral(), curTok.getLine()));
-        expect("(_op", true); 
+        expConInv.addChild(new ASTNode(curTok, curLine));
+        expect(TokenCode.OPEN_PAREN_OP, true); 
         nextNonSpace(); // move past (
-        if(curTok.tokenName() == ")_op")
+        if(curTok.tokenCode() == TokenCode.CLOSE_PAREN_OP)
         {
-            expConInv.addChild(new ASTNode("argument list",null, curTok.getLine()));
+            expConInv.addChild(new ASTNode(NodeKind.ARGUMENT_LIST,null, curLine));
         }else
         {
             expConInv.addChild(argumentList());
         }
-        expect(")_op", false);
-        expect("semi_colon_lt", true);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
+        expect(TokenCode.SEMI_COLON_LT, true);
         nextNonSpace(); // advance past ;
         exitNT("explicitConstructorInvocation");
         return expConInv;
@@ -2169,15 +2324,10 @@ ASTNode forInit() throws Exception
     {
         enterNT("classMemberDeclaration");
         ASTNode clsMemDec = null;
-        ArrayList<String> find = new ArrayList<String>();
-        find.add("EOF");
-        find.add("semi_colon_lt");
-        find.add("class_kw");
-        find.add("(_op");
-        String fToken = lookAheadToFind(find);
-        if(fToken == "class_kw"){
+        int fToken = lookAheadToFind(TokenCode.EOF, TokenCode.SEMI_COLON_LT, TokenCode.CLASS_KW, TokenCode.OPEN_PAREN_OP);
+        if(fToken == TokenCode.CLASS_KW){
             clsMemDec = classDeclaration();
-        }else if(fToken == "(_op"){
+        }else if(fToken == TokenCode.OPEN_PAREN_OP){
             clsMemDec = methodDeclaration();
         }else{
             clsMemDec = fieldDeclaration();
@@ -2191,21 +2341,21 @@ ASTNode forInit() throws Exception
     ASTNode fieldDeclaration() throws Exception
     {
         enterNT("fieldDeclaration");
-        ASTNode fieldDec = new ASTNode("field declaration",null, curTok.getLine());
+        ASTNode fieldDec = new ASTNode(NodeKind.FIELD_DECLARATION,null, curLine);
         if(isModifier(null))
         {
             fieldDec.addChild(handleModifiers("field"));
         }else{
             //create null placeholder
-            fieldDec.addChild(new ASTNode("modifiers",null, curTok.getLine()));
+            fieldDec.addChild(new ASTNode(NodeKind.MODIFIERS,null, curLine));
         }
 		if(!isType()) 
 		{
-			errorMsg("type", curTok.getLine(), curTok.getPos());
+			errorMsg("type", curLine, curPos);
         }
         fieldDec.addChild(type());
         fieldDec.addChild(variableDeclarators());
-        expect("semi_colon_lt", false);
+        expect(TokenCode.SEMI_COLON_LT, false);
         nextNonSpace(); //advance past ;
 		exitNT("fieldDeclaration");
         return fieldDec;
@@ -2216,7 +2366,7 @@ ASTNode forInit() throws Exception
     ASTNode methodDeclaration() throws Exception
     {
         enterNT("methodDeclaration");
-        ASTNode methDec = new ASTNode("method declaration", null, curTok.getLine());
+        ASTNode methDec = new ASTNode(NodeKind.METHOD_DECLARATION, null, curLine);
         methDec.addChild(methodHeader());
         methDec.addChild(block());
         exitNT("methodDeclaration");
@@ -2228,20 +2378,20 @@ ASTNode forInit() throws Exception
     ASTNode methodHeader() throws Exception
     {
         enterNT("method header");
-        ASTNode methHeader = new ASTNode("method header", null, curTok.getLine());
+        ASTNode methHeader = new ASTNode(NodeKind.METHOD_HEADER, null, curLine);
         if(isModifier(null))
         {
             methHeader.addChild(handleModifiers("method"));
         }else{
-            methHeader.addChild(new ASTNode("modifiers",null, curTok.getLine()));
+            methHeader.addChild(new ASTNode(NodeKind.MODIFIERS,null, curLine));
         }
-        if(!isType() && curTok.tokenName() != "void_kw")
+        if(!isType() && curTok.tokenCode() != TokenCode.VOID_KW)
 		{
-			errorMsg("type", curTok.getLine(), curTok.getPos());
+			errorMsg("type", curLine, curPos);
         }
-        if(curTok.tokenName() == "void_kw")
+        if(curTok.tokenCode() == TokenCode.VOID_KW)
         {
-            methHeader.addChild(new ASTNode("primative type", "void_kw", curTok.getLine()));
+            methHeader.addChild(new ASTNode(NodeKind.PRIMATIVE_TYPE, "void_kw", curLine));
             nextNonSpace(); //advance past void
         }else{
             methHeader.addChild(type());
@@ -2257,19 +2407,19 @@ ASTNode forInit() throws Exception
     ASTNode methodDeclarator() throws Exception
     {
         enterNT("method declarator");
-        ASTNode methDec = new ASTNode("method declarator", null, curTok.getLine());
-        expect("identifier", false);
-        methDec.addChild(new ASTNode("identifier", curTok.getLiteral(), curTok.getLine()));
-        expect("(_op", true);
+        ASTNode methDec = new ASTNode(NodeKind.METHOD_DECLARATOR, null, curLine);
+        expect(TokenCode.IDENTIFIER, false);
+        methDec.addChild(new ASTNode(NodeKind.IDENTIFIER, curTok.getLiteral(), curLine));
+        expect(TokenCode.OPEN_PAREN_OP, true);
         nextNonSpace(); // move past (
-        if(curTok.tokenName() == ")_op")
+        if(curTok.tokenCode() == TokenCode.CLOSE_PAREN_OP)
         {
-            methDec.addChild(new ASTNode("formal parameter list",null, curTok.getLine()));
+            methDec.addChild(new ASTNode(NodeKind.FORMAL_PARAMETER_LIST,null, curLine));
         }else
         {
             methDec.addChild(formalParameterList());
         }
-        expect(")_op", false);
+        expect(TokenCode.CLOSE_PAREN_OP, false);
         nextNonSpace(); // advance past )
         exitNT("method declarator");
         return methDec;
@@ -2280,12 +2430,12 @@ ASTNode forInit() throws Exception
     ASTNode formalParameterList() throws Exception
     {
         enterNT("formalParameterList");
-        ASTNode paramList = new ASTNode("formal parameter list",null, curTok.getLine());
+        ASTNode paramList = new ASTNode(NodeKind.FORMAL_PARAMETER_LIST,null, curLine);
         boolean cont = false;
         do{
             paramList.addChild(formalParameter());
             // check for an additional param
-            if(curTok.tokenName() == "comma_lt")
+            if(curTok.tokenCode() == TokenCode.COMMA_LT)
             {
                 nextNonSpace(); //advance past ,
                 cont = true;
@@ -2303,7 +2453,7 @@ ASTNode forInit() throws Exception
     ASTNode formalParameter() throws Exception
     {
         enterNT("formalParameter");
-        ASTNode formalParam = new ASTNode("formal parameter",null, curTok.getLine());
+        ASTNode formalParam = new ASTNode(NodeKind.FORMAL_PARAMETER,null, curLine);
         formalParam.addChild(type());
         formalParam.addChild(variableDeclaratorID());
         exitNT("formalParameter");
@@ -2336,40 +2486,19 @@ ASTNode forInit() throws Exception
         }
     }
     /*
-    * Prints the complete AST starting at the root
+    * Prints the complete AST under the root, one node per line indented by its depth
     */ 
     void printTree(ASTNode root){
-        ArrayList<ASTNode> stack = new ArrayList<ASTNode>();
-        ArrayList<String> visited = new ArrayList<String>();
-        ASTNode parentNode = new ASTNode("start",null, curTok.getLine());
-        parentNode.setDepth(0);
-        stack.add(root);
-        visited.add(root.getKey());
-        while (stack.size() > 0)
+        try
         {
-            boolean keepParent = false;
-            // don't need childless nodes
-            if(stack.get(stack.size() -1).childCount() == 0){
-                stack.remove(stack.size() -1);
-            }
-            else{
-                parentNode = stack.get(stack.size() - 1);
-            }
-            ArrayList<ASTNode> children = parentNode.getChildren();
-            for(ASTNode child : children){
-                if(!visited.contains(child.getKey())){
-                    keepParent = true;
-                    child.setDepth(parentNode.getDepth()+1);
-                    stack.add(child);
-                    child.print(); // print ASTNODE
-                    visited.add(child.getKey());
-                    break;
-                }
-            }
-            if (!keepParent)
-            {
-                stack.remove(stack.size() - 1);
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            for(ASTNode child : root.getChildren()){
+                ASTWriter.writeText(child, 0, out);
             }
+            out.flush();
+        }catch(IOException e)
+        {
+            e.printStackTrace();
         }
     }
     /*
@@ -0,0 +1,47 @@
+// Parser timings for Benchmark
+final class ParserBenchmark {
+    private ParserBenchmark() {}
+
+    // Every nesting level starts a new expression that looks ahead for its end, so walking the
+    // tokens one by one is quadratic in the depth while the indexed search is linear.
+    static void lookahead() throws Exception {
+        System.out.println(String.format("%-8s%-16s%-16s%-16s%-16s", "depth", "stream ms", "stream ns/lvl", "tokens ms", "tokens ns/lvl"));
+        for (int depth = 250; depth <= 4000; depth *= 2) {
+            String source = nested(depth);
+            long stream = Benchmark.best(() -> {
+                Parser p = Benchmark.quietParser();
+                p.setLexer(new LexScanner(source));
+                p.parse();
+            });
+            long tokens = Benchmark.best(() -> {
+                Parser p = Benchmark.quietParser();
+                p.setTokens(TokenArray.tokenize(source));
+                p.parse();
+            });
+            System.out.println(String.format("%-8d%-16.2f%-16d%-16.2f%-16d", depth, stream / 1e6, stream / depth, tokens / 1e6, tokens / depth));
+        }
+    }
+
+    // Each class adds the same number of tokens, so the time per class should stay flat
+    static void firstPass() throws Exception {
+        System.out.println(String.format("%-10s%-12s%-16s%-16s", "classes", "chars", "ms", "us/class"));
+        for (int classes = 50; classes <= 1600; classes *= 2) {
+            String source = Benchmark.classSource(classes);
+            long time = Benchmark.best(() -> new FirstPass(source));
+            System.out.println(String.format("%-10d%-12d%-16.2f%-16d", classes, source.length(), time / 1e6, time / classes / 1000));
+        }
+    }
+
+    // x = ((...(a + 1)...));
+    static String nested(int depth) {
+        StringBuilder sb = new StringBuilder("x = ");
+        for (int i = 0; i < depth; i++) {
+            sb.append('(');
+        }
+        sb.append("a + 1");
+        for (int i = 0; i < depth; i++) {
+            sb.append(')');
+        }
+        return sb.append(";\n").toString();
+    }
+}
@@ -1,8 +1,11 @@
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.io.FileWriter;
 import java.io.BufferedWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 
 public class ParserTest {
@@ -12,30 +15,78 @@ public class ParserTest {
         }
         String source = "";
         String filename = args[0];
+        boolean tokenArray = args.length > 1 && args[1].equals("tokens"); // tokenize up front with TokenArray
+        boolean stream = args.length > 1 && args[1].equals("stream"); // read the file through a small window instead of loading it
+        boolean mapped = args.length > 1 && args[1].equals("mapped"); // memory map the file instead of loading it
+        boolean json = args.length > 1 && args[1].equals("json"); // print the tree as JSON instead of indented text
         //BufferedWriter bw = null; // writes to output file
-        try {
-            source = new String (Files.readAllBytes(Paths.get(filename)));
-            System.out.println(source);
-        }catch (IOException e){
-            e.printStackTrace();
+        if(!stream && !mapped)
+        {
+            try {
+                source = new String (Files.readAllBytes(Paths.get(filename)));
+                System.out.println(source);
+            }catch (IOException e){
+                e.printStackTrace();
+            }
         }
         
         //String outFile = source + "-scanner_trace_file.txt";
         //bw = new BufferedWriter((new FileWriter(outFile)));
         // Initialize LexScanner with filename of source code
-        LexScanner l = new LexScanner(source);
         Parser p = new Parser();
-        p.setLexer(l);
-        p.parse();
+        long lexTime = 0;
+        FileChannel in = null;
+        if(tokenArray)
+        {
+            long start = System.nanoTime();
+            p.setTokens(TokenArray.tokenize(source));
+            lexTime = System.nanoTime() - start;
+        }else if(stream)
+        {
+            in = FileChannel.open(Paths.get(filename));
+            p.setLexer(new LexScanner(in));
+        }else if(mapped)
+        {
+            p.setLexer(new LexScanner(MappedSource.open(Paths.get(filename))));
+        }else
+        {
+            LexScanner l = new LexScanner(source);
+            p.setLexer(l);
+        }
+        if(json)
+        {
+            p.setPrintTree(false);
+        }
+        long start = System.nanoTime();
+        ASTNode program = p.parse();
+        long parseTime = System.nanoTime() - start;
+        if(in != null)
+        {
+            in.close();
+        }
         if(p.getErrorMsg() != null)
         {
             System.out.println(p.getErrorMsg());
         }
+        else if(json)
+        {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            ASTWriter.writeJson(program, out);
+            out.flush();
+        }
         ArrayList<Comment> comments = p.getComments();
         
         for(Comment c:comments){
             System.out.println("Line: " + c.getLine() + " - " + c.getComment());
         }
+        if(tokenArray)
+        {
+            System.out.println("Lex time: " + lexTime / 1000000.0 + " ms");
+            System.out.println("Parse time: " + parseTime / 1000000.0 + " ms");
+        }else
+        {
+            System.out.println("Lex and parse time: " + parseTime / 1000000.0 + " ms");
+        }
         
 //        String pStr = "".format("\n%-15s%-17s%-15s%-10s%-10s\n", "Lexeme", "Token", "Token Code", "Line", "Position");
 //        System.out.print(pStr);
@@ -1,42 +1,49 @@
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
 import java.util.Arrays;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
 
 public class PythonBuilder {
     private int cursor = 0;         // line location where cursor is at
-    private int indentFactor = 0;   // factor in which to indent a line
-    private int numLines = 0;       // number of lines currently committed
-                                    // to the file
-
     private int lineUID = 0;        // UID for line position
 
-    ArrayList<StringBuilder> sourceList;    // list of lines
-    ArrayList<Integer> indentList;          // list of line indents
+    LineStore lines;                        // lines and their indents, in order
 
-    HashMap<Integer, Integer> lineTabs;     // tabulations for line positioning
-    HashMap<Integer, Integer> lineMap;      // maps line in source-file to logical line
+    IntIntMap lineTabs;                     // tabulations for line positioning, tab to line id
+    int[] lineMap;                          // id of the logical line each line in source-file maps to,
+                                            // LineStore.NONE for lines not mapped yet
+
+    private String spaces = "";             // indent prefixes, the first 4*n chars indent a line n levels
 
     PythonBuilder() {
-        sourceList = new ArrayList<StringBuilder>();
-        indentList = new ArrayList<Integer>();
-        lineTabs = new HashMap<Integer, Integer>();
-        lineMap = new HashMap<Integer, Integer>();
+        lines = new LineStore();
+        lineTabs = new IntIntMap();
+        lineMap = new int[64];
+        Arrays.fill(lineMap, LineStore.NONE);
 
-        sourceList.add(new StringBuilder(""));
-        indentList.add(0);
+        lines.insert(0, new StringBuilder(""), 0);
     }
 
-    int size() { return sourceList.size(); }
+    int size() { return lines.size(); }
 
     int getCursor() { return cursor; }
     void setCursor(int cursor) { this.cursor = cursor; }
 
     // tabulate line number
-    //   returns index to lineTab where lineNumber is stored
+    //   returns index to lineTab where the line is stored, the tab
+    //   follows the line as lines are added before it
     int tabLine(int lineNumber) {
-        lineTabs.put(lineUID, lineNumber);
+        lineTabs.put(lineUID, lines.at(lineNumber));
         return lineUID++;
     }
 
@@ -44,18 +51,18 @@ public class PythonBuilder {
     int tabLine() { return tabLine(cursor); }
 
     // get line tabulator
-    int getLineTab(int tabIndex) { return lineTabs.get(tabIndex); }
+    int getLineTab(int tabIndex) { return lines.position(lineTabs.get(tabIndex, LineStore.NONE)); }
 
     // destroys line tabulator
     //   using this is good practice after tabulator is no longer needed
     void destroyLineTab(int tabIndex) { lineTabs.remove(tabIndex); }
 
     boolean isEmpty() {
-        if (sourceList.size() != 0) {
+        if (lines.size() != 0) {
             boolean allStringsEmpty = true;
 
-            for (StringBuilder s : sourceList) {
-                allStringsEmpty = s.length() == 0;
+            for (int id = lines.first(); id != LineStore.NONE; id = lines.next(id)) {
+                allStringsEmpty = lines.text(id).length() == 0;
                 if (!allStringsEmpty) break;
             }
 
@@ -64,11 +71,13 @@ public class PythonBuilder {
     }
 
     void increaseIndent(int indentIndex, int offset) {
-        indentList.set(indentIndex, indentList.get(indentIndex) + offset);
+        int id = lines.at(indentIndex);
+        lines.setIndent(id, lines.indent(id) + offset);
     }
 
     void decreaseIndent(int indentIndex, int offset) {
-        indentList.set(indentIndex, indentList.get(indentIndex) - offset);
+        int id = lines.at(indentIndex);
+        lines.setIndent(id, lines.indent(id) - offset);
     }
 
     void increaseIndent(int offset) {
@@ -88,38 +97,55 @@ public class PythonBuilder {
     }
 
     void addSourceLine(int lineNumber) {
+        if (lineNumber >= lineMap.length) {
+            int oldLength = lineMap.length;
+            lineMap = Arrays.copyOf(lineMap, Math.max(lineNumber + 1, 2*oldLength));
+            Arrays.fill(lineMap, oldLength, lineMap.length, LineStore.NONE);
+        }
+
         int tempCursor = cursor;
-        for (; lineNumber > 0 && !lineMap.containsKey(lineNumber); lineNumber--) {
-            lineMap.put(lineNumber, (tempCursor > -1) ? tempCursor : 0);
+        for (; lineNumber > 0 && lineMap[lineNumber] == LineStore.NONE; lineNumber--) {
+            lineMap[lineNumber] = lines.at((tempCursor > -1) ? tempCursor : 0);
             tempCursor -= 1;
         }
     }
 
-    int mapLine(int lineNumber) {
-        if (lineMap.containsKey(lineNumber)) return lineMap.get(lineNumber);
-        else return -1;
+    // gets each line of the source with the Java line it came from
+    interface LineVisitor {
+        void visit(int line, int javaLine) throws IOException;
     }
 
-    // append to current line
-    void append(String app) { sourceList.get(cursor).append(app); }
-
-    void addLine(String line, int location) {
-        sourceList.add(location, new StringBuilder(line));
-        indentList.add(location, (location-1>-1) ? indentList.get(location-1) : 0);
-
-        for (int i : lineTabs.keySet()) {
-            if (lineTabs.get(i) >= location){
-                lineTabs.put(i, lineTabs.get(i)+1);
-            }
+    // forEachLine()
+    //   goes over the lines in order, giving the visitor each one's index and
+    //   source-file line, 0 for lines with none. When several source lines map
+    //   to one line it gets the first, the others being blank or comment lines
+    //   after it that addSourceLine() filled in
+    void forEachLine(LineVisitor visitor) throws IOException {
+        int[] javaLine = new int[lines.size()];
+        for (int lineNumber = lineMap.length - 1; lineNumber > 0; lineNumber--) {
+            if (lineMap[lineNumber] != LineStore.NONE) javaLine[lineMap[lineNumber]] = lineNumber;
         }
 
-        for (int i : lineMap.keySet()) {
-            if (lineMap.get(i) >= location){
-                lineMap.put(i, lineMap.get(i)+1);
-            }
+        int line = 0;
+        for (int id = lines.first(); id != LineStore.NONE; id = lines.next(id)) {
+            visitor.visit(line++, javaLine[id]);
         }
+    }
+
+    int mapLine(int lineNumber) {
+        if (lineNumber > 0 && lineNumber < lineMap.length && lineMap[lineNumber] != LineStore.NONE) {
+            return lines.position(lineMap[lineNumber]);
+        } else return -1;
+    }
+
+    // append to current line
+    void append(String app) { lines.text(lines.at(cursor)).append(app); }
 
-        numLines++;
+    // line tabs and source line mappings hold line ids, which
+    // stay the same, so an insert doesn't need to update them
+    void addLine(String line, int location) {
+        int indent = (location-1>-1) ? lines.indent(lines.at(location-1)) : 0;
+        lines.insert(location, new StringBuilder(line), indent);
     }
 
     void addLine(String line) {
@@ -140,9 +166,10 @@ public class PythonBuilder {
     }
 
     void subLine(int cursor, int beg, int end) {
-        StringBuilder line = sourceList.get(cursor);
+        int id = lines.at(cursor);
+        StringBuilder line = lines.text(id);
         if (end < 0) end = line.length() + end;
-        sourceList.set(cursor, new StringBuilder(line.substring(beg, end)));
+        lines.setText(id, new StringBuilder(line.substring(beg, end)));
     }
 
     void subLine(int beg, int end) {
@@ -177,36 +204,92 @@ public class PythonBuilder {
     }
 
     String getLine() {
-        return sourceList.get(cursor).toString();
+        return lines.text(lines.at(cursor)).toString();
     }
 
     ArrayList<String> getLines() {
         ArrayList<String> stringArray = new ArrayList<String>();
-        for (StringBuilder s : sourceList) { stringArray.add(s.toString()); }
+        for (int id = lines.first(); id != LineStore.NONE; id = lines.next(id)) {
+            stringArray.add(lines.text(id).toString());
+        }
         return stringArray;
     }
 
     String getLine(int lineIndex) {
-        return sourceList.get(lineIndex).toString();
+        return lines.text(lines.at(lineIndex)).toString();
     }
 
     String getCurrent() {
         return getLine(cursor);
     }
 
+    // number of chars indenting a line indent levels, spaces is made
+    // long enough to take them from
+    private int indentWidth(int indent) {
+        int width = Math.max(0, 4*indent);
+        if (width > spaces.length()) spaces = " ".repeat(Math.max(width, 2*spaces.length()));
+        return width;
+    }
+
     String getSource() {
         StringBuilder source = new StringBuilder("");
-        int indent = 0;
 
-        for (String s : getLines()) {
-            for (int i = 0; i < 4*indentList.get(indent); i++) {
-                source.append(' ');
-            }
-
-            source.append(s).append('\n');
-            indent += 1;
+        for (int id = lines.first(); id != LineStore.NONE; id = lines.next(id)) {
+            int width = indentWidth(lines.indent(id));
+            source.append(spaces, 0, width).append(lines.text(id)).append('\n');
         }
 
         return source.toString();
     }
+
+    // writeTo()
+    //   writes the source as getSource() returns it a line at a time,
+    //   without building it first
+    void writeTo(Writer out) throws IOException {
+        char[] chars = new char[256];
+
+        for (int id = lines.first(); id != LineStore.NONE; id = lines.next(id)) {
+            int width = indentWidth(lines.indent(id));
+            out.write(spaces, 0, width);
+
+            StringBuilder line = lines.text(id);
+            if (line.length() > chars.length) chars = new char[Math.max(line.length(), 2*chars.length)];
+            line.getChars(0, line.length(), chars, 0);
+            out.write(chars, 0, line.length());
+            out.write('\n');
+        }
+    }
+
+    // writeTo()
+    //   writes the source as UTF-8 a line at a time, encoding each
+    //   straight into a buffer that is written out whenever it fills up
+    void writeTo(WritableByteChannel out) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        CharBuffer newLine = CharBuffer.wrap("\n");
+
+        for (int id = lines.first(); id != LineStore.NONE; id = lines.next(id)) {
+            int width = indentWidth(lines.indent(id));
+            encode(encoder, CharBuffer.wrap(spaces, 0, width), buffer, out);
+            encode(encoder, CharBuffer.wrap(lines.text(id)), buffer, out);
+            encode(encoder, newLine.rewind(), buffer, out);
+        }
+
+        while (encoder.encode(CharBuffer.allocate(0), buffer, true).isOverflow()) drain(buffer, out);
+        while (encoder.flush(buffer).isOverflow()) drain(buffer, out);
+        drain(buffer, out);
+    }
+
+    private static void encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        while (encoder.encode(chars, buffer, false).isOverflow()) drain(buffer, out);
+    }
+
+    // writes out what the buffer holds and empties it
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) out.write(buffer);
+        buffer.clear();
+    }
 }
\ No newline at end of file
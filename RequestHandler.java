@@ -1,14 +1,47 @@
 package senior;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.HashMap;
 
 public class RequestHandler {
+    // The response map only holds Strings, so the body and source map are streamed into
+    // buffers by streamRequest and read back from them
     public Map<String,String> handleRequest(Map<String,String> event, Context context) throws Exception{ 
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteArrayOutputStream map = new ByteArrayOutputStream();
+        String statusCode = streamRequest(event, body, map, context);
+
+        // Load python code to return map
+        Map<String, String> retMap = new HashMap<String,String>();
+        retMap.put("statusCode", statusCode);
+        retMap.put("body", body.toString(StandardCharsets.UTF_8));
+        if (statusCode.equals("200")) {
+            retMap.put("sourceMap", map.toString(StandardCharsets.UTF_8));
+        }
+        return retMap;
+    }
+
+    // Same as handleRequest, but the body is written to out as UTF-8 instead of being
+    // built as one String, for callers that hand over the response stream.
+    // Returns the status code
+    public String streamRequest(Map<String,String> event, OutputStream out, Context context) throws Exception{
+        return streamRequest(event, out, null, context);
+    }
+
+    // As above, also streaming the source map of a successful translation to map
+    // when it isn't null
+    public String streamRequest(Map<String,String> event, OutputStream out, OutputStream map, Context context) throws Exception{
     	// Get source from the event
         String source = event.get("code");
-        
+
     	// Set up translator
         LexScanner l = new LexScanner(source);
         Parser p = new Parser();
@@ -20,24 +53,32 @@ public class RequestHandler {
         t.setCrashOnError(false);
         // Check for errors in parse then translate Java Code
         ASTNode program = p.parse();
-        String response = "";
-        String statusCode = "200";
         if(p.getErrorMsg() != null)
         {
-        	statusCode = "501";
-            response = p.getErrorMsg();
-        }else
-        {
-            t.finalize(program);
-            if (t.isErrorOccurred()) {
-                statusCode = "502";
-                response = t.getErrorMessage();
-            } else response = t.getSource();
+            out.write(p.getErrorMsg().getBytes(StandardCharsets.UTF_8));
+            return "501";
         }
-        // Load python code to return map
-        Map<String, String> retMap = new HashMap<String,String>();
-        retMap.put("statusCode", statusCode);
-        retMap.put("body", response);
-        return retMap;
+        t.finalize(program);
+        if (t.isErrorOccurred()) {
+            out.write(t.getErrorMessage().getBytes(StandardCharsets.UTF_8));
+            return "502";
+        }
+        t.writeTo(Channels.newChannel(out));
+        out.flush();
+        if (map != null) {
+            Writer mapOut = new BufferedWriter(new OutputStreamWriter(map, StandardCharsets.UTF_8));
+            t.writeSourceMap(mapOut, pythonName(event), javaName(event));
+            mapOut.flush();
+        }
+        return "200";
+    }
+
+    // names for the two files in the source map, from the event's optional "filename"
+    private static String javaName(Map<String,String> event) {
+        return event.getOrDefault("filename", "Main.java");
+    }
+
+    private static String pythonName(Map<String,String> event) {
+        return javaName(event).replaceFirst("\\.java$", "") + ".py";
     }
 }
\ No newline at end of file
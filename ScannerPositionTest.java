@@ -0,0 +1,63 @@
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+// Checks that CharScanner, used for tokens and stream mode, reports every token with the same literal and
+// at the same line and position as SourceArray, the default. Goes over every source in a folder and a few snippets for the
+// corners: end of file with and without a newline, trailing spaces, tabs, \r\n, comments and literals.
+// usage: java ScannerPositionTest [folder of java sources, TestJavaSourceFiles by default]
+public class ScannerPositionTest {
+    static final String[] SNIPPETS = {
+        "int i = 1\n",
+        "int i = 1",
+        "int i = 1;\n  int j = 2  \n",
+        "int i = 1;\n\tint j = 2 k;\n",
+        "int i = 1;\r\n  int j = 2;\r\n\r\n",
+        "int i = 1; /* c */ int j = 2 k;",
+        "int i = 1; // c\n    int j = 1.5e-3;",
+        "x = a / b;\n// last line",
+        "s = \"a\\\"b\";\n\tc = '\\t'; d = 10",
+        "t = \"\"\"\n    two\n    lines\"\"\";\n",
+    };
+
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : "TestJavaSourceFiles");
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        int failed = 0;
+        for (File f : files) {
+            failed += check(f.getName(), new String(Files.readAllBytes(f.toPath())));
+        }
+        for (int i = 0; i < SNIPPETS.length; i++) {
+            failed += check("snippet " + i, SNIPPETS[i]);
+        }
+        System.out.println(failed == 0 ? "all positions match" : "FAILED: " + failed + " sources differ");
+    }
+
+    // compares the tokens of source from SourceArray with CharScanner over the whole string and over a
+    // stream, prints the first difference, returns 1 if there was one
+    static int check(String name, String source) throws Exception {
+        String[] modes = {"tokens", "stream"};
+        for (String mode : modes) {
+            LexScanner expected = new LexScanner(source);
+            LexScanner actual = mode.equals("tokens") ? new LexScanner(source, true) : new LexScanner(new StringReader(source));
+            while (true) {
+                String want = trace(expected);
+                String got = trace(actual);
+                if (!want.equals(got)) {
+                    System.out.println("FAILED: " + name + " " + mode + ", expected " + want + " got " + got);
+                    return 1;
+                }
+                if (expected.getTokenCode() == TokenCode.EOF) break;
+            }
+        }
+        return 0;
+    }
+
+    // reads the next token and returns its code, literal, line and position
+    static String trace(LexScanner l) throws Exception {
+        l.nextToken();
+        return l.getTokenCode() + " [" + l.getJavaToken().getLiteral() + "] at " + l.getLine() + ":" + l.getPosition();
+    }
+}
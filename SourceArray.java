@@ -2,7 +2,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 // abstracts process of getting the next lexeme
-class SourceArray {
+class SourceArray implements LexSource {
     private int line; // current line
     private int pos; // current position
     private int nextPos; //next position (if correction necessary stores next lexeme position)
@@ -27,18 +27,18 @@ class SourceArray {
     }
 
     // Returns current line 1...n in source code
-    int currentLine(){
+    public int currentLine(){
         return line;
     }
 
     // Returns current position 1...n in current line
-    int currentPos(){
+    public int currentPos(){
         return pos;
     }
 
     // Returns the position of the start of the previous lexeme
 
-    void haltNext(int lastPos){
+    public void haltNext(int lastPos){
         //System.out.println("Halting next!");
         this.skip = true;
         this.nextPos = this.pos;
@@ -46,7 +46,7 @@ class SourceArray {
         this.nextLine = this.line;
     }
     
-    void haltNext(int lastPos, int lastLine){
+    public void haltNext(int lastPos, int lastLine){
         this.skip = true;
         this.nextPos = 1;
         this.pos = lastPos;
@@ -55,19 +55,22 @@ class SourceArray {
     }
 
     // Returns next lexeme in source file. Returns "EOF" if at end of file.
-    String nextLex(){
+    public String nextLex(){
         String lex;
         boolean winRLast = false;
         if(!(this.skip)){
             while(matcher.find()){
+                // \r \n and \t only ever match alone, so the first char tells them apart
+                // without building the group
+                char c = source.charAt(matcher.start());
                 // handles unix and windows newlines
-                if(matcher.group().matches("\\r")){
+                if(c == '\r'){
                     winRLast=true;
                     line++;
                     sourceIndex = sourceIndex++;
                     pos = 0;
                 }
-                else if(matcher.group().matches("\\n")){
+                else if(c == '\n'){
                     if(!winRLast){
                         line++;
                     }
@@ -75,7 +78,7 @@ class SourceArray {
                     sourceIndex++;
                     pos = 0;
                 }
-                else if(matcher.group().matches("\\t")){
+                else if(c == '\t'){
                     sourceIndex++;
                     pos++;
                 }
@@ -83,7 +86,7 @@ class SourceArray {
                     winRLast=false;
                     pos = pos + matcher.start() - sourceIndex;
                     sourceIndex = matcher.start();
-                    this.lex = matcher.group();
+                    this.lex = CharScanner.lexeme(source, matcher.start(), matcher.end());
                     return this.lex;
                 }
             }
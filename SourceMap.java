@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.io.Writer;
+
+// Writes which Java line each line of a PythonBuilder's output came from as a version 3 source map,
+// the JSON format JavaScript tools use, so a Python traceback can be taken back to the Java source:
+//   {"version":3,"file":<python file>,"sources":[<java file>],"names":[],"mappings":<mappings>}
+// mappings has a group per Python line, separated by ';'. A line that came from a Java line holds one
+// segment of four base64 VLQ numbers: generated column, source index, source line and source column,
+// each relative to the same number in the segment before. Columns and the source index are always
+// 0, so a segment only says how many lines on from the previous mapped line its Java line is.
+// Lines the translator added on its own, ex helper methods, have empty groups.
+final class SourceMap {
+    private SourceMap() {}
+
+    private static final String BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    // Writes the map for builder's output as it is now, file naming the Python and source the Java.
+    // Goes over the lines once, in order, writing as it goes
+    static void write(PythonBuilder builder, String file, String source, Writer out) throws IOException {
+        out.write("{\"version\":3,\"file\":");
+        ASTWriter.writeJsonString(file, out);
+        out.write(",\"sources\":[");
+        ASTWriter.writeJsonString(source, out);
+        out.write("],\"names\":[],\"mappings\":\"");
+
+        int[] previous = {0}; // 0 based Java line of the last segment
+        builder.forEachLine((line, javaLine) -> {
+            if (line > 0) out.write(';');
+            if (javaLine > 0) {
+                out.write("AA");
+                writeVlq(javaLine - 1 - previous[0], out);
+                out.write('A');
+                previous[0] = javaLine - 1;
+            }
+        });
+        out.write("\"}\n");
+    }
+
+    // writes value as base64 VLQ, the sign in the lowest bit and 5 bits per digit, low bits first
+    static void writeVlq(int value, Writer out) throws IOException {
+        int vlq = (value < 0) ? ((-value) << 1) | 1 : value << 1;
+        do {
+            int digit = vlq & 31;
+            vlq >>>= 5;
+            if (vlq != 0) digit |= 32; // more digits follow
+            out.write(BASE64.charAt(digit));
+        } while (vlq != 0);
+    }
+}
@@ -0,0 +1,119 @@
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/*
+    Names the parser and translator look up while working through a program: the type names it knows,
+    and for each class its methods with their parameter counts and its fields.
+    Filled from class declarations as the parser reaches them and from FirstPass once the parse is done.
+    Everything is hashed, so each lookup takes constant time. One table is shared by a Parser and the
+    Translator built on it.
+*/
+class SymbolTable {
+    // classes that are known without being declared in the source
+    static final String[] PREDEFINED_TYPES = { "Exception", "ArithmeticException" };
+
+    private final HashSet<String> types = new HashSet<String>(); // class names, declared or predefined
+    private final HashMap<String, ClassSymbols> classes = new HashMap<String, ClassSymbols>(); // declared classes by name
+
+    // methods and fields of one class
+    private static class ClassSymbols {
+        // parameter counts of each method name, bit n set if an overload takes n parameters
+        HashMap<String, BitSet> arities = new HashMap<String, BitSet>();
+        int methodCount; // methods declared, counting each overload
+        HashSet<String> fields = new HashSet<String>();
+    }
+
+    SymbolTable() {
+        for (String name : PREDEFINED_TYPES) {
+            types.add(name);
+        }
+    }
+
+    // Adds everything FirstPass found
+    void load(FirstPass fp) {
+        for (int i = 0; i < fp.classCount(); i++) {
+            addClass(fp.className(i));
+        }
+        for (int i = 0; i < fp.methodCount(); i++) {
+            addMethod(fp.className(fp.methodClass(i)), fp.methodName(i), fp.methodArity(i));
+        }
+        for (int i = 0; i < fp.fieldCount(); i++) {
+            addField(fp.className(fp.fieldClass(i)), fp.fieldName(i));
+        }
+    }
+
+    void addType(String name) {
+        types.add(name);
+    }
+
+    // Returns every known type name, in no particular order
+    String[] types() {
+        return types.toArray(new String[types.size()]);
+    }
+
+    // Returns true for a declared or predefined class name
+    boolean isType(String name) {
+        return types.contains(name);
+    }
+
+    // Returns true for a class declared in the source
+    boolean isClass(String name) {
+        return classes.containsKey(name);
+    }
+
+    // Adds a class declared in the source, which also makes it a known type
+    void addClass(String name) {
+        types.add(name);
+        symbols(name);
+    }
+
+    private ClassSymbols symbols(String cls) {
+        ClassSymbols s = classes.get(cls);
+        if (s == null) {
+            s = new ClassSymbols();
+            classes.put(cls, s);
+        }
+        return s;
+    }
+
+    void addMethod(String cls, String name, int arity) {
+        ClassSymbols s = symbols(cls);
+        BitSet bits = s.arities.get(name);
+        if (bits == null) {
+            bits = new BitSet();
+            s.arities.put(name, bits);
+        }
+        bits.set(arity);
+        s.methodCount++;
+    }
+
+    // Returns true if the class declares a method with this name
+    boolean hasMethod(String cls, String name) {
+        ClassSymbols s = classes.get(cls);
+        return s != null && s.arities.containsKey(name);
+    }
+
+    // Returns true if the class declares a method with this name taking arity parameters
+    boolean hasMethod(String cls, String name, int arity) {
+        ClassSymbols s = classes.get(cls);
+        BitSet bits = s == null ? null : s.arities.get(name);
+        return bits != null && bits.get(arity);
+    }
+
+    // Returns the number of methods the class declares, counting each overload
+    int methodCount(String cls) {
+        ClassSymbols s = classes.get(cls);
+        return s == null ? 0 : s.methodCount;
+    }
+
+    void addField(String cls, String name) {
+        symbols(cls).fields.add(name);
+    }
+
+    // Returns true if the class declares a field with this name
+    boolean hasField(String cls, String name) {
+        ClassSymbols s = classes.get(cls);
+        return s != null && s.fields.contains(name);
+    }
+}
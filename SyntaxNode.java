@@ -0,0 +1,117 @@
+import java.util.List;
+import java.util.Stack;
+import java.util.regex.Pattern;
+
+// Read only side of a node of the syntax tree, all the translator and ASTWriter need. ASTNode is the
+// node the parser builds, ArenaNode a view of a node packed into an ASTArena.
+// The queries over children and descendants are written once here against the accessors.
+interface SyntaxNode {
+    NodeKind getKind();
+
+    // code of the token held by a TOKEN or identifier leaf, 0 otherwise
+    int tokenCode();
+
+    // label of the kind, or the token name for a token leaf
+    String getType();
+
+    // value of the node, "" if it has none
+    String getValue();
+
+    // false if the node was built without a value
+    boolean hasValue();
+
+    int getLine();
+
+    // child nodes in order, the list can't be changed
+    List<? extends SyntaxNode> getChildren();
+
+    int childCount();
+
+    // kinds and token codes of all descendants as KindBits, null if there are none
+    long[] below();
+
+    // true if this is a leaf holding a token with this code
+    default boolean is(int code) {
+        return tokenCode() == code;
+    }
+
+    // returns the first descendant of kind 'kind' in the order
+    // printTree prints them, null if there is none
+    default SyntaxNode getChild(NodeKind kind) {
+        if (!containsAll(kind)) return null;
+
+        Stack<SyntaxNode> nodeStack = new Stack<SyntaxNode>();
+        nodeStack.push(this);
+
+        while (nodeStack.size() > 0) {
+            SyntaxNode node = nodeStack.pop();
+            if (node != this && node.getKind() == kind) return node;
+
+            List<? extends SyntaxNode> children = node.getChildren();
+            for (int i = children.size()-1; i > -1; i--) {
+                nodeStack.push(children.get(i));
+            }
+        }
+
+        return null;
+    }
+
+    // returns true if node contains a child of kind
+    // 'kind'
+    default boolean contains(NodeKind kind) {
+        for (SyntaxNode child : getChildren()) {
+            if (child.getKind() == kind) return true;
+        }
+
+        return false;
+    }
+
+    // returns true if node contains a leaf for a token
+    // with code 'code'
+    default boolean containsToken(int code) {
+        for (SyntaxNode child : getChildren()) {
+            if (child.tokenCode() == code) return true;
+        }
+
+        return false;
+    }
+
+    // returns true if node matches a child of type
+    // 'type'
+    default boolean contains(Pattern type) {
+        for (SyntaxNode child : getChildren()) {
+            if (type.matcher(child.getType()).find()) return true;
+        }
+
+        return false;
+    }
+
+    // returns true if node or any of its descendants contains
+    // a child of kind 'kind'
+    default boolean containsAll(NodeKind kind) {
+        return KindBits.has(below(), KindBits.kindBit(kind));
+    }
+
+    // returns true if node or any of its descendants contains
+    // a leaf for a token with code 'code'
+    default boolean containsAllTokens(int code) {
+        return KindBits.has(below(), KindBits.tokenBit(code));
+    }
+
+    // returns true if node or any of its descendants matches
+    // a child of type 'type'
+    default boolean containsAll(Pattern type) {
+        return KindBits.intersects(below(), KindBits.matching(type));
+    }
+
+    default boolean isMainMethod() {
+        List<? extends SyntaxNode> children = this.getChild(NodeKind.MODIFIERS).getChildren();
+        if (children.size() != 2 || !children.get(0).is(TokenCode.PUBLIC_KW) || !children.get(1).is(TokenCode.STATIC_KW)) return false;
+        children = this.getChild(NodeKind.METHOD_HEADER).getChildren();
+        if (!children.get(1).getValue().equals("void_kw")) return false;
+        children = this.getChild(NodeKind.METHOD_DECLARATOR).getChildren();
+        if (!children.get(0).getValue().equals("main")) return false;
+
+        return true;
+    }
+}
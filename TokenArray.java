@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+// Whole source tokenized up front into parallel primitive arrays (kind, start offset, length, line, column)
+// so the parser can read and look ahead by index instead of pulling tokens through a buffer.
+// Whitespace and comment tokens are kept in a separate trivia array so token indexes only count
+// tokens the parser cares about. The last token is always EOF.
+// After tokenizing, same-nesting-level links are indexed so lookahead searches can skip over
+// nested ( ) and [ ] groups instead of walking every token.
+class TokenArray {
+    private final CharSequence source; // source the offsets point into
+    private int[] kind; // token code
+    private int[] start; // index of the first char of the token in source
+    private int[] len; // number of chars in the token
+    private int[] line; // line 1...n
+    private int[] col; // column 1...n
+    private int size; // number of tokens stored
+    private TokenArray trivia; // whitespace and comments, null for a trivia array itself
+
+    private int[] nextSameLevel; // next token with the same ( and [ depth, -1 if none
+
+    private TokenArray(CharSequence source, int capacity) {
+        this.source = source;
+        this.kind = new int[capacity];
+        this.start = new int[capacity];
+        this.len = new int[capacity];
+        this.line = new int[capacity];
+        this.col = new int[capacity];
+        this.size = 0;
+    }
+
+    // Tokenizes the whole source with LexScanner over CharScanner
+    static TokenArray tokenize(String source) throws Exception {
+        LexScanner lexer = new LexScanner(source, true);
+        int capacity = Math.max(16, source.length() / 4); // rough guess, grows if needed
+        TokenArray tokens = new TokenArray(source, capacity);
+        tokens.trivia = new TokenArray(source, capacity);
+        int code;
+        do {
+            lexer.nextToken();
+            code = lexer.getTokenCode(); // no JavaToken or String is made for identifiers and literals
+            int start = lexer.getTokenStart();
+            TokenArray dest = isTrivia(code) ? tokens.trivia : tokens;
+            dest.add(code, start, lexer.getTokenEnd() - start, lexer.getLine(), lexer.getPosition());
+        } while (code != TokenCode.EOF);
+        tokens.indexBrackets();
+        return tokens;
+    }
+
+    // Fills nextSameLevel in one forward and one backward pass.
+    // Paren and square bracket depths are counted separately like Parser.lookAheadToFind does,
+    // so two tokens are on the same level when both depths before them are equal.
+    private void indexBrackets() {
+        nextSameLevel = new int[size];
+        int[] parLevel = new int[size]; // paren depth before each token
+        int[] braLevel = new int[size]; // square bracket depth before each token
+        int parDepth = 0;
+        int braDepth = 0;
+        int minPar = 0;
+        int maxPar = 0;
+        for (int i = 0; i < size; i++) {
+            parLevel[i] = parDepth;
+            braLevel[i] = braDepth;
+            switch (kind[i]) {
+                case TokenCode.OPEN_PAREN_OP:
+                    maxPar = Math.max(maxPar, ++parDepth);
+                    break;
+                case TokenCode.CLOSE_PAREN_OP:
+                    minPar = Math.min(minPar, --parDepth);
+                    break;
+                case TokenCode.OPEN_SQUARE:
+                    braDepth++;
+                    break;
+                case TokenCode.CLOSE_SQUARE:
+                    braDepth--;
+                    break;
+            }
+        }
+        // walk backwards remembering the last index seen on each level, a map from square bracket
+        // depth to index for each paren depth
+        IntIntMap[] lastOnLevel = new IntIntMap[maxPar - minPar + 1];
+        for (int i = size - 1; i >= 0; i--) {
+            int par = parLevel[i] - minPar;
+            if (lastOnLevel[par] == null) {
+                lastOnLevel[par] = new IntIntMap(4);
+            }
+            nextSameLevel[i] = lastOnLevel[par].get(braLevel[i], -1);
+            lastOnLevel[par].put(braLevel[i], i);
+        }
+    }
+
+    static boolean isTrivia(int code) {
+        return code == TokenCode.SPACE_LT || LexScanner.isComment(code);
+    }
+
+    private void add(int code, int start, int len, int line, int col) {
+        if (size == kind.length) {
+            int capacity = size * 2;
+            this.kind = Arrays.copyOf(this.kind, capacity);
+            this.start = Arrays.copyOf(this.start, capacity);
+            this.len = Arrays.copyOf(this.len, capacity);
+            this.line = Arrays.copyOf(this.line, capacity);
+            this.col = Arrays.copyOf(this.col, capacity);
+        }
+        this.kind[size] = code;
+        this.start[size] = start;
+        this.len[size] = len;
+        this.line[size] = line;
+        this.col[size] = col;
+        size++;
+    }
+
+    // Returns the number of tokens including the final EOF
+    int size() {
+        return size;
+    }
+
+    int kind(int i) {
+        return kind[i];
+    }
+
+    int start(int i) {
+        return start[i];
+    }
+
+    int length(int i) {
+        return len[i];
+    }
+
+    int line(int i) {
+        return line[i];
+    }
+
+    int col(int i) {
+        return col[i];
+    }
+
+    // Returns the next token after i with the same ( and [ depth, -1 if none
+    int nextSameLevel(int i) {
+        return nextSameLevel[i];
+    }
+
+    // Returns the index of the first token at or after i with a code in find and the same ( and [ depth
+    // as token i, or the EOF index if EOF comes first. Same result as Parser.lookAheadToFind walking
+    // the tokens one by one, but nested groups are skipped in one step.
+    int findAtLevel(int i, int[] find) {
+        int eof = size - 1;
+        while (i >= 0) {
+            int k = kind[i];
+            if (k == TokenCode.EOF) {
+                return i;
+            }
+            for (int f : find) {
+                if (f == k) {
+                    return i;
+                }
+            }
+            i = nextSameLevel[i];
+        }
+        return eof;
+    }
+
+    // Returns whitespace and comment tokens in source order
+    TokenArray trivia() {
+        return trivia;
+    }
+
+    CharSequence getSource() {
+        return source;
+    }
+
+    // Returns the literal of token i, matching what LexScanner puts in JavaToken.getLiteral()
+    String text(int i) {
+        JavaToken fixed = LexScanner.fixedToken(kind[i]);
+        if (fixed != null) {
+            return fixed.getLiteral();
+        }
+        if (kind[i] == TokenCode.SINGLE_LINE_COMMENT) {
+            // comment literal leaves out the leading //
+            return source.subSequence(start[i] + 2, start[i] + len[i]).toString();
+        }
+        if (kind[i] == TokenCode.BLOCK_COMMENT) {
+            // and /* */, the closing one is missing if the comment runs to the end of the source
+            int end = start[i] + len[i];
+            boolean closed = len[i] >= 4 && source.charAt(end - 2) == '*' && source.charAt(end - 1) == '/';
+            return source.subSequence(start[i] + 2, closed ? end - 2 : end).toString();
+        }
+        return source.subSequence(start[i], start[i] + len[i]).toString();
+    }
+
+    // Returns token i as a JavaToken. Keyword and operator tokens are the shared flyweights,
+    // others are created on each call
+    JavaToken token(int i) {
+        JavaToken fixed = LexScanner.fixedToken(kind[i]);
+        if (fixed != null) {
+            return fixed;
+        }
+        return new JavaToken(text(i), LexScanner.tokenName(kind[i]), kind[i]);
+    }
+}
@@ -0,0 +1,115 @@
+// Integer token kinds produced by LexScanner. Values match the codes in the LexScanner token table
+// so the parser can dispatch on ints instead of comparing token names.
+final class TokenCode {
+    private TokenCode() {}
+
+    // Keywords
+    static final int ABSTRACT_KW = 1001;
+    static final int CONTINUE_KW = 1002;
+    static final int FOR_KW = 1003;
+    static final int NEW_KW = 1004;
+    static final int SWITCH_KW = 1005;
+    static final int ASSERT_KW = 1006;
+    static final int DEFAULT_KW = 1007;
+    static final int GOTO_KW = 1008;
+    static final int PACKAGE_KW = 1009;
+    static final int SYNCHRONIZED_KW = 1010;
+    static final int BOOLEAN_KW = 1011;
+    static final int DO_KW = 1012;
+    static final int IF_KW = 1013;
+    static final int PRIVATE_KW = 1014;
+    static final int THIS_KW = 1015;
+    static final int BREAK_KW = 1016;
+    static final int DOUBLE_KW = 1017;
+    static final int IMPLEMENTS_KW = 1018;
+    static final int PROTECTED_KW = 1019;
+    static final int THROW_KW = 1020;
+    static final int BYTE_KW = 1021;
+    static final int ELSE_KW = 1022;
+    static final int IMPORT_KW = 1023;
+    static final int PUBLIC_KW = 1024;
+    static final int THROWS_KW = 1025;
+    static final int CASE_KW = 1026;
+    static final int ENUM_KW = 1027;
+    static final int INSTANCEOF_KW = 1028;
+    static final int RETURN_KW = 1029;
+    static final int TRANSIENT_KW = 1030;
+    static final int CATCH_KW = 1031;
+    static final int EXTENDS_KW = 1032;
+    static final int INT_KW = 1033;
+    static final int SHORT_KW = 1034;
+    static final int TRY_KW = 1035;
+    static final int CHAR_KW = 1036;
+    static final int FINAL_KW = 1037;
+    static final int INTERFACE_KW = 1038;
+    static final int STATIC_KW = 1039;
+    static final int VOID_KW = 1040;
+    static final int CLASS_KW = 1041;
+    static final int FINALLY_KW = 1042;
+    static final int LONG_KW = 1043;
+    static final int STRICTFP_KW = 1044;
+    static final int VOLATILE_KW = 1045;
+    static final int CONST_KW = 1046;
+    static final int FLOAT_KW = 1047;
+    static final int NATIVE_KW = 1048;
+    static final int SUPER_KW = 1049;
+    static final int WHILE_KW = 1050;
+    static final int STRING_KW = 1051;
+
+    // Operators
+    static final int OPEN_PAREN_OP = 2001; // (
+    static final int CLOSE_PAREN_OP = 2002; // )
+    static final int OPEN_SQUARE = 2003; // [
+    static final int CLOSE_SQUARE = 2004; // ]
+    static final int TILDE_OP = 2006; // ~
+    static final int NOT_OP = 2007; // !
+    static final int CARET_OP = 2008; // ^
+    static final int INCREMENT_OP = 2009; // ++
+    static final int DECREMENT_OP = 2010; // --
+    static final int UNSIGNED_SHIFT_RIGHT_OP = 2011; // >>>
+    static final int LESS_EQUAL_OP = 2012; // <=
+    static final int GREATER_EQUAL_OP = 2013; // >=
+    static final int EQUAL_EQUAL_OP = 2014; // ==
+    static final int NOT_EQUAL_OP = 2015; // !=
+    static final int AND_AND_OP = 2016; // &&
+    static final int QUESTION_OP = 2017; // ?
+    static final int PLUS_EQUALS_OP = 2018; // +=
+    static final int MINUS_EQUALS_OP = 2019; // -=
+    static final int TIMES_EQUALS_OP = 2020; // *=
+    static final int DIVIDE_EQUALS_OP = 2021; // /=
+    static final int MOD_EQUALS_OP = 2022; // %=
+    static final int PLUS_OP = 2023; // +
+    static final int MINUS_OP = 2024; // -
+    static final int TIMES_OP = 2025; // *
+    static final int DIVIDE_OP = 2026; // /
+    static final int MOD_OP = 2027; // %
+    static final int LESS_OP = 2028; // <
+    static final int GREATER_OP = 2029; // >
+    static final int SHIFT_LEFT_OP = 2030; // <<
+    static final int SHIFT_RIGHT_OP = 2031; // >>
+    static final int EQUALS_OP = 2032; // =
+    static final int AND_OP = 2033; // &
+    static final int OR_OP = 2034; // |
+    static final int OR_OR_OP = 2035; // ||
+
+    // Special characters and literals
+    static final int IDENTIFIER = 3001;
+    static final int INTEGER_LT = 3002;
+    static final int OPEN_BRACKET_LT = 3003; // {
+    static final int CLOSE_BRACKET_LT = 3004; // }
+    static final int COLON_LT = 3005;
+    static final int SEMI_COLON_LT = 3006;
+    static final int COMMA_LT = 3007;
+    static final int PERIOD_LT = 3008;
+    static final int SPACE_LT = 3009;
+    static final int DOUBLE_QUOTE_LT = 3010;
+    static final int SINGLE_QUOTE_LT = 3011;
+    static final int STRING_LT = 3012;
+    static final int SINGLE_LINE_COMMENT = 3014;
+    static final int DECIMAL_LT = 3015;
+    static final int NULL_LT = 3016;
+    static final int BLOCK_COMMENT = 3017;
+
+    static final int EOF = 4001;
+    static final int DNE = 5001; // does not exist
+}
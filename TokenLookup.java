@@ -0,0 +1,325 @@
+// Maps a slice of the source straight to the code of a keyword, operator or special character
+// token without building a String. Each lookup is a switch on the slice length and first char
+// followed by at most a few char compares. Covers the same entries as the LexScanner token table.
+final class TokenLookup {
+    private TokenLookup() {}
+
+    // Returns the token code for s[off, off + len), 0 if it is not a fixed token
+    static int code(CharSequence s, int off, int len) {
+        if (len <= 0) {
+            return 0;
+        }
+        if (CharScanner.isWordChar(s.charAt(off))) {
+            return keywordCode(s, off, len);
+        }
+        return operatorCode(s, off, len);
+    }
+
+    // keywords plus null and String
+    static int keywordCode(CharSequence s, int off, int len) {
+        switch (len) {
+            case 2:
+                switch (s.charAt(off)) {
+                    case 'd':
+                        if (rest(s, off, "do")) return TokenCode.DO_KW;
+                        break;
+                    case 'i':
+                        if (rest(s, off, "if")) return TokenCode.IF_KW;
+                        break;
+                }
+                break;
+            case 3:
+                switch (s.charAt(off)) {
+                    case 'f':
+                        if (rest(s, off, "for")) return TokenCode.FOR_KW;
+                        break;
+                    case 'i':
+                        if (rest(s, off, "int")) return TokenCode.INT_KW;
+                        break;
+                    case 'n':
+                        if (rest(s, off, "new")) return TokenCode.NEW_KW;
+                        break;
+                    case 't':
+                        if (rest(s, off, "try")) return TokenCode.TRY_KW;
+                        break;
+                }
+                break;
+            case 4:
+                switch (s.charAt(off)) {
+                    case 'b':
+                        if (rest(s, off, "byte")) return TokenCode.BYTE_KW;
+                        break;
+                    case 'c':
+                        if (rest(s, off, "case")) return TokenCode.CASE_KW;
+                        if (rest(s, off, "char")) return TokenCode.CHAR_KW;
+                        break;
+                    case 'e':
+                        if (rest(s, off, "else")) return TokenCode.ELSE_KW;
+                        if (rest(s, off, "enum")) return TokenCode.ENUM_KW;
+                        break;
+                    case 'g':
+                        if (rest(s, off, "goto")) return TokenCode.GOTO_KW;
+                        break;
+                    case 'l':
+                        if (rest(s, off, "long")) return TokenCode.LONG_KW;
+                        break;
+                    case 'n':
+                        if (rest(s, off, "null")) return TokenCode.NULL_LT;
+                        break;
+                    case 't':
+                        if (rest(s, off, "this")) return TokenCode.THIS_KW;
+                        break;
+                    case 'v':
+                        if (rest(s, off, "void")) return TokenCode.VOID_KW;
+                        break;
+                }
+                break;
+            case 5:
+                switch (s.charAt(off)) {
+                    case 'b':
+                        if (rest(s, off, "break")) return TokenCode.BREAK_KW;
+                        break;
+                    case 'c':
+                        if (rest(s, off, "catch")) return TokenCode.CATCH_KW;
+                        if (rest(s, off, "class")) return TokenCode.CLASS_KW;
+                        if (rest(s, off, "const")) return TokenCode.CONST_KW;
+                        break;
+                    case 'f':
+                        if (rest(s, off, "final")) return TokenCode.FINAL_KW;
+                        if (rest(s, off, "float")) return TokenCode.FLOAT_KW;
+                        break;
+                    case 's':
+                        if (rest(s, off, "short")) return TokenCode.SHORT_KW;
+                        if (rest(s, off, "super")) return TokenCode.SUPER_KW;
+                        break;
+                    case 't':
+                        if (rest(s, off, "throw")) return TokenCode.THROW_KW;
+                        break;
+                    case 'w':
+                        if (rest(s, off, "while")) return TokenCode.WHILE_KW;
+                        break;
+                }
+                break;
+            case 6:
+                switch (s.charAt(off)) {
+                    case 'S':
+                        if (rest(s, off, "String")) return TokenCode.STRING_KW;
+                        break;
+                    case 'a':
+                        if (rest(s, off, "assert")) return TokenCode.ASSERT_KW;
+                        break;
+                    case 'd':
+                        if (rest(s, off, "double")) return TokenCode.DOUBLE_KW;
+                        break;
+                    case 'i':
+                        if (rest(s, off, "import")) return TokenCode.IMPORT_KW;
+                        break;
+                    case 'n':
+                        if (rest(s, off, "native")) return TokenCode.NATIVE_KW;
+                        break;
+                    case 'p':
+                        if (rest(s, off, "public")) return TokenCode.PUBLIC_KW;
+                        break;
+                    case 'r':
+                        if (rest(s, off, "return")) return TokenCode.RETURN_KW;
+                        break;
+                    case 's':
+                        if (rest(s, off, "static")) return TokenCode.STATIC_KW;
+                        if (rest(s, off, "switch")) return TokenCode.SWITCH_KW;
+                        break;
+                    case 't':
+                        if (rest(s, off, "throws")) return TokenCode.THROWS_KW;
+                        break;
+                }
+                break;
+            case 7:
+                switch (s.charAt(off)) {
+                    case 'b':
+                        if (rest(s, off, "boolean")) return TokenCode.BOOLEAN_KW;
+                        break;
+                    case 'd':
+                        if (rest(s, off, "default")) return TokenCode.DEFAULT_KW;
+                        break;
+                    case 'e':
+                        if (rest(s, off, "extends")) return TokenCode.EXTENDS_KW;
+                        break;
+                    case 'f':
+                        if (rest(s, off, "finally")) return TokenCode.FINALLY_KW;
+                        break;
+                    case 'p':
+                        if (rest(s, off, "package")) return TokenCode.PACKAGE_KW;
+                        if (rest(s, off, "private")) return TokenCode.PRIVATE_KW;
+                        break;
+                }
+                break;
+            case 8:
+                switch (s.charAt(off)) {
+                    case 'a':
+                        if (rest(s, off, "abstract")) return TokenCode.ABSTRACT_KW;
+                        break;
+                    case 'c':
+                        if (rest(s, off, "continue")) return TokenCode.CONTINUE_KW;
+                        break;
+                    case 's':
+                        if (rest(s, off, "strictfp")) return TokenCode.STRICTFP_KW;
+                        break;
+                    case 'v':
+                        if (rest(s, off, "volatile")) return TokenCode.VOLATILE_KW;
+                        break;
+                }
+                break;
+            case 9:
+                switch (s.charAt(off)) {
+                    case 'i':
+                        if (rest(s, off, "interface")) return TokenCode.INTERFACE_KW;
+                        break;
+                    case 'p':
+                        if (rest(s, off, "protected")) return TokenCode.PROTECTED_KW;
+                        break;
+                    case 't':
+                        if (rest(s, off, "transient")) return TokenCode.TRANSIENT_KW;
+                        break;
+                }
+                break;
+            case 10:
+                switch (s.charAt(off)) {
+                    case 'i':
+                        if (rest(s, off, "implements")) return TokenCode.IMPLEMENTS_KW;
+                        if (rest(s, off, "instanceof")) return TokenCode.INSTANCEOF_KW;
+                        break;
+                }
+                break;
+            case 12:
+                switch (s.charAt(off)) {
+                    case 's':
+                        if (rest(s, off, "synchronized")) return TokenCode.SYNCHRONIZED_KW;
+                        break;
+                }
+                break;
+        }
+        return 0;
+    }
+
+    // operators and special characters
+    static int operatorCode(CharSequence s, int off, int len) {
+        switch (len) {
+            case 1:
+                switch (s.charAt(off)) {
+                    case ' ':
+                        return TokenCode.SPACE_LT;
+                    case '!':
+                        return TokenCode.NOT_OP;
+                    case '"':
+                        return TokenCode.DOUBLE_QUOTE_LT;
+                    case '%':
+                        return TokenCode.MOD_OP;
+                    case '&':
+                        return TokenCode.AND_OP;
+                    case '\'':
+                        return TokenCode.SINGLE_QUOTE_LT;
+                    case '(':
+                        return TokenCode.OPEN_PAREN_OP;
+                    case ')':
+                        return TokenCode.CLOSE_PAREN_OP;
+                    case '*':
+                        return TokenCode.TIMES_OP;
+                    case '+':
+                        return TokenCode.PLUS_OP;
+                    case ',':
+                        return TokenCode.COMMA_LT;
+                    case '-':
+                        return TokenCode.MINUS_OP;
+                    case '.':
+                        return TokenCode.PERIOD_LT;
+                    case '/':
+                        return TokenCode.DIVIDE_OP;
+                    case ':':
+                        return TokenCode.COLON_LT;
+                    case ';':
+                        return TokenCode.SEMI_COLON_LT;
+                    case '<':
+                        return TokenCode.LESS_OP;
+                    case '=':
+                        return TokenCode.EQUALS_OP;
+                    case '>':
+                        return TokenCode.GREATER_OP;
+                    case '?':
+                        return TokenCode.QUESTION_OP;
+                    case '[':
+                        return TokenCode.OPEN_SQUARE;
+                    case ']':
+                        return TokenCode.CLOSE_SQUARE;
+                    case '^':
+                        return TokenCode.CARET_OP;
+                    case '{':
+                        return TokenCode.OPEN_BRACKET_LT;
+                    case '|':
+                        return TokenCode.OR_OP;
+                    case '}':
+                        return TokenCode.CLOSE_BRACKET_LT;
+                    case '~':
+                        return TokenCode.TILDE_OP;
+                }
+                break;
+            case 2:
+                switch (s.charAt(off)) {
+                    case '!':
+                        if (s.charAt(off + 1) == '=') return TokenCode.NOT_EQUAL_OP;
+                        break;
+                    case '%':
+                        if (s.charAt(off + 1) == '=') return TokenCode.MOD_EQUALS_OP;
+                        break;
+                    case '&':
+                        if (s.charAt(off + 1) == '&') return TokenCode.AND_AND_OP;
+                        break;
+                    case '*':
+                        if (s.charAt(off + 1) == '=') return TokenCode.TIMES_EQUALS_OP;
+                        break;
+                    case '+':
+                        if (s.charAt(off + 1) == '+') return TokenCode.INCREMENT_OP;
+                        if (s.charAt(off + 1) == '=') return TokenCode.PLUS_EQUALS_OP;
+                        break;
+                    case '-':
+                        if (s.charAt(off + 1) == '-') return TokenCode.DECREMENT_OP;
+                        if (s.charAt(off + 1) == '=') return TokenCode.MINUS_EQUALS_OP;
+                        break;
+                    case '/':
+                        if (s.charAt(off + 1) == '=') return TokenCode.DIVIDE_EQUALS_OP;
+                        break;
+                    case '<':
+                        if (s.charAt(off + 1) == '<') return TokenCode.SHIFT_LEFT_OP;
+                        if (s.charAt(off + 1) == '=') return TokenCode.LESS_EQUAL_OP;
+                        break;
+                    case '=':
+                        if (s.charAt(off + 1) == '=') return TokenCode.EQUAL_EQUAL_OP;
+                        break;
+                    case '>':
+                        if (s.charAt(off + 1) == '=') return TokenCode.GREATER_EQUAL_OP;
+                        if (s.charAt(off + 1) == '>') return TokenCode.SHIFT_RIGHT_OP;
+                        break;
+                    case '|':
+                        if (s.charAt(off + 1) == '|') return TokenCode.OR_OR_OP;
+                        break;
+                }
+                break;
+            case 3:
+                switch (s.charAt(off)) {
+                    case '>':
+                        if (s.charAt(off + 1) == '>' && s.charAt(off + 2) == '>') return TokenCode.UNSIGNED_SHIFT_RIGHT_OP;
+                        break;
+                }
+                break;
+        }
+        return 0;
+    }
+
+    // true if the chars after the first in s starting at off match word, caller has checked the length and first char
+    private static boolean rest(CharSequence s, int off, String word) {
+        for (int i = 1; i < word.length(); i++) {
+            if (s.charAt(off + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,287 @@
+import java.util.Arrays;
+
+// Circular buffer of tokens read ahead of the parser, with each token's line and position.
+// Capacity is a power of two and doubles when full, so adding, peeking and consuming are all O(1).
+// While a mark is set, consumed tokens are kept so reset() can hand them out again.
+// Also follows the ( ) and [ ] nesting of every token the parser gets, through the window or handed to it
+// directly with pass(). Tokens other than spaces and comments are numbered in order, each keeps how many
+// ( and [ are open before it, and an opening ( or [ gets the number of its closing token once that is read.
+// The same is kept for the current token, the last one consumed or passed, so a search can jump over a
+// whole group.
+class TokenWindow {
+    private JavaToken[] tok;
+    private int[] line;
+    private int[] pos;
+    private int[] par; // ( open before the token
+    private int[] bra; // [ open before the token
+    private int[] partner; // number of the token closing an opening ( or [, -1 while unknown or for other tokens
+    private int mask; // capacity - 1
+    private int first; // slot of the oldest kept token
+    private int kept; // consumed tokens kept since mark()
+    private int size; // tokens not consumed yet
+    private int replayed; // tokens at the front that were consumed before the last reset()
+    private boolean marked;
+
+    private int firstSeq; // number of the token in slot first
+    private int seq; // number the next token will get
+    private int depthPar; // ( open after the last token read
+    private int depthBra; // [ open after the last token read
+    private int[] openPar = new int[16]; // numbers of the ( not closed yet, innermost last
+    private int openParCount;
+    private int[] openBra = new int[16]; // numbers of the [ not closed yet, innermost last
+    private int openBraCount;
+    // the current token, -1 as number for a space or comment
+    private int curSeq = -1;
+    private int curPar;
+    private int curBra;
+    private int curPartner = -1;
+    // the current token when mark() was called
+    private int markSeq;
+    private int markPar;
+    private int markBra;
+    private int markPartner;
+
+    TokenWindow(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.tok = new JavaToken[cap];
+        this.line = new int[cap];
+        this.pos = new int[cap];
+        this.par = new int[cap];
+        this.bra = new int[cap];
+        this.partner = new int[cap];
+        this.mask = cap - 1;
+    }
+
+    // Returns the number of tokens not consumed yet
+    int size() {
+        return size;
+    }
+
+    boolean isMarked() {
+        return marked;
+    }
+
+    // Adds a token to the end of the window
+    void add(JavaToken t, int tLine, int tPos) {
+        if (kept + size == tok.length) {
+            grow();
+        }
+        if (kept + size == 0) {
+            firstSeq = seq;
+        }
+        int slot = (first + kept + size) & mask;
+        tok[slot] = t;
+        line[slot] = tLine;
+        pos[slot] = tPos;
+        par[slot] = depthPar;
+        bra[slot] = depthBra;
+        partner[slot] = -1;
+        size++;
+        follow(t.tokenCode());
+    }
+
+    // Makes t the current token without keeping it, for a token the parser reads while the window is
+    // empty and not marked
+    void pass(JavaToken t) {
+        curPar = depthPar;
+        curBra = depthBra;
+        curPartner = -1;
+        int code = t.tokenCode();
+        if (code == TokenCode.SPACE_LT || LexScanner.isComment(code)) {
+            curSeq = -1;
+        } else {
+            curSeq = seq;
+            follow(code);
+        }
+    }
+
+    // numbers the token just read and updates the nesting after it
+    private void follow(int code) {
+        switch (code) {
+            case TokenCode.OPEN_PAREN_OP:
+                if (openParCount == openPar.length) {
+                    openPar = Arrays.copyOf(openPar, openParCount * 2);
+                }
+                openPar[openParCount++] = seq;
+                depthPar++;
+                break;
+            case TokenCode.OPEN_SQUARE:
+                if (openBraCount == openBra.length) {
+                    openBra = Arrays.copyOf(openBra, openBraCount * 2);
+                }
+                openBra[openBraCount++] = seq;
+                depthBra++;
+                break;
+            case TokenCode.CLOSE_PAREN_OP:
+                depthPar--;
+                if (openParCount > 0) {
+                    close(openPar[--openParCount]);
+                }
+                break;
+            case TokenCode.CLOSE_SQUARE:
+                depthBra--;
+                if (openBraCount > 0) {
+                    close(openBra[--openBraCount]);
+                }
+                break;
+        }
+        seq++;
+    }
+
+    // gives the opening token numbered open the number of the token being read, wherever it is kept
+    private void close(int open) {
+        if (open >= firstSeq && open < firstSeq + kept + size) {
+            partner[(first + open - firstSeq) & mask] = seq;
+        }
+        if (curSeq == open) {
+            curPartner = seq;
+        }
+        if (marked && markSeq == open) {
+            markPartner = seq;
+        }
+    }
+
+    // copies the tokens in order into arrays twice as large
+    private void grow() {
+        int count = kept + size;
+        JavaToken[] newTok = new JavaToken[tok.length * 2];
+        int[] newLine = new int[tok.length * 2];
+        int[] newPos = new int[tok.length * 2];
+        int[] newPar = new int[tok.length * 2];
+        int[] newBra = new int[tok.length * 2];
+        int[] newPartner = new int[tok.length * 2];
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) & mask;
+            newTok[i] = tok[slot];
+            newLine[i] = line[slot];
+            newPos[i] = pos[slot];
+            newPar[i] = par[slot];
+            newBra[i] = bra[slot];
+            newPartner[i] = partner[slot];
+        }
+        tok = newTok;
+        line = newLine;
+        pos = newPos;
+        par = newPar;
+        bra = newBra;
+        partner = newPartner;
+        mask = tok.length - 1;
+        first = 0;
+    }
+
+    // n is 0 for the next token to be consumed
+    private int slot(int n) {
+        return (first + kept + n) & mask;
+    }
+
+    JavaToken peek(int n) {
+        return tok[slot(n)];
+    }
+
+    int line(int n) {
+        return line[slot(n)];
+    }
+
+    int pos(int n) {
+        return pos[slot(n)];
+    }
+
+    // number of token n
+    int seq(int n) {
+        return firstSeq + kept + n;
+    }
+
+    // ( open before token n
+    int par(int n) {
+        return par[slot(n)];
+    }
+
+    // [ open before token n
+    int bra(int n) {
+        return bra[slot(n)];
+    }
+
+    // number of the token closing token n, -1 if it opens no group or the group is not closed yet
+    int partner(int n) {
+        return partner[slot(n)];
+    }
+
+    // the same for the current token
+    int curSeq() {
+        return curSeq;
+    }
+
+    int curPar() {
+        return curPar;
+    }
+
+    int curBra() {
+        return curBra;
+    }
+
+    int curPartner() {
+        return curPartner;
+    }
+
+    // Drops the next token, keeping it if a mark is set.
+    // Returns true if the token had already been consumed once before a reset()
+    boolean consume() {
+        int slot = slot(0);
+        curSeq = seq(0);
+        curPar = par[slot];
+        curBra = bra[slot];
+        curPartner = partner[slot];
+        boolean wasReplayed = replayed > 0;
+        if (wasReplayed) {
+            replayed--;
+        }
+        if (marked) {
+            kept++;
+        } else {
+            tok[first] = null;
+            first = (first + 1) & mask;
+            firstSeq++;
+        }
+        size--;
+        return wasReplayed;
+    }
+
+    // Starts keeping consumed tokens. Any earlier mark is dropped
+    void mark() {
+        release();
+        marked = true;
+        markSeq = curSeq;
+        markPar = curPar;
+        markBra = curBra;
+        markPartner = curPartner;
+    }
+
+    // Puts every token consumed since mark() back in front of the window and clears the mark
+    void reset() {
+        size += kept;
+        replayed += kept;
+        kept = 0;
+        marked = false;
+        curSeq = markSeq;
+        curPar = markPar;
+        curBra = markBra;
+        curPartner = markPartner;
+    }
+
+    private void release() {
+        for (int i = 0; i < kept; i++) {
+            tok[(first + i) & mask] = null;
+        }
+        first = (first + kept) & mask;
+        firstSeq += kept;
+        kept = 0;
+    }
+
+    // Prints the tokens not consumed yet
+    void print() {
+        for (int i = 0; i < size; i++) {
+            System.out.print("Index: " + i + " Literal: " + peek(i).getLiteral() + " Line: " + line(i));
+        }
+        System.out.println("");
+    }
+}
@@ -1,22 +1,27 @@
 import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.channels.WritableByteChannel;
 
 import java.util.Collections;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Set;
 
 import java.util.Stack;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.HashMap;
 
 
 public class Translator {
-    private Parser parser;
+    private SymbolTable symbols; // the parser's, filled in as it parses
     private PythonBuilder pyBuilder;
 
     private Set<String> idList;
     private HashTableSet<String> options;
 
-    private ASTNode mainMethod = null;
+    private SyntaxNode mainMethod = null;
 
     private boolean debug = true;
     private boolean crashOnError = false;
@@ -38,12 +43,80 @@ public class Translator {
     // - in the order of pre(inc, dec), post(inc, dec)
     private boolean[] foundNfix;
 
+    // work left for translate(), the top is done next. Each entry is a node to translate or a
+    // Runnable scheduled by an earlier node, ex the closing paren of a parenthesized expression
+    private ArrayList<Object> work;
+
+    // steps scheduled by the node being translated, in the order they are to run
+    private ArrayList<Object> scheduled;
+
+    // handler translating each kind of node, see register()
+    private EnumMap<NodeKind, NodeTranslator> handlers;
+
+    // the handlers every translator starts with. Kinds without a handler of their own
+    // get translateValue()
+    private static final EnumMap<NodeKind, NodeTranslator> DEFAULT_HANDLERS =
+        new EnumMap<NodeKind, NodeTranslator>(NodeKind.class);
+
+    static {
+        for (NodeKind kind : NodeKind.values()) DEFAULT_HANDLERS.put(kind, Translator::translateValue);
+        DEFAULT_HANDLERS.put(NodeKind.BLOCK_STATEMENT, Translator::translateBlockStatement);
+        DEFAULT_HANDLERS.put(NodeKind.LOCAL_VARIABLE_DECLARATION, Translator::translateLocalVariableDeclaration);
+        DEFAULT_HANDLERS.put(NodeKind.VARIABLE_DECLARATOR, Translator::translateAssignment);
+        DEFAULT_HANDLERS.put(NodeKind.ASSIGNMENT, Translator::translateAssignment);
+        DEFAULT_HANDLERS.put(NodeKind.ARRAY_CREATION_EXPRESSION, Translator::translateArrayCreationExpression);
+        DEFAULT_HANDLERS.put(NodeKind.DIM_EXPRESSIONS, Translator::translateDimExpressions);
+        DEFAULT_HANDLERS.put(NodeKind.ARRAY_ACCESS, Translator::translateArrayAccess);
+        DEFAULT_HANDLERS.put(NodeKind.PARENTHESIZED_EXPRESSION, Translator::translateParenthesizedExpression);
+        DEFAULT_HANDLERS.put(NodeKind.CLASS_DECLARATION, Translator::translateClassDeclaration);
+        DEFAULT_HANDLERS.put(NodeKind.FIELD_DECLARATION, Translator::translateFieldDeclaration);
+        DEFAULT_HANDLERS.put(NodeKind.METHOD_DECLARATION, Translator::translateMethodDeclaration);
+        DEFAULT_HANDLERS.put(NodeKind.METHOD_HEADER, Translator::translateMethodHeader);
+        DEFAULT_HANDLERS.put(NodeKind.METHOD_DECLARATOR, Translator::translateMethodDeclarator);
+        DEFAULT_HANDLERS.put(NodeKind.CONSTRUCTOR_DECLARATION, Translator::translateConstructorDeclaration);
+        DEFAULT_HANDLERS.put(NodeKind.CONSTRUCTOR_DECLARATOR, Translator::translateConstructorDeclarator);
+        DEFAULT_HANDLERS.put(NodeKind.EXPLICIT_CONSTRUCTOR_INVOCATION, Translator::translateExplicitConstructorInvocation);
+        DEFAULT_HANDLERS.put(NodeKind.SWITCH_STATEMENT, Translator::translateSwitchStatement);
+        DEFAULT_HANDLERS.put(NodeKind.SWITCH_BLOCK_STATEMENT_GROUP, Translator::translateSwitchBlockStatementGroup);
+        DEFAULT_HANDLERS.put(NodeKind.SWITCH_LABELS, Translator::translateSwitchLabels);
+        DEFAULT_HANDLERS.put(NodeKind.CONDITIONAL_EXPRESSION, Translator::translateConditionalExpression);
+        DEFAULT_HANDLERS.put(NodeKind.METHOD_INVOCATION, Translator::translateMethodInvocation);
+        DEFAULT_HANDLERS.put(NodeKind.CLASS_INSTANCE_CREATION_EXPRESSION, Translator::translateClassInstanceCreationExpression);
+        DEFAULT_HANDLERS.put(NodeKind.ARGUMENT_LIST, Translator::translateArgumentList);
+        DEFAULT_HANDLERS.put(NodeKind.ARRAY_INITIALIZER, Translator::translateArrayInitializer);
+        DEFAULT_HANDLERS.put(NodeKind.IF_STATEMENT, Translator::translateIfStatement);
+        DEFAULT_HANDLERS.put(NodeKind.ELSE_IF_STATEMENT, Translator::translateElseIfStatement);
+        DEFAULT_HANDLERS.put(NodeKind.ELSE_STATEMENT, Translator::translateElseStatement);
+        DEFAULT_HANDLERS.put(NodeKind.WHILE_STATEMENT, Translator::translateWhileStatement);
+        DEFAULT_HANDLERS.put(NodeKind.DO_STATEMENT, Translator::translateDoStatement);
+        DEFAULT_HANDLERS.put(NodeKind.FOR_STATEMENT, Translator::translateForStatement);
+        DEFAULT_HANDLERS.put(NodeKind.FOREACH_STATEMENT, Translator::translateForeachStatement);
+        DEFAULT_HANDLERS.put(NodeKind.TRY_STATEMENT, Translator::translateTryStatement);
+        DEFAULT_HANDLERS.put(NodeKind.CATCH_CLAUSE, Translator::translateCatchClause);
+        DEFAULT_HANDLERS.put(NodeKind.TRY_FINALLY, Translator::translateTryFinally);
+        DEFAULT_HANDLERS.put(NodeKind.RETURN_STATEMENT, Translator::translateJumpStatement);
+        DEFAULT_HANDLERS.put(NodeKind.CONTINUE_STATEMENT, Translator::translateJumpStatement);
+        DEFAULT_HANDLERS.put(NodeKind.THROWS_STATEMENT, Translator::translateJumpStatement);
+        DEFAULT_HANDLERS.put(NodeKind.PREFIX_EXPRESSION, Translator::translatePrefixExpression);
+        DEFAULT_HANDLERS.put(NodeKind.POSTFIX_EXPRESSION, Translator::translatePostfixExpression);
+        DEFAULT_HANDLERS.put(NodeKind.FIELD_ACCESS, Translator::translateFieldAccess);
+        DEFAULT_HANDLERS.put(NodeKind.BREAK_STATEMENT, Translator::translateBreakStatement);
+    }
+
     Translator(Parser parser) {
-        this.parser = parser;
+        this(parser.getSymbols());
+    }
+
+    // translates a tree that wasn't parsed here, ex one loaded from an ASTCache
+    Translator(SymbolTable symbols) {
+        this.symbols = symbols;
         pyBuilder = new PythonBuilder();
         options = new HashTableSet<String>();
         switchCmp = new Stack<String>();
         classNames = new Stack<String>();
+        work = new ArrayList<Object>();
+        scheduled = new ArrayList<Object>();
+        handlers = new EnumMap<NodeKind, NodeTranslator>(DEFAULT_HANDLERS);
 
         litTable = new HashMap<String, String>();
         litTable.put("||", "or");
@@ -65,6 +138,16 @@ public class Translator {
 
     boolean getDebug() { return this.debug; }
 
+    // the Python source written so far, for handlers to write to
+    PythonBuilder getBuilder() { return pyBuilder; }
+
+    // register()
+    // - makes handler translate the nodes of kind from now on. Returns the handler
+    //   it replaces, which the new one can hand the nodes it doesn't deal with to
+    NodeTranslator register(NodeKind kind, NodeTranslator handler) {
+        return handlers.put(kind, handler);
+    }
+
     boolean isErrorOccurred() { return errorOccurred; }
     String getErrorMessage() { return errorMessage; }
 
@@ -85,21 +168,37 @@ public class Translator {
         error(callName, message);
     }
 
-    // expandStack()
-    // - Expands the top node of the stack.
-    Stack<ASTNode> expandStack(Stack<ASTNode> nodeStack) {
-        if (nodeStack.size() > 0) {
-            ASTNode node = nodeStack.pop();
-            if (node.childCount() > 0) {
-                ArrayList<ASTNode> children = node.getChildren();
+    // visit()
+    // - schedules node to be translated once the node being translated is done
+    void visit(SyntaxNode node) {
+        scheduled.add(node);
+    }
 
-                for (int i = children.size()-1; i > -1; i--) {
-                    nodeStack.push(children.get(i));
-                }
-            }
-        }
+    // then()
+    // - schedules an action to run after the steps scheduled before it
+    void then(Runnable action) {
+        scheduled.add(action);
+    }
 
-        return nodeStack;
+    // schedules text to be appended after the steps scheduled before it
+    void then(String text) {
+        scheduled.add((Runnable) () -> pyBuilder.append(text));
+    }
+
+    // beginBlock()
+    // - ends the header of a compound statement and indents its body
+    void beginBlock() {
+        pyBuilder.append(":");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+    }
+
+    // endBranch()
+    // - dedents after the body of an if, else or case, along with
+    //   the 'if not _sw_break:' blocks a break in it opened
+    void endBranch() {
+        pyBuilder.decreaseIndent(1 + options.getGlobal("breakIndent"));
+        options.clear("breakIndent");
     }
 
     // remap()
@@ -111,6 +210,16 @@ public class Translator {
         } else if (literal != null) return literal; else return "";
     }
 
+    // true for a postfix expression or its operator
+    static boolean isPostfix(NodeKind kind) {
+        return kind == NodeKind.POSTFIX_EXPRESSION || kind == NodeKind.POSTFIX_EXPRESSION_OPERATOR;
+    }
+
+    // true for a prefix expression or its operator
+    static boolean isPrefix(NodeKind kind) {
+        return kind == NodeKind.PREFIX_EXPRESSION || kind == NodeKind.PREFIX_EXPRESSION_OPERATOR;
+    }
+
     // translates 'this' to 'self' when it is the first
     // element of a field access.
     String translateThis(String str, boolean isFirstElement) {
@@ -121,6 +230,22 @@ public class Translator {
         return pyBuilder.getSource();
     }
 
+    // writes the Python source to out instead of returning it as one String
+    void writeTo(Writer out) throws IOException {
+        pyBuilder.writeTo(out);
+    }
+
+    // writes the Python source to out as UTF-8
+    void writeTo(WritableByteChannel out) throws IOException {
+        pyBuilder.writeTo(out);
+    }
+
+    // writes a source map from the Python source back to the Java, file and
+    // source being the names of the two files, see SourceMap
+    void writeSourceMap(Writer out, String file, String source) throws IOException {
+        SourceMap.write(pyBuilder, file, source, out);
+    }
+
     void finalize(ArrayList<Comment> comments) {
         // make sure comments are sorted by line
         Collections.sort(comments, new CommentLineComparator());
@@ -192,782 +317,801 @@ public class Translator {
         options.remove("translateMain");
     }
 
-    void finalize(ASTNode root, ArrayList<Comment> comments) {
+    void finalize(SyntaxNode root, ArrayList<Comment> comments) {
         translate(root);
         finalize(comments);
     }
 
-    void finalize(ASTNode root) {
+    void finalize(SyntaxNode root) {
         translate(root);
         finalize(new ArrayList<Comment>());
     }
 
-    void translate(ASTNode root)
+    // translate()
+    // - translates root and everything under it, each node by the handler registered for its kind.
+    //   A handler doesn't translate the node's children itself, it schedules them with visit() along
+    //   with what is left to write between and after them with then(), so deep trees take room on
+    //   the work stack instead of the call stack.
+    void translate(SyntaxNode root)
     {
         if (!debug && errorOccurred) return;
 
-        int lineTicket = -1;
-        int lastLine = 0;
+        visit(root);
 
-        ArrayList<ASTNode> children = null;
+        while ((debug || !errorOccurred) && (scheduled.size() > 0 || work.size() > 0)) {
+            // what the last step scheduled goes on top, last first, so it runs in order and before older work
+            for (int i = scheduled.size()-1; i > -1; i--) work.add(scheduled.get(i));
+            scheduled.clear();
 
-        Stack<ASTNode> nodeStack = new Stack<ASTNode>();
-        nodeStack.push(root);
+            Object step = work.remove(work.size()-1);
+            if (step instanceof Runnable) {
+                ((Runnable) step).run();
+                continue;
+            }
 
-        while ((debug || !errorOccurred) && nodeStack.size() > 0) {
-            switch(nodeStack.peek().getType()) {
-                case "block statement":
-                pyBuilder.addSourceLine(nodeStack.peek().getLine());
+            SyntaxNode node = (SyntaxNode) step;
+            handlers.get(node.getKind()).translate(this, node);
+        }
 
-                if (options.containsCurrent("addBreakCondition")) {
-                    pyBuilder.append("if not _sw_break:");
-                    pyBuilder.newLine();
-                    pyBuilder.increaseIndent();
-                    options.addGlobal("breakIndent");
-                    options.clearCurrent("addBreakCondition");
-                }
+        // whatever an error left undone
+        work.clear();
+        scheduled.clear();
+    }
 
-                translate(nodeStack.pop().getChildren().get(0));
-                if (!pyBuilder.getLine().equals("")) pyBuilder.newLine();
-                break;
-
-                case "local variable declaration":
-                children = nodeStack.pop().getChildren();
-                translate(children.get(1));
-                // should encounter a variable declarator, which would then insert
-                // a new line
-                break;
-
-                case "variable declarator":
-                case "assignment":
-                children = nodeStack.pop().getChildren();
-
-                if (children.size() > 2){
-                    translate(children.get(0));
-                    pyBuilder.append(" ");
-                    pyBuilder.append(children.get(1).getValue() + " ");
-                    translate(children.get(2));
-                    pyBuilder.newLine();
-                } else if (children.get(0).getType() == "array access") {
-                    translate(children.get(0));
-                }
+    private void translateBlockStatement(SyntaxNode node) {
+        pyBuilder.addSourceLine(node.getLine());
 
-                break;
-
-                case "array creation expression":
-                children = nodeStack.pop().getChildren();
-                translate(children.get(1));
-                break;
-
-                case "dim expressions":
-                children = nodeStack.pop().getChildren();
-                for (ASTNode child : children) pyBuilder.append("[");
-                pyBuilder.append("None]");
-
-                Collections.reverse(children);
-
-                if (children.size() > 1) {
-                    boolean isMultiplier = true; // otherwise, range
-                    for (ASTNode child : children.subList(0, children.size())) {
-                        if (isMultiplier) {
-                            pyBuilder.append(" * ");
-                            translate(child);
-                            isMultiplier = false;
-                        } else {
-                            pyBuilder.append(" for i in range(");
-                            translate(child);
-                            pyBuilder.append(")]");
-                        }
-                    }
+        if (options.containsCurrent("addBreakCondition")) {
+            pyBuilder.append("if not _sw_break:");
+            pyBuilder.newLine();
+            pyBuilder.increaseIndent();
+            options.addGlobal("breakIndent");
+            options.clearCurrent("addBreakCondition");
+        }
+
+        visit(node.getChildren().get(0));
+        then(() -> { if (!pyBuilder.getLine().equals("")) pyBuilder.newLine(); });
+    }
+
+    private void translateLocalVariableDeclaration(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        visit(children.get(1));
+        // should encounter a variable declarator, which would then insert
+        // a new line
+    }
+
+    private void translateAssignment(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+
+        if (children.size() > 2){
+            visit(children.get(0));
+            then(" " + children.get(1).getValue() + " ");
+            visit(children.get(2));
+            then(() -> pyBuilder.newLine());
+        } else if (children.get(0).getKind() == NodeKind.ARRAY_ACCESS) {
+            visit(children.get(0));
+        }
+    }
+
+    private void translateArrayCreationExpression(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        visit(children.get(1));
+    }
+
+    private void translateDimExpressions(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        for (SyntaxNode child : children) pyBuilder.append("[");
+        pyBuilder.append("None]");
+
+        children = new ArrayList<SyntaxNode>(children); // reversed copy, the node's own list can't be changed
+        Collections.reverse(children);
+
+        if (children.size() > 1) {
+            boolean isMultiplier = true; // otherwise, range
+            for (SyntaxNode child : children.subList(0, children.size())) {
+                if (isMultiplier) {
+                    then(" * ");
+                    visit(child);
+                    isMultiplier = false;
                 } else {
-                    pyBuilder.append(" * ");
-                    translate(children.get(children.size()-1));
+                    then(" for i in range(");
+                    visit(child);
+                    then(")]");
                 }
+            }
+        } else {
+            pyBuilder.append(" * ");
+            visit(children.get(children.size()-1));
+        }
+    }
 
-                break;
+    private void translateArrayAccess(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        SyntaxNode lastChild = children.get(children.size()-1);
+
+        boolean lenMethod =
+            (lastChild.getKind() == NodeKind.FIELD_ACCESS
+            &&  lastChild.getValue().equals("length")); 
+
+        if (lenMethod) pyBuilder.append("len(");
+
+        visit(children.get(0));
+        then("[");
+        visit(children.get(1));
+        then("]");
+
+        int endIndex = children.size() + ((lenMethod) ? -1 : 0);
+        for (SyntaxNode child : children.subList(2, endIndex)) {
+            if (child.getKind() == NodeKind.EXPRESSION) {
+                then("[");
+                visit(child);
+                then("]");
+            } else {
+                then(".");
+                visit(child);
+            }
+        }
 
-                case "array access":
-                children = nodeStack.pop().getChildren();
-                ASTNode lastChild = children.get(children.size()-1);
+        if (lenMethod) then(")");
+    }
 
-                boolean lenMethod =
-                    (lastChild.getType().equals("field access")
-                    &&  lastChild.getValue().equals("length")); 
+    private void translateParenthesizedExpression(SyntaxNode node) {
+        pyBuilder.append("(");
+        int lineTicket = pyBuilder.tabLine();
+        visit(node.getChildren().get(0));
+        then(() -> {
+            pyBuilder.setCursor(pyBuilder.getLineTab(lineTicket));
+            pyBuilder.destroyLineTab(lineTicket);
+            pyBuilder.append(")");
+        });
+    }
 
-                if (lenMethod) pyBuilder.append("len(");
+    /** Class Declaration Methods
+     * TODO:
+     *  - refer to fields internally with 'self' keyword
+     *  - resolve scoping conflict between method parameters and fields of the same name
+     */
+    private void translateClassDeclaration(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        String cName = children.get(1).getValue();
+        classNames.push(cName);
+        pyBuilder.append("class ");
+
+        if (!(children.get(0).childCount() > 0) || !children.get(0).getChildren().get(0).is(TokenCode.PUBLIC_KW)) {
+            // prepend the identifier of the class with an underscore,
+            // which doesn't mean anything to the python interpreter but
+            // is good naming convention nonetheless
+            //pyBuilder.append("_");
+        }
 
-                translate(children.get(0));
-                pyBuilder.append("[");
-                translate(children.get(1));
-                pyBuilder.append("]");
+        pyBuilder.append(cName + ":");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+
+        if (!symbols.hasMethod(cName, cName)) {
+            pyBuilder.append("def __init__(self):");
+            pyBuilder.newLine();
+            pyBuilder.increaseIndent();
+            pyBuilder.append("pass");
+            pyBuilder.newLine();
+            pyBuilder.decreaseIndent();
+        }
+        visit(children.get(2));
+        then(() -> {
+            classNames.pop();
+            pyBuilder.decreaseIndent();
+        });
+    }
 
-                int endIndex = children.size() + ((lenMethod) ? -1 : 0);
-                for (ASTNode child : children.subList(2, endIndex)) {
-                    if (child.getType().equals("expression")) {
-                        pyBuilder.append("[");
-                        translate(child);
-                        pyBuilder.append("]");
-                    } else {
-                        pyBuilder.append(".");
-                        translate(child);
-                    }
-                }
+    private void translateFieldDeclaration(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
 
-                if (lenMethod) pyBuilder.append(")");
-                break;
-
-                case "parenthesized expression":
-                pyBuilder.append("(");
-                lineTicket = pyBuilder.tabLine();
-                translate(nodeStack.pop().getChildren().get(0));
-                pyBuilder.setCursor(pyBuilder.getLineTab(lineTicket));
-                pyBuilder.append(")");
-                break;
-
-                /** Class Declaration Methods
-                 * TODO:
-                 *  - refer to fields internally with 'self' keyword
-                 *  - resolve scoping conflict between method parameters and fields of the same name
-                 */
-                case "class declaration":
-                children = nodeStack.pop().getChildren();
-                String cName = children.get(1).getValue();
-                classNames.push(cName);
-                pyBuilder.append("class ");
-
-                if (!(children.get(0).childCount() > 0) || !children.get(0).getChildren().get(0).getType().equals("public_kw")) {
-                    // prepend the identifier of the class with an underscore,
-                    // which doesn't mean anything to the python interpreter but
-                    // is good naming convention nonetheless
-                    //pyBuilder.append("_");
-                }
-                
-                pyBuilder.append(cName + ":");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-
-                if (!parser.classHasMethod(cName, cName)) {
-                    pyBuilder.append("def __init__(self):");
-                    pyBuilder.newLine();
-                    pyBuilder.increaseIndent();
-                    pyBuilder.append("pass");
-                    pyBuilder.newLine();
-                    pyBuilder.decreaseIndent();
-                }
-                translate(children.get(2));
-                classNames.pop();
-                pyBuilder.decreaseIndent();
-                break;
-
-                case "field declaration":
-                children = nodeStack.pop().getChildren();
-
-                if (!(children.get(0).childCount() > 0) || !children.get(0).getChildren().get(0).getType().equals("public_kw")) {
-                    // prepend the identifier of the field with an underscore,
-                    // which doesn't mean anything to the python interpreter but
-                    // is good naming convention nonetheless
-                    //pyBuilder.append("_");
-                }
+        if (!(children.get(0).childCount() > 0) || !children.get(0).getChildren().get(0).is(TokenCode.PUBLIC_KW)) {
+            // prepend the identifier of the field with an underscore,
+            // which doesn't mean anything to the python interpreter but
+            // is good naming convention nonetheless
+            //pyBuilder.append("_");
+        }
 
-                translate(children.get(2));
-                if (pyBuilder.getLine().equals("_")) pyBuilder.backspace();
-                break;
+        visit(children.get(2));
+        then(() -> { if (pyBuilder.getLine().equals("_")) pyBuilder.backspace(); });
+    }
 
-                case "method declaration":
-                if (nodeStack.peek().containsAll("static_kw")) {
-                    options.addGlobal("isStaticMethod");
-                    pyBuilder.append("@staticmethod");
-                    pyBuilder.newLine();
-                }
-            
-                if (nodeStack.peek().isMainMethod()) {
-                    if (mainMethod == null) {
-                        if (!classNames.empty()) {
-                            options.addGlobal("translateMain");
-                            mainMethod = nodeStack.peek();
-                            mainClass = classNames.peek();
-                        } else error("translate", "Main method not defined in class.");
-                    } else error("translate", "Multiple main methods defined.");
-                }
+    private void translateMethodDeclaration(SyntaxNode node) {
+        if (node.containsAllTokens(TokenCode.STATIC_KW)) {
+            options.addGlobal("isStaticMethod");
+            pyBuilder.append("@staticmethod");
+            pyBuilder.newLine();
+        }
 
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("def ");
-                if (options.contains("translateMain")) pyBuilder.append("main(args)");
-                else translate(children.get(0));
-                pyBuilder.append(":");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(1));
-                pyBuilder.decreaseIndent();
-
-                options.clear("isStaticMethod");
-                options.clear("translateMain");
-                break;
-
-                case "method header":
-                children = nodeStack.pop().getChildren();
-                if (!(children.get(0).childCount() > 0) || !children.get(0).getChildren().get(0).getType().equals("public_kw")) {
-                    // prepend the identifier of the method with an underscore,
-                    // which doesn't mean anything to the python interpreter but
-                    // is good naming convention nonetheless
-                    //pyBuilder.append("_");
-                }
-                
-                translate(children.get(2));
-                break;
-
-                case "method declarator":
-                children = nodeStack.pop().getChildren();
-                boolean isFirstArgument = true;
-
-                pyBuilder.append(children.get(0).getValue() + "(");
-                if (!options.contains("isStaticMethod")) {
-                    pyBuilder.append("self");
-                    isFirstArgument = false;
-                }
+        if (node.isMainMethod()) {
+            if (mainMethod == null) {
+                if (!classNames.empty()) {
+                    options.addGlobal("translateMain");
+                    mainMethod = node;
+                    mainClass = classNames.peek();
+                } else error("translate", "Main method not defined in class.");
+            } else error("translate", "Multiple main methods defined.");
+        }
 
-                for (ASTNode fp : children.get(1).getChildren()) {
-                    if (!isFirstArgument) pyBuilder.append(", ");
-                    else isFirstArgument = true;
-                    pyBuilder.append(fp.getChildren().get(1).getValue());
-                }
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("def ");
+        if (options.contains("translateMain")) pyBuilder.append("main(args)");
+        else visit(children.get(0));
+        then(this::beginBlock);
+        visit(children.get(1));
+        then(() -> {
+            pyBuilder.decreaseIndent();
+            options.clear("isStaticMethod");
+            options.clear("translateMain");
+        });
+    }
 
-                pyBuilder.append(")");
-                break;
+    private void translateMethodHeader(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        if (!(children.get(0).childCount() > 0) || !children.get(0).getChildren().get(0).is(TokenCode.PUBLIC_KW)) {
+            // prepend the identifier of the method with an underscore,
+            // which doesn't mean anything to the python interpreter but
+            // is good naming convention nonetheless
+            //pyBuilder.append("_");
+        }
 
-                case "constructor declaration":
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("def ");
-                translate(children.get(1));
-                pyBuilder.append(":");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(2));
-                pyBuilder.decreaseIndent();
-                break;
+        visit(children.get(2));
+    }
 
-                case "constructor declarator":
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("__init__(self");
+    private void translateMethodDeclarator(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        boolean isFirstArgument = true;
 
-                for (ASTNode fp : children.get(1).getChildren()) {
-                    pyBuilder.append(", " + fp.getChildren().get(1).getValue());
-                }
+        pyBuilder.append(children.get(0).getValue() + "(");
+        if (!options.contains("isStaticMethod")) {
+            pyBuilder.append("self");
+            isFirstArgument = false;
+        }
 
-                pyBuilder.append(")");
-                break;
+        for (SyntaxNode fp : children.get(1).getChildren()) {
+            if (!isFirstArgument) pyBuilder.append(", ");
+            else isFirstArgument = true;
+            pyBuilder.append(fp.getChildren().get(1).getValue());
+        }
 
-                case "explicit constructor invocation":
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("super().__init__(");
+        pyBuilder.append(")");
+    }
 
-                if (children.get(1).childCount() > 0) {
-                    for (ASTNode arg : children.get(1).getChildren()) {
-                        pyBuilder.append(arg.getValue() + ", ");
-                    }
+    private void translateConstructorDeclaration(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("def ");
+        visit(children.get(1));
+        then(this::beginBlock);
+        visit(children.get(2));
+        then(() -> pyBuilder.decreaseIndent());
+    }
 
-                    pyBuilder.backspace(2);
-                }
+    private void translateConstructorDeclarator(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("__init__(self");
 
-                pyBuilder.append(")");
-                pyBuilder.newLine();
-                break;
-
-                /** END of Class Declaration Methods */
-
-                /** Switch Statement Methods
-                 * TODO:
-                 *  - remove trailing _sw_cond toggle after a lone break statement
-                */
-                case "switch statement":
-                // NOTE: still technically unfinished as no tests have been done.
-                // notImplemented("translate", "switch statement");
-
-                options.increaseScope();
-                options.addStack("inSwitch");
-                children = nodeStack.pop().getChildren();
-                String ident = children.get(0).getChild("identifier").getValue();
-
-                // TODO: check if identifier was previously defined and rename accordingly
-                switchCmp.push("_sw_" + ident); // add identifier to be tested against the stack
-
-                pyBuilder.append("# switch statement for ");
-                translate(children.get(0));
-                pyBuilder.append(" (generated by Java2Python)");
-                pyBuilder.addLine(switchCmp.peek() + " = ");
-                translate(children.get(0));
-                pyBuilder.addLine("_sw_dflt = True    # condition for default");
-                pyBuilder.addLine("_sw_cond = False   # condition stating previous condition passed");
-                pyBuilder.newLine();
-                translate(children.get(1));
-                pyBuilder.append("_sw_dflt = False");
-                pyBuilder.addLine("_sw_cond = False");
-                pyBuilder.addLine("_sw_break = False");
-                pyBuilder.addLine("# end of switch statement for ");
-                translate(children.get(0));
-
-                options.removeStack("inSwitch");
-                options.decreaseScope();
-                switchCmp.pop(); // remove ASTNode from the stack
-                break;
-
-                case "switch block statement group":
-                children = nodeStack.pop().getChildren();
-                options.increaseScope();
-                pyBuilder.append("if _sw_cond or ");
-
-                if (children.get(0).getChildren().get(0).childCount() > 0) {
-                    if (children.get(0).childCount() > 1) {
-                        pyBuilder.append(switchCmp.peek() + " in {");
-                        translate(children.get(0));
-                        pyBuilder.append("}");
-                    } else {
-                        pyBuilder.append(switchCmp.peek() + " == ");
-                        translate(children.get(0));
-                    }
-                } else {
-                    // is default case
-                    pyBuilder.append("_sw_dflt");
-                }
+        for (SyntaxNode fp : children.get(1).getChildren()) {
+            pyBuilder.append(", " + fp.getChildren().get(1).getValue());
+        }
 
-                pyBuilder.append(":");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                pyBuilder.append("_sw_dflt = False");
-                pyBuilder.addLine("_sw_cond = False");
-                pyBuilder.addLine("_sw_break = False");
-                pyBuilder.newLine();
-                translate(children.get(1));
+        pyBuilder.append(")");
+    }
 
-                pyBuilder.append("_sw_cond = ");
-                if (options.containsCurrent("addBreakCondition")) {
-                    pyBuilder.append("not _sw_break");
-                    options.clearCurrent("addBreakCondition");
-                } else pyBuilder.append("True");
+    private void translateExplicitConstructorInvocation(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("super().__init__(");
 
-                pyBuilder.newLine();
-                pyBuilder.decreaseIndent(1 + options.getGlobal("breakIndent"));
-                options.clear("breakIndent");
-                options.decreaseScope();
-                break;
-
-                case "switch labels":
-                children = nodeStack.pop().getChildren();
-
-                if (children.size() > 0) {
-                    for (ASTNode child : children) {
-                        translate(child);
-                        pyBuilder.append(", ");
-                    }
+        if (children.get(1).childCount() > 0) {
+            for (SyntaxNode arg : children.get(1).getChildren()) {
+                pyBuilder.append(arg.getValue() + ", ");
+            }
 
-                    pyBuilder.backspace(2);
-                }
+            pyBuilder.backspace(2);
+        }
 
-                break;
-                /** END of Switch Statement Methods */
-
-                case "conditional expression":
-                options.add("inConditional");
-                boolean stringUpcast = nodeStack.peek().contains("string_lt");
-                boolean exempt = false;     // exempt from upcasting (is string or operator)?
-                boolean isPostfix = false;  // is this a postfix expression?
-                children = nodeStack.pop().getChildren();
-
-                for (int i = 0; i < children.size(); i++) {
-                    ASTNode child = children.get(i);
-                    ASTNode pChild = null;
-
-                    if (!child.getType().matches("postfix expr(.*)")) {
-                        exempt = (child.getType().equals("string_lt"))
-                              || (child.getType().matches("(.*)expression"))
-                              && (!child.getType().matches("parenthesized(.*)"))
-                              && (!child.getType().matches("prefix expr(.*)"));
-                        
-                        isPostfix = (i + 1 < children.size())
-                                 && (children.get(i+1).getType().matches("postfix expr(.*)"));
-
-                        if (isPostfix) {
-                            pChild = children.get(i+1);
-                        }
-
-                        if (stringUpcast && !exempt)
-                            pyBuilder.append("str(");
-
-                        if (child.getType().matches("prefix expr(.*)")) {
-                            if (child.getChildren().get(0).getType().equals("++_op")) {
-                                foundNfix[0] = true; // found prefix increment
-                                pyBuilder.append("_preinc('");
-                            } else {
-                                foundNfix[1] = true; // found prefix decrement
-                                pyBuilder.append("_predec('");
-                            }
-
-                            translate(children.get(++i));
-                            pyBuilder.append("')");
-                        } else if (isPostfix) {
-                            if (pChild.getChildren().get(0).getType().equals("++_op")) {
-                                foundNfix[2] = true; // found postfix increment
-                                pyBuilder.append("_postinc('");
-                            } else {
-                                foundNfix[3] = true; // found postfix decrement
-                                pyBuilder.append("_postdec('");
-                            }
-
-                            translate(child);
-                            pyBuilder.append("')");
-                        } else translate(child);
-
-                        if (stringUpcast && !exempt) pyBuilder.append(")");
-                        // don't add a space if current token is a unary expression
-                        if (!child.getType().equals("unary expression")) pyBuilder.append(" ");
-                    }
-                }
+        pyBuilder.append(")");
+        pyBuilder.newLine();
+    }
 
-                // remove trailing space...
-                pyBuilder.backspace();
-                options.remove("inConditional");
-                break;
+    /** END of Class Declaration Methods */
+
+    /** Switch Statement Methods
+     * TODO:
+     *  - remove trailing _sw_cond toggle after a lone break statement
+    */
+    private void translateSwitchStatement(SyntaxNode node) {
+        // NOTE: still technically unfinished as no tests have been done.
+        // notImplemented("translate", "switch statement");
+
+        options.increaseScope();
+        options.addStack("inSwitch");
+        List<? extends SyntaxNode> children = node.getChildren();
+        String ident = children.get(0).getChild(NodeKind.IDENTIFIER).getValue();
+
+        // TODO: check if identifier was previously defined and rename accordingly
+        switchCmp.push("_sw_" + ident); // add identifier to be tested against the stack
+
+        pyBuilder.append("# switch statement for ");
+        visit(children.get(0));
+        then(() -> {
+            pyBuilder.append(" (generated by Java2Python)");
+            pyBuilder.addLine(switchCmp.peek() + " = ");
+        });
+        visit(children.get(0));
+        then(() -> {
+            pyBuilder.addLine("_sw_dflt = True    # condition for default");
+            pyBuilder.addLine("_sw_cond = False   # condition stating previous condition passed");
+            pyBuilder.newLine();
+        });
+        visit(children.get(1));
+        then(() -> {
+            pyBuilder.append("_sw_dflt = False");
+            pyBuilder.addLine("_sw_cond = False");
+            pyBuilder.addLine("_sw_break = False");
+            pyBuilder.addLine("# end of switch statement for ");
+        });
+        visit(children.get(0));
+        then(() -> {
+            options.removeStack("inSwitch");
+            options.decreaseScope();
+            switchCmp.pop(); // remove SyntaxNode from the stack
+        });
+    }
 
-                case "method invocation":
-                children = nodeStack.pop().getChildren();
-                String methodName = children.get(0).getValue().replaceFirst("^this.", "self.");
+    private void translateSwitchBlockStatementGroup(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.increaseScope();
+        pyBuilder.append("if _sw_cond or ");
+
+        if (children.get(0).getChildren().get(0).childCount() > 0) {
+            if (children.get(0).childCount() > 1) {
+                pyBuilder.append(switchCmp.peek() + " in {");
+                visit(children.get(0));
+                then("}");
+            } else {
+                pyBuilder.append(switchCmp.peek() + " == ");
+                visit(children.get(0));
+            }
+        } else {
+            // is default case
+            pyBuilder.append("_sw_dflt");
+        }
 
-                if (!classNames.empty() && parser.classHasMethod(classNames.peek(), methodName)) {
-                    // if we're currently translating the body of a static method, access the
-                    // static member function of the class. otherwise, we'll access the member
-                    // function of our self-referenced object. 
-                    pyBuilder.append(((options.contains("isStaticMethod")) ? classNames.peek() : "self") + ".");
-                }
+        then(() -> {
+            pyBuilder.append(":");
+            pyBuilder.newLine();
+            pyBuilder.increaseIndent();
+            pyBuilder.append("_sw_dflt = False");
+            pyBuilder.addLine("_sw_cond = False");
+            pyBuilder.addLine("_sw_break = False");
+            pyBuilder.newLine();
+        });
+        visit(children.get(1));
+        then(() -> {
+            pyBuilder.append("_sw_cond = ");
+            if (options.containsCurrent("addBreakCondition")) {
+                pyBuilder.append("not _sw_break");
+                options.clearCurrent("addBreakCondition");
+            } else pyBuilder.append("True");
 
-                translate(children.get(0));
-                pyBuilder.append("(");
-                translate(children.get(1));
+            pyBuilder.newLine();
+            endBranch();
+            options.decreaseScope();
+        });
+    }
 
-                if (debug) System.out.println("[" + methodName + "]");
-                if (methodName.equals("System.out.print")) {
-                    pyBuilder.append(", end=\"\"");
-                }
+    private void translateSwitchLabels(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
 
-                pyBuilder.append(")");
+        if (children.size() > 0) {
+            for (SyntaxNode child : children) {
+                visit(child);
+                then(", ");
+            }
 
-                for (ASTNode child : children.subList(2, children.size())) {
-                    if (!child.getType().equals("array access")) pyBuilder.append(".");
-                    translate(child);
+            then(() -> pyBuilder.backspace(2));
+        }
+    }
+
+    /** END of Switch Statement Methods */
+
+    private void translateConditionalExpression(SyntaxNode node) {
+        options.add("inConditional");
+        boolean stringUpcast = node.containsToken(TokenCode.STRING_LT);
+        boolean exempt = false;     // exempt from upcasting (is string or operator)?
+        boolean isPostfix = false;  // is this a postfix expression?
+        List<? extends SyntaxNode> children = node.getChildren();
+
+        for (int i = 0; i < children.size(); i++) {
+            SyntaxNode child = children.get(i);
+            SyntaxNode pChild = null;
+
+            if (!isPostfix(child.getKind())) {
+                exempt = (child.is(TokenCode.STRING_LT))
+                      || (child.getKind().isExpression())
+                      && (child.getKind() != NodeKind.PARENTHESIZED_EXPRESSION)
+                      && (!isPrefix(child.getKind()));
+
+                isPostfix = (i + 1 < children.size())
+                         && (isPostfix(children.get(i+1).getKind()));
+
+                if (isPostfix) {
+                    pChild = children.get(i+1);
                 }
 
-                break;
-
-                case "class instance creation expression":
-                children = nodeStack.pop().getChildren();
-                String className = children.get(0).getValue();
-                translate(children.get(0));
-                pyBuilder.append("(");
-                translate(children.get(1));
-                pyBuilder.append(")");
-                break;
-                
-                case "argument list":
-                children = nodeStack.pop().getChildren();
-
-                if (children.size() > 0) {
-                    for (ASTNode node : children) {
-                        translate(node);
-                        pyBuilder.append(", ");
+                if (stringUpcast && !exempt)
+                    then("str(");
+
+                if (isPrefix(child.getKind())) {
+                    if (child.getChildren().get(0).is(TokenCode.INCREMENT_OP)) {
+                        foundNfix[0] = true; // found prefix increment
+                        then("_preinc('");
+                    } else {
+                        foundNfix[1] = true; // found prefix decrement
+                        then("_predec('");
                     }
 
-                    pyBuilder.backspace(2);
-                }
+                    visit(children.get(++i));
+                    then("')");
+                } else if (isPostfix) {
+                    if (pChild.getChildren().get(0).is(TokenCode.INCREMENT_OP)) {
+                        foundNfix[2] = true; // found postfix increment
+                        then("_postinc('");
+                    } else {
+                        foundNfix[3] = true; // found postfix decrement
+                        then("_postdec('");
+                    }
 
-                break;
+                    visit(child);
+                    then("')");
+                } else visit(child);
 
-                case "array initializer":
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("[");
+                if (stringUpcast && !exempt) then(")");
+                // don't add a space if current token is a unary expression
+                if (child.getKind() != NodeKind.UNARY_EXPRESSION) then(" ");
+            }
+        }
 
-                for (ASTNode child : children) {
-                    translate(child);
-                    pyBuilder.append(", ");
-                }
+        // remove trailing space...
+        then(() -> {
+            pyBuilder.backspace();
+            options.remove("inConditional");
+        });
+    }
 
-                pyBuilder.backspace(2);
-                pyBuilder.append("]");
-                break;
+    private void translateMethodInvocation(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        String methodName = children.get(0).getValue().replaceFirst("^this.", "self.");
 
-                case "if statement":
-                children = nodeStack.pop().getChildren();
-                options.increaseScope();
-                options.add("inIf");
+        if (!classNames.empty() && symbols.hasMethod(classNames.peek(), methodName, children.get(1).childCount())) {
+            // if we're currently translating the body of a static method, access the
+            // static member function of the class. otherwise, we'll access the member
+            // function of our self-referenced object. 
+            pyBuilder.append(((options.contains("isStaticMethod")) ? classNames.peek() : "self") + ".");
+        }
 
-                if (!options.contains("switchBreak")) {
-                    pyBuilder.append("if ");
-                } else pyBuilder.append("if not _sw_break and ");
+        visit(children.get(0));
+        then("(");
+        visit(children.get(1));
+        then(() -> {
+            if (debug) System.out.println("[" + methodName + "]");
+            if (methodName.equals("System.out.print")) {
+                pyBuilder.append(", end=\"\"");
+            }
 
-                translate(children.get(0));
-                pyBuilder.append(":");
+            pyBuilder.append(")");
+        });
 
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(1));
-                pyBuilder.decreaseIndent(1 + options.getGlobal("breakIndent"));
-                options.clear("breakIndent");
-
-                if (children.size() > 2) {
-                    for (ASTNode els : children.subList(2, children.size())) {
-                        translate(els);
-                    }
-                }
+        for (SyntaxNode child : children.subList(2, children.size())) {
+            if (child.getKind() != NodeKind.ARRAY_ACCESS) then(".");
+            visit(child);
+        }
+    }
 
-                options.remove("inIf");
-                options.decreaseScope();
-                break;
+    private void translateClassInstanceCreationExpression(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        String className = children.get(0).getValue();
+        visit(children.get(0));
+        then("(");
+        visit(children.get(1));
+        then(")");
+    }
 
-                case "else if statement":
-                children = nodeStack.pop().getChildren();
-                options.clearCurrent("addBreakCondition");
+    private void translateArgumentList(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
 
-                pyBuilder.append("elif ");
-                translate(children.get(0));
-                pyBuilder.append(":");
+        if (children.size() > 0) {
+            for (SyntaxNode arg : children) {
+                visit(arg);
+                then(", ");
+            }
 
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(1));
-                pyBuilder.decreaseIndent(1 + options.getGlobal("breakIndent"));
-                options.clear("breakIndent");
-
-                if (children.size() > 2) translate(children.get(2));
-                break;
-                
-                case "else statement":
-                children = nodeStack.pop().getChildren();
-                options.clearCurrent("addBreakCondition");
+            then(() -> pyBuilder.backspace(2));
+        }
+    }
 
-                pyBuilder.append("else:");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(0));
-                pyBuilder.decreaseIndent(1 + options.getGlobal("breakIndent"));
-                options.clear("breakIndent");
-                break;
-
-                /* START of loop cases */
-
-                case "while statement":
-                children = nodeStack.pop().getChildren();
-                options.increaseScope();
-                options.addStack("inLoop");
-
-                pyBuilder.append("while ");
-                translate(children.get(0));
-                pyBuilder.append(":");
-                pyBuilder.newLine();
+    private void translateArrayInitializer(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("[");
 
-                pyBuilder.increaseIndent();
-                translate(children.get(1));
-                pyBuilder.decreaseIndent();
-                options.removeStack("inLoop");
-                options.decreaseScope();
-                break;
+        for (SyntaxNode child : children) {
+            visit(child);
+            then(", ");
+        }
 
-                case "do statement":
-                children = nodeStack.pop().getChildren();
-                options.increaseScope();
-                options.addStack("inLoop");
+        then(() -> {
+            pyBuilder.backspace(2);
+            pyBuilder.append("]");
+        });
+    }
 
-                pyBuilder.append("while True:");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(0));
-                pyBuilder.append("if not (");
-                translate(children.get(1));
-                pyBuilder.append("): break");
-                pyBuilder.addLine();
-                pyBuilder.decreaseIndent();
-
-                options.removeStack("inLoop");
-                options.decreaseScope();
-                break;
-
-                case "for statement":
-                // it would be nice to use python for-statements eventually,
-                // though this is much simpler
-                children = nodeStack.pop().getChildren();
-                options.increaseScope();
-                options.addStack("inLoop");
-
-                translate(children.get(0));
-                if (!pyBuilder.getLine().equals("")) pyBuilder.newLine();
-                pyBuilder.append("while ");
-                translate(children.get(1));
-                pyBuilder.append(":");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(3));
-                translate(children.get(2));
-                pyBuilder.newLine();
-                pyBuilder.decreaseIndent();
-
-                options.removeStack("inLoop");
-                options.decreaseScope();
-                break;
-
-                case "foreach statement":
-                children = nodeStack.pop().getChildren();
-                options.increaseScope();
-                options.addStack("inLoop");
-
-                pyBuilder.append("for ");
-                translate(children.get(0));
-                pyBuilder.append(" in ");
-                translate(children.get(1));
-                pyBuilder.append(":");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(2));
-                pyBuilder.decreaseIndent();
+    private void translateIfStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.increaseScope();
+        options.add("inIf");
 
-                options.removeStack("inLoop");
-                options.decreaseScope();
-                break;
+        if (!options.contains("switchBreak")) {
+            pyBuilder.append("if ");
+        } else pyBuilder.append("if not _sw_break and ");
 
-                /* END of loop cases */
+        visit(children.get(0));
+        then(this::beginBlock);
+        visit(children.get(1));
+        then(this::endBranch);
 
-                case "try statement":
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("try:");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(0));
-                pyBuilder.decreaseIndent();
+        if (children.size() > 2) {
+            for (SyntaxNode els : children.subList(2, children.size())) {
+                visit(els);
+            }
+        }
 
-                for (ASTNode child : children.subList(1, children.size())) {
-                    translate(child);
-                }
+        then(() -> {
+            options.remove("inIf");
+            options.decreaseScope();
+        });
+    }
 
-                break;
+    private void translateElseIfStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.clearCurrent("addBreakCondition");
 
-                case "catch clause":
-                children = nodeStack.pop().getChildren();
-                pyBuilder.append("except:");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(children.get(1));
-                pyBuilder.decreaseIndent();
-                break;
+        pyBuilder.append("elif ");
+        visit(children.get(0));
+        then(this::beginBlock);
+        visit(children.get(1));
+        then(this::endBranch);
 
-                case "try finally":
-                pyBuilder.append("finally:");
-                pyBuilder.newLine();
-                pyBuilder.increaseIndent();
-                translate(nodeStack.pop().getChildren().get(0));
-                pyBuilder.decreaseIndent();
-                break;
-
-                case "return statement":
-                case "continue statement":
-                case "throws statement":
-                String kw = "";
-                if(nodeStack.peek().getType() == "throws statement"){
-                    kw = "raise"; //throws is only one that needs to be translated
-                }else{
-                    kw = nodeStack.peek().getValue();
-                }
-                pyBuilder.append(kw + " ");
-                if(nodeStack.peek().childCount()>0){
-                    children = nodeStack.pop().getChildren();
-                    translate(children.get(0));
-                }else{
-                    nodeStack.pop();
-                }
-                break;
+        if (children.size() > 2) visit(children.get(2));
+    }
 
-                case "prefix expression":
-                children = nodeStack.pop().getChildren();
+    private void translateElseStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.clearCurrent("addBreakCondition");
 
-                if (options.contains("inConditional")) {
-                    if (children.get(0).getType().equals("++_op")) {
-                        foundNfix[0] = true; // found a preincrement expression requiring a function
-                        pyBuilder.append("_preinc(");
-                    } else {
-                        foundNfix[1] = true; // found a predecrement expression requiring a function
-                        pyBuilder.append("_predec(");
-                    }
+        pyBuilder.append("else:");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+        visit(children.get(0));
+        then(this::endBranch);
+    }
 
-                    translate(children.get(1));
-                    pyBuilder.append(")");
-                } else {
-                    translate(children.get(1));
-                    pyBuilder.append(
-                            ((children.get(0).getType().equals("++_op"))
-                            ? " += " : " -= ") + "1");
-                }
+    /* START of loop cases */
+
+    private void translateWhileStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.increaseScope();
+        options.addStack("inLoop");
+
+        pyBuilder.append("while ");
+        visit(children.get(0));
+        then(this::beginBlock);
+        visit(children.get(1));
+        then(() -> {
+            pyBuilder.decreaseIndent();
+            options.removeStack("inLoop");
+            options.decreaseScope();
+        });
+    }
 
-                break;
+    private void translateDoStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.increaseScope();
+        options.addStack("inLoop");
+
+        pyBuilder.append("while True:");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+        visit(children.get(0));
+        then("if not (");
+        visit(children.get(1));
+        then(() -> {
+            pyBuilder.append("): break");
+            pyBuilder.addLine();
+            pyBuilder.decreaseIndent();
+
+            options.removeStack("inLoop");
+            options.decreaseScope();
+        });
+    }
 
-                case "postfix expression":
-                children = nodeStack.pop().getChildren();
+    private void translateForStatement(SyntaxNode node) {
+        // it would be nice to use python for-statements eventually,
+        // though this is much simpler
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.increaseScope();
+        options.addStack("inLoop");
+
+        visit(children.get(0));
+        then(() -> {
+            if (!pyBuilder.getLine().equals("")) pyBuilder.newLine();
+            pyBuilder.append("while ");
+        });
+        visit(children.get(1));
+        then(this::beginBlock);
+        visit(children.get(3));
+        visit(children.get(2));
+        then(() -> {
+            pyBuilder.newLine();
+            pyBuilder.decreaseIndent();
+
+            options.removeStack("inLoop");
+            options.decreaseScope();
+        });
+    }
 
-                if (options.contains("inConditional")) {
-                    if (children.get(1).getType().equals("++_op")) {
-                        foundNfix[2] = true; // found a postincrement expression requiring a function
-                        pyBuilder.append("_postinc(");
-                    } else {
-                        foundNfix[3] = true; // found a postdecrement expression requiring a function
-                        pyBuilder.append("_postdec(");
-                    }
+    private void translateForeachStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        options.increaseScope();
+        options.addStack("inLoop");
+
+        pyBuilder.append("for ");
+        visit(children.get(0));
+        then(" in ");
+        visit(children.get(1));
+        then(this::beginBlock);
+        visit(children.get(2));
+        then(() -> {
+            pyBuilder.decreaseIndent();
+
+            options.removeStack("inLoop");
+            options.decreaseScope();
+        });
+    }
 
-                    translate(children.get(0));
-                    pyBuilder.append(")");
-                } else {
-                    translate(children.get(0));
-                    pyBuilder.append(
-                            ((children.get(1).getType().equals("++_op"))
-                            ? " += " : " -= ") + "1");
-                }
+    /* END of loop cases */
 
-                break;
+    private void translateTryStatement(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("try:");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+        visit(children.get(0));
+        then(() -> pyBuilder.decreaseIndent());
 
-                case "field access":
-                ArrayList<String> field = new ArrayList<String>(Arrays.asList(nodeStack.pop().getValue().split("\\.")));
-                if (debug) System.out.println("Field: " + field);
+        for (SyntaxNode child : children.subList(1, children.size())) {
+            visit(child);
+        }
+    }
 
-                boolean firstElement = true;
-                if (field.size() > 1) {
-                    for (String idnt : field.subList(0, field.size()-2)) {
-                        if (debug) System.out.println(idnt);
-                        pyBuilder.append(translateThis(idnt, firstElement) + ".");
-                        firstElement = false;
-                    }
+    private void translateCatchClause(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
+        pyBuilder.append("except:");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+        visit(children.get(1));
+        then(() -> pyBuilder.decreaseIndent());
+    }
+
+    private void translateTryFinally(SyntaxNode node) {
+        pyBuilder.append("finally:");
+        pyBuilder.newLine();
+        pyBuilder.increaseIndent();
+        visit(node.getChildren().get(0));
+        then(() -> pyBuilder.decreaseIndent());
+    }
+
+    private void translateJumpStatement(SyntaxNode node) {
+        String kw = "";
+        if(node.getKind() == NodeKind.THROWS_STATEMENT){
+            kw = "raise"; //throws is only one that needs to be translated
+        }else{
+            kw = node.getValue();
+        }
+        pyBuilder.append(kw + " ");
+        if(node.childCount()>0){
+            visit(node.getChildren().get(0));
+        }
+    }
 
-                    if (field.get(field.size()-1).equals("length")) {
-                        pyBuilder.append("len(" + translateThis(field.get(field.size()-2), firstElement) + ")");
-                    } else pyBuilder.append(translateThis(field.get(field.size()-2), firstElement) + "." + field.get(field.size()-1));
-                } else if (field.size() > 0) pyBuilder.append(translateThis(field.get(0), true));
+    private void translatePrefixExpression(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
 
-                break;
+        if (options.contains("inConditional")) {
+            if (children.get(0).is(TokenCode.INCREMENT_OP)) {
+                foundNfix[0] = true; // found a preincrement expression requiring a function
+                pyBuilder.append("_preinc(");
+            } else {
+                foundNfix[1] = true; // found a predecrement expression requiring a function
+                pyBuilder.append("_predec(");
+            }
 
+            visit(children.get(1));
+            then(")");
+        } else {
+            visit(children.get(1));
+            then(
+                    ((children.get(0).is(TokenCode.INCREMENT_OP))
+                    ? " += " : " -= ") + "1");
+        }
+    }
 
-                case "break statement":
-                if (options.peek().equals("inSwitch")) {
-                    if (!options.contains("switchBreak")) options.add("switchBreak");
-                    options.add("addBreakCondition");       // add break condition to current scope
-                    options.add("addBreakCondition", -1);   // add break condition to previous scope
-                    pyBuilder.append("_sw_break = True");
-                    nodeStack.pop();
-                    break;
-                } else if (!options.peek().equals("inLoop")) {
-                    error("translate", "Break statement not inside loop or switch.");
-                }
+    private void translatePostfixExpression(SyntaxNode node) {
+        List<? extends SyntaxNode> children = node.getChildren();
 
-                default:
-                if (nodeStack.peek().getValue() != null && !nodeStack.peek().getValue().equals("")) {
-                    pyBuilder.append(remap(nodeStack.pop().getValue().replaceFirst("^this.", "self.")));
-                } else nodeStack = expandStack(nodeStack);
+        if (options.contains("inConditional")) {
+            if (children.get(1).is(TokenCode.INCREMENT_OP)) {
+                foundNfix[2] = true; // found a postincrement expression requiring a function
+                pyBuilder.append("_postinc(");
+            } else {
+                foundNfix[3] = true; // found a postdecrement expression requiring a function
+                pyBuilder.append("_postdec(");
             }
+
+            visit(children.get(0));
+            then(")");
+        } else {
+            visit(children.get(0));
+            then(
+                    ((children.get(1).is(TokenCode.INCREMENT_OP))
+                    ? " += " : " -= ") + "1");
         }
+    }
 
-        if (lineTicket != -1) {
-            pyBuilder.destroyLineTab(lineTicket);
+    private void translateFieldAccess(SyntaxNode node) {
+        ArrayList<String> field = new ArrayList<String>(Arrays.asList(node.getValue().split("\\.")));
+        if (debug) System.out.println("Field: " + field);
+
+        boolean firstElement = true;
+        if (field.size() > 1) {
+            for (String idnt : field.subList(0, field.size()-2)) {
+                if (debug) System.out.println(idnt);
+                pyBuilder.append(translateThis(idnt, firstElement) + ".");
+                firstElement = false;
+            }
+
+            // array.length is len(array), unless it is this.length and the class has a length field
+            boolean lengthField = field.size() == 2 && field.get(0).equals("this")
+                && !classNames.empty() && symbols.hasField(classNames.peek(), "length");
+            if (field.get(field.size()-1).equals("length") && !lengthField) {
+                pyBuilder.append("len(" + translateThis(field.get(field.size()-2), firstElement) + ")");
+            } else pyBuilder.append(translateThis(field.get(field.size()-2), firstElement) + "." + field.get(field.size()-1));
+        } else if (field.size() > 0) pyBuilder.append(translateThis(field.get(0), true));
+    }
+
+    private void translateBreakStatement(SyntaxNode node) {
+        if (options.peek().equals("inSwitch")) {
+            if (!options.contains("switchBreak")) options.add("switchBreak");
+            options.add("addBreakCondition");       // add break condition to current scope
+            options.add("addBreakCondition", -1);   // add break condition to previous scope
+            pyBuilder.append("_sw_break = True");
+            return;
+        } else if (!options.peek().equals("inLoop")) {
+            error("translate", "Break statement not inside loop or switch.");
+        }
+
+        translateValue(node);
+    }
+
+    // translates a node no handler was registered for: a literal or name is written
+    // out, anything else is translated by translating its children in turn
+    private void translateValue(SyntaxNode node) {
+        if (node.is(TokenCode.INTEGER_LT) || node.is(TokenCode.DECIMAL_LT)) {
+            pyBuilder.append(NumberScanner.toPython(node.getValue()));
+        } else if (node.getValue() != null && !node.getValue().equals("")) {
+            pyBuilder.append(remap(node.getValue().replaceFirst("^this.", "self.")));
+        } else {
+            for (SyntaxNode child : node.getChildren()) visit(child);
         }
     }
-}
\ No newline at end of file
+}
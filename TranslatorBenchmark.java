@@ -0,0 +1,85 @@
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Translator timings for Benchmark
+final class TranslatorBenchmark {
+    private TranslatorBenchmark() {}
+
+    // Times Translator.finalize, the path TranslatorTest takes, over the TestJavaSourceFiles corpus.
+    // Each file is parsed once up front and translated by a new Translator every time, so only the
+    // translation is timed. Files that don't parse or translate are left out.
+    static void translate() throws Exception {
+        ArrayList<Parser> parsers = new ArrayList<Parser>();
+        ArrayList<ASTNode> roots = new ArrayList<ASTNode>();
+        File[] files = new File("TestJavaSourceFiles").listFiles((d, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        int nodes = 0;
+        for (File f : files) {
+            Parser p = Benchmark.quietParser();
+            p.setLexer(new LexScanner(new String(Files.readAllBytes(f.toPath()))));
+            ASTNode root = p.parse();
+            if (p.getErrorMsg() != null || translate(p, root) == null) {
+                continue; // the corpus has files with errors on purpose
+            }
+            parsers.add(p);
+            roots.add(root);
+            nodes += Benchmark.countNodes(root);
+        }
+        int repeat = Math.max(1, 200000 / nodes); // translate the corpus often enough to time it
+        long[] chars = new long[1]; // kept so the translations aren't optimized away
+        long time = Benchmark.best(() -> {
+            for (int i = 0; i < repeat; i++) {
+                for (int j = 0; j < roots.size(); j++) {
+                    chars[0] += translate(parsers.get(j), roots.get(j)).length();
+                }
+            }
+        });
+        long visits = (long) nodes * repeat;
+        System.out.println(String.format("%-8s%-8s%-12s%-16s%-16s", "files", "nodes", "visits", "ms", "ns/node"));
+        System.out.println(String.format("%-8d%-8d%-12d%-16.2f%-16.2f", roots.size(), nodes, visits, time / 1e6, (double) time / visits));
+        if (chars[0] == 42) {
+            System.out.println(); // never true, reads the count
+        }
+    }
+
+    // translates root with a new Translator, returns the Python source or null on an error
+    static String translate(Parser p, ASTNode root) {
+        Translator t = new Translator(p);
+        t.setDebug(false);
+        t.setCrashOnError(false);
+        t.finalize(root);
+        return t.isErrorOccurred() ? null : t.getSource();
+    }
+
+    // Every line gets a source line mapping and a line tab, as when the translator writes a parenthesized
+    // expression, then lines are added at the top the way finalize() adds helper methods and imports.
+    // Inserting shouldn't cost more per line as the output grows.
+    static void builder() throws Exception {
+        System.out.println(String.format("%-10s%-16s%-16s", "lines", "append ns/line", "top ns/line"));
+        for (int lines = 4000; lines <= 64000; lines *= 2) {
+            int n = lines;
+            long append = Benchmark.best(() -> fillBuilder(n));
+            long top = Benchmark.best(() -> {
+                PythonBuilder b = fillBuilder(n);
+                b.setCursor(-1);
+                for (int i = 0; i < n; i++) {
+                    b.addLine("# helper " + i);
+                }
+            });
+            System.out.println(String.format("%-10d%-16d%-16d", n, append / n, (top - append) / n));
+        }
+    }
+
+    static PythonBuilder fillBuilder(int lines) {
+        PythonBuilder b = new PythonBuilder();
+        for (int i = 0; i < lines; i++) {
+            b.addSourceLine(i + 1);
+            b.tabLine();
+            b.append("x = " + i);
+            b.newLine();
+        }
+        return b;
+    }
+}
@@ -1,8 +1,13 @@
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.io.FileWriter;
 import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
 
 public class TranslatorTest {
     public static void main(String[] args) throws Exception{
@@ -12,27 +17,64 @@ public class TranslatorTest {
 
         String source = "";
         String filename = args[0];
+        boolean tokenArray = args.length > 1 && args[1].equals("tokens"); // tokenize up front with TokenArray
+        boolean stream = args.length > 1 && args[1].equals("stream"); // read the file through a small window instead of loading it
+        boolean mapped = args.length > 1 && args[1].equals("mapped"); // memory map the file instead of loading it
+        boolean arena = args.length > 1 && args[1].equals("arena"); // translate from the tree packed into an ASTArena
+        boolean cache = args.length > 1 && args[1].equals("cache"); // reuse the tree saved by an earlier run, or save it for the next
 
-        try {
-            source = new String (Files.readAllBytes(Paths.get(filename)));
-            System.out.println(source);
-        } catch (IOException e){
-            e.printStackTrace();
+        if (!stream && !mapped) {
+            try {
+                source = new String (Files.readAllBytes(Paths.get(filename)));
+                System.out.println(source);
+            } catch (IOException e){
+                e.printStackTrace();
+            }
         }
         
         // Set up translator
-        LexScanner l = new LexScanner(source);
         Parser p = new Parser();
-        Translator t = new Translator(p);
+        ASTCache cached = null;
+        Path cacheFile = Paths.get(filename + ".ast");
+        if (cache && Files.exists(cacheFile)) {
+            try {
+                cached = ASTCache.load(cacheFile);
+                if (!cached.matches(source)) cached = null; // the source changed since
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+        Translator t = cached != null ? new Translator(cached.getSymbols()) : new Translator(p);
 
-        p.setLexer(l);
+        FileChannel in = null;
+        if (tokenArray) {
+            p.setTokens(TokenArray.tokenize(source));
+        } else if (stream) {
+            in = FileChannel.open(Paths.get(filename));
+            p.setLexer(new LexScanner(in));
+        } else if (mapped) {
+            p.setLexer(new LexScanner(MappedSource.open(Paths.get(filename))));
+        } else {
+            p.setLexer(new LexScanner(source));
+        }
         p.setDebug(false);
         p.setPrintTree(false);
         t.setDebug(true);
         t.setCrashOnError(false);
 
         // Translate Java Code
-        ASTNode program = p.parse();
+        ASTNode program;
+        if (cached != null) {
+            program = cached.getRoot();
+        } else {
+            program = p.parse();
+            if (cache && p.getErrorMsg() == null) ASTCache.save(p, program, source, cacheFile);
+        }
+        if (in != null) in.close();
+        SyntaxNode tree = program;
+        if (arena && p.getErrorMsg() == null) {
+            tree = ASTArena.take(program).root(); // program is left empty
+        }
         String response = "";
         String statusCode = "200";
         if(p.getErrorMsg() != null)
@@ -41,13 +83,20 @@ public class TranslatorTest {
             response = p.getErrorMsg();
         }else
         {
-            t.finalize(program);
+            t.finalize(tree);
             if (t.isErrorOccurred()) {
                 statusCode = "502";
                 response = t.getErrorMessage();
-            } else response = t.getSource();
+            }
         }
-        System.out.println("Response:\n\n" + response + "\nStatus Code: " + statusCode);
+        if (statusCode.equals("200")) {
+            // the Python source is streamed out rather than built as one String
+            System.out.print("Response:\n\n");
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            t.writeTo(out);
+            out.flush();
+            System.out.println("\nStatus Code: " + statusCode);
+        } else System.out.println("Response:\n\n" + response + "\nStatus Code: " + statusCode);
 
         if (t.isErrorOccurred() && t.getDebug()) {
             System.out.println("Debug:\n\n" + t.getSource());
@@ -59,10 +108,17 @@ public class TranslatorTest {
         try {
             String[] fArray = filename.split("\\\\");
             filename = fArray[fArray.length-1];
-            FileWriter writer = new FileWriter(filename + ".py");
-            writer.write(t.getSource());
-            writer.close();
+            try (FileChannel py = FileChannel.open(Paths.get(filename + ".py"),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                t.writeTo(py);
+            }
             System.out.println("Python source written to: " + filename + ".py");
+
+            // and where each of its lines came from
+            try (Writer map = Files.newBufferedWriter(Paths.get(filename + ".py.map"), StandardCharsets.UTF_8)) {
+                t.writeSourceMap(map, filename + ".py", filename);
+            }
+            System.out.println("Source map written to: " + filename + ".py.map");
         } catch (IOException e) {
             System.out.println("An error occurred while writing to file.");
             e.printStackTrace();
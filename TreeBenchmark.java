@@ -0,0 +1,76 @@
+import java.io.OutputStream;
+import java.io.Writer;
+
+// Timings and heap of parsed trees for Benchmark
+final class TreeBenchmark {
+    private TreeBenchmark() {}
+
+    // Heap is measured after collecting, with the tree or the arena as the only thing left reachable.
+    // The arena is measured again after Translator.finalize has walked it, with the translator dropped,
+    // to show the walk leaves nothing behind in the arena
+    static void arena() throws Exception {
+        System.out.println(String.format("%-10s%-10s%-16s%-16s%-20s%-10s", "classes", "nodes", "tree B/node", "arena B/node", "translated B/node", "ratio"));
+        for (int classes = 100; classes <= 3200; classes *= 2) {
+            arena(classes);
+        }
+    }
+
+    // one size, in a frame of its own so nothing from the size before is still reachable
+    static void arena(int classes) throws Exception {
+        String source = Benchmark.classSource(classes);
+        long base = usedHeap();
+        Parser p = Benchmark.quietParser();
+        p.setLexer(new LexScanner(source));
+        long[] tree = new long[1];
+        ASTArena arena = parseAndPack(p, base, tree);
+        long packed = usedHeap() - base;
+        translate(p, arena);
+        long translated = usedHeap() - base;
+        int nodes = arena.size();
+        System.out.println(String.format("%-10d%-10d%-16d%-16d%-20d%-10.1f", classes, nodes, tree[0] / nodes, packed / nodes,
+            translated / nodes, (double) tree[0] / packed));
+    }
+
+    // parses, puts the heap the tree takes in tree[0] and packs it into an arena. The tree is only
+    // reachable from this frame, so it is gone once this returns
+    static ASTArena parseAndPack(Parser p, long base, long[] tree) throws Exception {
+        ASTNode root = p.parse();
+        tree[0] = usedHeap() - base;
+        return ASTArena.take(root);
+    }
+
+    static void translate(Parser p, ASTArena arena) {
+        Translator t = new Translator(p);
+        t.setDebug(false);
+        t.setCrashOnError(false);
+        t.finalize(arena.root());
+    }
+
+    // Every format visits each node once, so the time per node should stay flat as the tree grows
+    static void astWriter() throws Exception {
+        System.out.println(String.format("%-10s%-10s%-16s%-16s%-16s", "classes", "nodes", "text ns/node", "json ns/node", "binary ns/node"));
+        for (int classes = 100; classes <= 3200; classes *= 2) {
+            String source = Benchmark.classSource(classes);
+            Parser p = Benchmark.quietParser();
+            p.setLexer(new LexScanner(source));
+            ASTNode root = p.parse();
+            int nodes = Benchmark.countNodes(root);
+            long text = Benchmark.best(() -> ASTWriter.writeText(root, 0, Writer.nullWriter()));
+            long json = Benchmark.best(() -> ASTWriter.writeJson(root, Writer.nullWriter()));
+            long binary = Benchmark.best(() -> ASTWriter.writeBinary(root, OutputStream.nullOutputStream()));
+            System.out.println(String.format("%-10d%-10d%-16d%-16d%-16d", classes, nodes, text / nodes, json / nodes, binary / nodes));
+        }
+    }
+
+    // collects a few times and returns the least heap seen in use
+    static long usedHeap() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,73 @@
+import java.io.StringReader;
+import java.io.StringWriter;
+
+// Checks that types are resolved the same whatever the source is read from and wherever a class is
+// declared. A type that is never declared must fail to parse, with or without a class in the source,
+// and a class must be usable before its declaration, in every mode: SourceArray, TokenArray and a
+// stream, where class names are only known as the parser reaches them.
+// usage: java UndeclaredTypeTest
+public class UndeclaredTypeTest {
+    static final String[] UNDECLARED = {
+        "Foo f;\n",
+        "Bar b = new Bar();\n",
+        "int x = 1;\nFoo[] fs;\n",
+        "class Main {\n    public static void main(String[] args) {\n        Missing m = new Missing();\n    }\n}\n",
+        "class Main {\n    Missing[] ms;\n}\n",
+    };
+
+    static final String HELPER = "class Helper {\n    static int twice(int n) {\n        return n * 2;\n    }\n}\n";
+    static final String MAIN = "class Main {\n    public static void main(String[] args) {\n"
+        + "        Helper.twice(5);\n        Helper h = new Helper();\n        Helper[] hs = new Helper[2];\n    }\n}\n";
+    static final String[] DECLARED = { MAIN + HELPER, HELPER + MAIN };
+
+    static final String[] MODES = { "source", "tokens", "stream" };
+
+    public static void main(String[] args) throws Exception {
+        int failed = 0;
+        for (String source : UNDECLARED) {
+            for (String mode : MODES) {
+                Parser p = parser(mode, source);
+                p.parse();
+                if (p.getErrorMsg() == null) {
+                    System.out.println("FAILED: " + mode + " parsed an undeclared type in\n" + source);
+                    failed++;
+                }
+            }
+        }
+        for (String source : DECLARED) {
+            String expected = null;
+            for (String mode : MODES) {
+                Parser p = parser(mode, source);
+                ASTNode root = p.parse();
+                if (p.getErrorMsg() != null) {
+                    System.out.println("FAILED: " + mode + " " + p.getErrorMsg() + " in\n" + source);
+                    failed++;
+                    continue;
+                }
+                StringWriter tree = new StringWriter();
+                ASTWriter.writeText(root, 0, tree);
+                if (expected == null) {
+                    expected = tree.toString();
+                } else if (!expected.equals(tree.toString())) {
+                    System.out.println("FAILED: " + mode + " built a different tree for\n" + source);
+                    failed++;
+                }
+            }
+        }
+        System.out.println(failed == 0 ? "all types resolved" : "FAILED: " + failed + " checks");
+    }
+
+    static Parser parser(String mode, String source) throws Exception {
+        Parser p = new Parser();
+        p.setDebug(false);
+        p.setPrintTree(false);
+        if (mode.equals("tokens")) {
+            p.setTokens(TokenArray.tokenize(source));
+        } else if (mode.equals("stream")) {
+            p.setLexer(new LexScanner(new StringReader(source)));
+        } else {
+            p.setLexer(new LexScanner(source));
+        }
+        return p;
+    }
+}